@@ -0,0 +1,71 @@
+package benchmark;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.TreeMap;
+import lib.IArvoreBinaria;
+
+/* java.util.TreeMap (rubro-negra da JDK) vista como IArvoreBinaria, para servir de referência nos benchmarks.
+ *
+ * Cada valor é chave e valor do mapa, então um valor igual a outro já presente o substitui.
+ * O TreeMap não expõe os nós: altura() retorna -1 e o caminhamento em nível é o caminhamento em ordem.
+ */
+public class AdaptadorTreeMap<T> implements IArvoreBinaria<T> {
+
+    private final TreeMap<T, T> mapa;
+
+    public AdaptadorTreeMap(Comparator<T> comparador) {
+        mapa = new TreeMap<>(comparador);
+    }
+
+    @Override
+    public void adicionar(T novoValor) {
+        mapa.put(novoValor, novoValor);
+    }
+
+    @Override
+    public T pesquisar(T valor) {
+        return mapa.get(valor);
+    }
+
+    @Override
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public T pesquisar(T valor, Comparator comparador) {
+        for (T atual : mapa.keySet()) {
+            if (comparador.compare(valor, atual) == 0) {
+                return atual;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public T remover(T valor) {
+        return mapa.remove(valor);
+    }
+
+    @Override
+    public int altura() {
+        return -1;
+    }
+
+    @Override
+    public int quantidadeNos() {
+        return mapa.size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return mapa.keySet().iterator();
+    }
+
+    @Override
+    public Iterator<T> iteradorReverso() {
+        return mapa.descendingKeySet().iterator();
+    }
+
+    @Override
+    public Iterator<T> iteradorEmNivel() {
+        return iterator();
+    }
+}
@@ -0,0 +1,97 @@
+package benchmark;
+
+import app.Aluno;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/* Operações de IArvoreBinaria sobre árvores balanceadas e aleatórias de até 10 milhões de alunos,
+ * para ArvoreBinaria, ArvoreAVL e TreeMap (referência).
+ *
+ * As árvores degeneradas ficam em BenchmarkArvoresDegeneradas: montar uma ArvoreBinaria
+ * degenerada custa O(n^2) e só é viável até uns 100 mil alunos.
+ *
+ * adicionar e remover são medidos em lotes de Cenario.LOTE alunos da própria árvore: para adicionar,
+ * o lote é retirado antes da medição; para remover, ele é devolvido depois. Assim o tamanho e
+ * a forma da árvore ficam estáveis entre as invocações.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class BenchmarkArvores {
+
+    @Param({ "ArvoreBinaria", "ArvoreAVL", "TreeMap" })
+    public String implementacao;
+
+    @Param({ "balanceada", "aleatoria" })
+    public String forma;
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int n;
+
+    Cenario cenario;
+
+    @Setup(Level.Trial)
+    public void montar(EstadoCenario estado) {
+        cenario = new Cenario(implementacao, forma, n);
+        estado.cenario = cenario;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Cenario.LOTE)
+    public void adicionar(EstadoCenario.LoteRetirado lote) {
+        cenario.devolver(lote.alunos);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Cenario.LOTE)
+    public Aluno[] remover(EstadoCenario.LotePresente lote) {
+        lote.removidos = cenario.retirar(lote.chaves);
+        return lote.removidos;
+    }
+
+    @Benchmark
+    public Aluno pesquisar() {
+        return cenario.arvore.pesquisar(cenario.chavePresente());
+    }
+
+    @Benchmark
+    public Aluno pesquisarPorComparador() {
+        return cenario.arvore.pesquisar(cenario.nomePresente(), cenario.comparadorNome);
+    }
+
+    @Benchmark
+    public int altura() {
+        return cenario.arvore.altura();
+    }
+
+    @Benchmark
+    public int quantidadeNos() {
+        return cenario.arvore.quantidadeNos();
+    }
+
+    @Benchmark
+    public long caminharEmOrdem() throws IOException {
+        return cenario.caminharEmOrdem();
+    }
+
+    @Benchmark
+    public long caminharEmNivel() throws IOException {
+        return cenario.caminharEmNivel();
+    }
+}
@@ -0,0 +1,90 @@
+package benchmark;
+
+import app.Aluno;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/* As mesmas medições de BenchmarkArvores, sobre árvores montadas por geraArvoreDegenerada
+ * (matrículas em ordem crescente). Na ArvoreBinaria isso dá uma lista encadeada e montá-la custa
+ * O(n^2), por isso os tamanhos vão só até 100 mil. Na ArvoreAVL e no TreeMap a entrada ordenada
+ * mede o custo das rotações na montagem, mas a árvore resultante é balanceada. BodeExpiatorio é a
+ * ArvoreBinaria com ativarBodeExpiatorio(0.7), que religa as subárvores desbalanceadas durante a montagem.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class BenchmarkArvoresDegeneradas {
+
+    @Param({ "ArvoreBinaria", "BodeExpiatorio", "ArvoreAVL", "TreeMap" })
+    public String implementacao;
+
+    @Param({ "1000", "10000", "100000" })
+    public int n;
+
+    Cenario cenario;
+
+    @Setup(Level.Trial)
+    public void montar(EstadoCenario estado) {
+        cenario = new Cenario(implementacao, "degenerada", n);
+        estado.cenario = cenario;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Cenario.LOTE)
+    public void adicionar(EstadoCenario.LoteRetirado lote) {
+        cenario.devolver(lote.alunos);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Cenario.LOTE)
+    public Aluno[] remover(EstadoCenario.LotePresente lote) {
+        lote.removidos = cenario.retirar(lote.chaves);
+        return lote.removidos;
+    }
+
+    @Benchmark
+    public Aluno pesquisar() {
+        return cenario.arvore.pesquisar(cenario.chavePresente());
+    }
+
+    @Benchmark
+    public Aluno pesquisarPorComparador() {
+        return cenario.arvore.pesquisar(cenario.nomePresente(), cenario.comparadorNome);
+    }
+
+    @Benchmark
+    public int altura() {
+        return cenario.arvore.altura();
+    }
+
+    @Benchmark
+    public int quantidadeNos() {
+        return cenario.arvore.quantidadeNos();
+    }
+
+    @Benchmark
+    public long caminharEmOrdem() throws IOException {
+        return cenario.caminharEmOrdem();
+    }
+
+    @Benchmark
+    public long caminharEmNivel() throws IOException {
+        return cenario.caminharEmNivel();
+    }
+}
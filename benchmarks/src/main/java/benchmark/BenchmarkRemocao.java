@@ -0,0 +1,68 @@
+package benchmark;
+
+import app.Aluno;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/* Cargas dominadas por remoções sobre árvores aleatórias de 1 milhão de alunos.
+ *
+ * remover retira um lote de Cenario.LOTE alunos espalhados pela árvore e o devolve fora da medição,
+ * então a árvore fica estável. esvaziarMetade remove, em ordem aleatória, metade dos alunos de uma
+ * árvore recém-montada: as remoções vão encontrando a árvore cada vez menor e com forma deixada
+ * pelas remoções anteriores. Como cada iteração desta medição consome a árvore, ela é montada de novo
+ * antes de cada iteração.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class BenchmarkRemocao {
+
+    static final int N = 1000000;
+
+    @Param({ "ArvoreBinaria", "ArvoreAVL", "ArvoreRubroNegra", "TreeMap" })
+    public String implementacao;
+
+    Cenario cenario;
+    Aluno[] metade;
+
+    @Setup(Level.Iteration)
+    public void montar(EstadoCenario estado) {
+        cenario = new Cenario(implementacao, "aleatoria", N);
+        estado.cenario = cenario;
+        Aluno[] chaves = cenario.todasEmbaralhadas();
+        metade = new Aluno[N / 2];
+        System.arraycopy(chaves, 0, metade, 0, metade.length);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @OperationsPerInvocation(Cenario.LOTE)
+    public Aluno[] remover(EstadoCenario.LotePresente lote) {
+        lote.removidos = cenario.retirar(lote.chaves);
+        return lote.removidos;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @OperationsPerInvocation(N / 2)
+    public int esvaziarMetade() {
+        cenario.retirar(metade);
+        return cenario.arvore.quantidadeNos();
+    }
+}
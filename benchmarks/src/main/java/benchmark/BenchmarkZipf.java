@@ -0,0 +1,76 @@
+package benchmark;
+
+import app.Aluno;
+import app.DistribuicaoZipf;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/* pesquisar com chaves sorteadas por uma distribuição de Zipf, para comparar a ArvoreSplay
+ * (com splay completo e com semi-splay) com a ArvoreAVL e o TreeMap quando poucos alunos
+ * concentram as pesquisas. Expoente 0 é o caso uniforme.
+ *
+ * As posições da distribuição passam por uma permutação das matrículas, então os alunos populares
+ * ficam espalhados pela árvore. As chaves são sorteadas antes da medição e usadas em ciclo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class BenchmarkZipf {
+
+    // Chaves sorteadas por invocação de setup; potência de 2 para o ciclo usar uma máscara
+    private static final int CHAVES = 1 << 20;
+
+    @Param({ "ArvoreAVL", "ArvoreSplay", "ArvoreSplaySemi", "TreeMap" })
+    public String implementacao;
+
+    @Param({ "0", "0.8", "1.0", "1.2" })
+    public double expoente;
+
+    @Param({ "1000000" })
+    public int n;
+
+    Cenario cenario;
+    Aluno[] chaves;
+    int proxima;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        cenario = new Cenario(implementacao, "aleatoria", n);
+        SplittableRandom rand = new SplittableRandom(7);
+        int[] permutacao = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutacao[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int aux = permutacao[i];
+            permutacao[i] = permutacao[j];
+            permutacao[j] = aux;
+        }
+        DistribuicaoZipf zipf = new DistribuicaoZipf(n, expoente);
+        chaves = new Aluno[CHAVES];
+        for (int i = 0; i < CHAVES; i++) {
+            chaves[i] = cenario.chave(permutacao[zipf.sortear(rand)]);
+        }
+    }
+
+    @Benchmark
+    public Aluno pesquisar() {
+        return cenario.arvore.pesquisar(chaves[proxima++ & (CHAVES - 1)]);
+    }
+}
@@ -0,0 +1,183 @@
+package benchmark;
+
+import app.Aluno;
+import app.ComparadorAlunoPorMatricula;
+import app.ComparadorAlunoPorNome;
+import app.GeradorDeArvores;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import lib.ArvoreAVL;
+import lib.ArvoreBinaria;
+import lib.ArvoreRubroNegra;
+import lib.ArvoreSplay;
+import lib.IArvoreBinaria;
+
+/* Uma árvore montada pelo GeradorDeArvores e as chaves sorteadas que os benchmarks usam sobre ela.
+ *
+ * As matrículas da árvore são matriculaBase+1 .. matriculaBase+n, então uma chave presente é
+ * sorteada sem consultar a árvore. Para pesquisar(T, Comparator) são guardados os nomes de
+ * alguns alunos sorteados durante a montagem.
+ *
+ * Os caminhamentos escrevem em um Appendable que só conta os caracteres: com 10 milhões de alunos,
+ * montar a String inteira mediria mais a alocação (e o coletor) do que o caminhamento.
+ */
+class Cenario {
+
+    // Operações por invocação nos benchmarks de adicionar e remover
+    static final int LOTE = 100;
+
+    private static final int MATRICULA_BASE = 2000000000;
+    private static final int NOMES_SORTEADOS = 1024;
+
+    final IArvoreBinaria<Aluno> arvore;
+    final int n;
+    final ComparadorAlunoPorNome comparadorNome = new ComparadorAlunoPorNome();
+    private final Aluno[] porNome = new Aluno[NOMES_SORTEADOS];
+    private final SplittableRandom rand = new SplittableRandom(42);
+    private final Contador saida = new Contador();
+
+    Cenario(String implementacao, String forma, int n) {
+        this.n = n;
+        ComparadorAlunoPorMatricula comparador = new ComparadorAlunoPorMatricula();
+        switch (implementacao) {
+            case "ArvoreBinaria":
+                arvore = new ArvoreBinaria<>(comparador);
+                break;
+            case "ArvoreAVL":
+                arvore = new ArvoreAVL<>(comparador);
+                break;
+            case "BodeExpiatorio":
+                ArvoreBinaria<Aluno> bodeExpiatorio = new ArvoreBinaria<>(comparador);
+                bodeExpiatorio.ativarBodeExpiatorio(0.7);
+                arvore = bodeExpiatorio;
+                break;
+            case "ArvoreRubroNegra":
+                arvore = new ArvoreRubroNegra<>(comparador);
+                break;
+            case "ArvoreSplay":
+                arvore = new ArvoreSplay<>(comparador);
+                break;
+            case "ArvoreSplaySemi":
+                arvore = new ArvoreSplay<>(comparador, true);
+                break;
+            case "TreeMap":
+                arvore = new AdaptadorTreeMap<>(comparador);
+                break;
+            default:
+                throw new IllegalArgumentException("Implementação desconhecida: " + implementacao);
+        }
+        GeradorDeArvores gerador = new GeradorDeArvores(42);
+        switch (forma) {
+            case "degenerada":
+                gerador.geraArvoreDegenerada(n, arvore);
+                break;
+            case "balanceada":
+                gerador.geraArvorePerfeitamenteBalanceada(1, n, arvore);
+                break;
+            case "aleatoria":
+                gerador.geraArvoreAleatoria(n, arvore);
+                break;
+            default:
+                throw new IllegalArgumentException("Forma desconhecida: " + forma);
+        }
+        for (int i = 0; i < NOMES_SORTEADOS; i++) {
+            Aluno aluno = arvore.pesquisar(chavePresente());
+            porNome[i] = new Aluno(0, aluno.getNome());
+        }
+    }
+
+    // Aluno só com a matrícula, de um aluno que está na árvore
+    Aluno chavePresente() {
+        return new Aluno(MATRICULA_BASE + 1 + rand.nextInt(n), "");
+    }
+
+    // Aluno só com a matrícula do i-ésimo aluno da árvore (0 <= i < n), na ordem das matrículas
+    Aluno chave(int i) {
+        return new Aluno(MATRICULA_BASE + 1 + i, "");
+    }
+
+    // Aluno só com o nome, de um aluno que está na árvore
+    Aluno nomePresente() {
+        return porNome[rand.nextInt(NOMES_SORTEADOS)];
+    }
+
+    // LOTE alunos distintos da árvore, espalhados por ela a partir de uma posição sorteada
+    Aluno[] sortearLote() {
+        int tamanho = Math.min(LOTE, n);
+        int passo = n / tamanho;
+        int inicio = rand.nextInt(n);
+        Aluno[] lote = new Aluno[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            lote[i] = new Aluno(MATRICULA_BASE + 1 + (int) ((inicio + (long) i * passo) % n), "");
+        }
+        return lote;
+    }
+
+    // Todas as n chaves da árvore, embaralhadas
+    Aluno[] todasEmbaralhadas() {
+        Aluno[] chaves = new Aluno[n];
+        for (int i = 0; i < n; i++) {
+            chaves[i] = new Aluno(MATRICULA_BASE + 1 + i, "");
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            Aluno aux = chaves[i];
+            chaves[i] = chaves[j];
+            chaves[j] = aux;
+        }
+        return chaves;
+    }
+
+    // Remove da árvore os alunos das chaves e retorna os elementos que estavam guardados
+    Aluno[] retirar(Aluno[] chaves) {
+        Aluno[] retirados = new Aluno[chaves.length];
+        for (int i = 0; i < chaves.length; i++) {
+            retirados[i] = arvore.remover(chaves[i]);
+        }
+        return retirados;
+    }
+
+    // Devolve à árvore alunos retirados antes
+    void devolver(Aluno[] alunos) {
+        for (Aluno aluno : alunos) {
+            arvore.adicionar(aluno);
+        }
+    }
+
+    // Escreve o caminhamento em ordem no contador e retorna quantos caracteres ele teria
+    long caminharEmOrdem() throws IOException {
+        saida.caracteres = 0;
+        arvore.caminharEmOrdem(saida);
+        return saida.caracteres;
+    }
+
+    // Escreve o caminhamento em nível no contador e retorna quantos caracteres ele teria
+    long caminharEmNivel() throws IOException {
+        saida.caracteres = 0;
+        arvore.caminharEmNivel(saida);
+        return saida.caracteres;
+    }
+
+    // Appendable que descarta o que recebe e só conta os caracteres
+    private static final class Contador implements Appendable {
+        long caracteres;
+
+        @Override
+        public Appendable append(CharSequence texto) {
+            caracteres += String.valueOf(texto).length();
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence texto, int inicio, int fim) {
+            caracteres += fim - inicio;
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            caracteres++;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package benchmark;
+
+import app.Aluno;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/* O Cenario de um benchmark, compartilhado com os lotes por invocação que as medições de adicionar
+ * e remover recebem como parâmetro. O JMH cria um estado por classe, então o benchmark recebe este
+ * estado no seu @Setup e guarda nele o cenário que montou.
+ */
+@State(Scope.Benchmark)
+public class EstadoCenario {
+
+    Cenario cenario;
+
+    // Lote retirado da árvore antes de cada invocação, para ser adicionado de volta na medição
+    @State(Scope.Thread)
+    public static class LoteRetirado {
+        Aluno[] alunos;
+
+        @Setup(Level.Invocation)
+        public void retirar(EstadoCenario estado) {
+            alunos = estado.cenario.retirar(estado.cenario.sortearLote());
+        }
+    }
+
+    // Lote sorteado antes de cada invocação, removido na medição e devolvido depois
+    @State(Scope.Thread)
+    public static class LotePresente {
+        Aluno[] chaves;
+        Aluno[] removidos;
+
+        @Setup(Level.Invocation)
+        public void sortear(EstadoCenario estado) {
+            chaves = estado.cenario.sortearLote();
+        }
+
+        @TearDown(Level.Invocation)
+        public void devolver(EstadoCenario estado) {
+            estado.cenario.devolver(removidos);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/* Gravação e carga de retratos pelo ArquivoArvore: a árvore volta com os mesmos valores e a mesma
+ * forma, com as invariantes do tipo de destino, e arquivos truncados ou com cabeçalho inválido
+ * são recusados com IOException.
+ */
+class ArquivoArvoreTest {
+
+    private static final CodecInteiro CODEC = new CodecInteiro();
+
+    @TempDir
+    Path diretorio;
+
+    private static <A extends ArvoreBinaria<Integer>> A preencher(A arvore, int n, long semente) {
+        Random rand = new Random(semente);
+        for (int i = 0; i < n; i++) {
+            arvore.adicionar(rand.nextInt(10 * n));
+        }
+        return arvore;
+    }
+
+    private static List<Integer> emOrdem(ArvoreBinaria<Integer> arvore) {
+        List<Integer> valores = new ArrayList<>();
+        arvore.forEach(valores::add);
+        return valores;
+    }
+
+    @Test
+    void arvoreBinariaVoltaComAMesmaForma() throws IOException {
+        ArvoreBinaria<Integer> original = preencher(new ArvoreBinaria<>(Integer::compare), 5000, 1);
+        Path arquivo = diretorio.resolve("binaria.arv");
+        ArquivoArvore.salvar(original, CODEC, arquivo);
+
+        ArvoreBinaria<Integer> carregada = new ArvoreBinaria<>(Integer::compare);
+        ArquivoArvore.carregar(arquivo, CODEC, carregada);
+        Invariantes.binaria(carregada);
+        assertEquals(original.caminharEmNivel(), carregada.caminharEmNivel());
+        assertEquals(original.altura(), carregada.altura());
+    }
+
+    @Test
+    void arvoreAVLVoltaBalanceada() throws IOException {
+        ArvoreAVL<Integer> original = preencher(new ArvoreAVL<>(Integer::compare), 5000, 2);
+        Path arquivo = diretorio.resolve("avl.arv");
+        ArquivoArvore.salvar(original, CODEC, arquivo);
+
+        ArvoreAVL<Integer> carregada = new ArvoreAVL<>(Integer::compare);
+        ArquivoArvore.carregar(arquivo, CODEC, carregada);
+        Invariantes.avl(carregada);
+        assertEquals(original.caminharEmNivel(), carregada.caminharEmNivel());
+    }
+
+    @Test
+    void arvoreRubroNegraVoltaComCoresValidas() throws IOException {
+        ArvoreRubroNegra<Integer> original = preencher(new ArvoreRubroNegra<>(Integer::compare), 5000, 3);
+        Path arquivo = diretorio.resolve("rubro-negra.arv");
+        ArquivoArvore.salvar(original, CODEC, arquivo);
+
+        ArvoreRubroNegra<Integer> carregada = new ArvoreRubroNegra<>(Integer::compare);
+        ArquivoArvore.carregar(arquivo, CODEC, carregada);
+        Invariantes.rubroNegra(carregada);
+        assertEquals(emOrdem(original), emOrdem(carregada));
+        // Continua válida depois de novas alterações
+        preencher(carregada, 1000, 4);
+        for (int i = 0; i < 20000; i += 3) {
+            carregada.remover(i);
+        }
+        Invariantes.rubroNegra(carregada);
+    }
+
+    @Test
+    void arquivoDeUmaBinariaCarregadoNaAVLEReligadoBalanceado() throws IOException {
+        ArvoreBinaria<Integer> degenerada = new ArvoreBinaria<>(Integer::compare);
+        for (int i = 0; i < 1000; i++) {
+            degenerada.adicionar(i);
+        }
+        Path arquivo = diretorio.resolve("degenerada.arv");
+        ArquivoArvore.salvar(degenerada, CODEC, arquivo);
+
+        ArvoreAVL<Integer> carregada = new ArvoreAVL<>(Integer::compare);
+        ArquivoArvore.carregar(arquivo, CODEC, carregada);
+        Invariantes.avl(carregada);
+        assertEquals(emOrdem(degenerada), emOrdem(carregada));
+    }
+
+    @Test
+    void arvoreVaziaVoltaVazia() throws IOException {
+        Path arquivo = diretorio.resolve("vazia.arv");
+        ArquivoArvore.salvar(new ArvoreAVL<>(Integer::compare), CODEC, arquivo);
+        ArvoreAVL<Integer> carregada = new ArvoreAVL<>(Integer::compare);
+        ArquivoArvore.carregar(arquivo, CODEC, carregada);
+        assertEquals(0, carregada.quantidadeNos());
+        assertEquals(-1, carregada.altura());
+    }
+
+    @Test
+    void arquivoTruncadoERecusado() throws IOException {
+        Path arquivo = diretorio.resolve("truncado.arv");
+        ArquivoArvore.salvar(preencher(new ArvoreAVL<>(Integer::compare), 1000, 5), CODEC, arquivo);
+        byte[] bytes = Files.readAllBytes(arquivo);
+        for (int tamanho : new int[] { 0, 6, 11, 12 + 5, bytes.length / 2, bytes.length - 1 }) {
+            Path pedaco = diretorio.resolve("pedaco-" + tamanho + ".arv");
+            Files.write(pedaco, Arrays.copyOf(bytes, tamanho));
+            assertThrows(IOException.class,
+                    () -> ArquivoArvore.carregar(pedaco, CODEC, new ArvoreAVL<>(Integer::compare)), "tamanho " + tamanho);
+        }
+    }
+
+    @Test
+    void cabecalhoComQuantidadeImpossivelERecusado() throws IOException {
+        Path arquivo = diretorio.resolve("cabecalho.arv");
+        ArquivoArvore.salvar(preencher(new ArvoreAVL<>(Integer::compare), 10, 6), CODEC, arquivo);
+        byte[] bytes = Files.readAllBytes(arquivo);
+        // A quantidade de nós é o terceiro int do cabeçalho
+        try (DataOutputStream saida = new DataOutputStream(Files.newOutputStream(arquivo))) {
+            saida.write(bytes, 0, 8);
+            saida.writeInt(Integer.MAX_VALUE);
+            saida.write(bytes, 12, bytes.length - 12);
+        }
+        assertThrows(IOException.class, () -> ArquivoArvore.carregar(arquivo, CODEC, new ArvoreAVL<>(Integer::compare)));
+    }
+
+    @Test
+    void destinoPrecisaEstarVazio() throws IOException {
+        Path arquivo = diretorio.resolve("destino.arv");
+        ArquivoArvore.salvar(preencher(new ArvoreAVL<>(Integer::compare), 10, 7), CODEC, arquivo);
+        ArvoreAVL<Integer> destino = preencher(new ArvoreAVL<>(Integer::compare), 1, 8);
+        assertThrows(IllegalArgumentException.class, () -> ArquivoArvore.carregar(arquivo, CODEC, destino));
+    }
+}
@@ -0,0 +1,136 @@
+package lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/* Inserções e remoções na ArvoreB em várias ordens, conferindo depois de cada operação as
+ * invariantes da árvore (ArvoreB.verificar): ocupação mínima, separadores, folhas no mesmo nível
+ * e encadeamento. As remoções em ordem crescente, decrescente e intercalada forçam os empréstimos
+ * dos dois irmãos e as junções, inclusive a que tira um nível da raiz.
+ */
+class ArvoreBTest {
+
+    private static List<Integer> emOrdem(Iterator<Integer> it) {
+        List<Integer> valores = new ArrayList<>();
+        it.forEachRemaining(valores::add);
+        return valores;
+    }
+
+    private static void conferir(ArvoreB<Integer> arvore, List<Integer> referencia) {
+        arvore.verificar();
+        assertEquals(referencia.size(), arvore.quantidadeNos());
+        assertEquals(referencia, emOrdem(arvore.iterator()));
+    }
+
+    private static ArvoreB<Integer> crescente(int ordem, int n) {
+        ArvoreB<Integer> arvore = new ArvoreB<>(Integer::compare, ordem);
+        for (int i = 0; i < n; i++) {
+            arvore.adicionar(i);
+            arvore.verificar();
+        }
+        return arvore;
+    }
+
+    @ParameterizedTest(name = "ordem {0}")
+    @ValueSource(ints = { 3, 4, 5, 8, 64 })
+    void removerDaEsquerdaEmprestaDaDireitaEJunta(int ordem) {
+        List<Integer> referencia = new ArrayList<>();
+        ArvoreB<Integer> arvore = crescente(ordem, 500);
+        for (int i = 0; i < 500; i++) {
+            referencia.add(i);
+        }
+        while (!referencia.isEmpty()) {
+            Integer menor = referencia.remove(0);
+            assertEquals(menor, arvore.remover(menor));
+            conferir(arvore, referencia);
+        }
+        assertEquals(-1, arvore.altura());
+        assertFalse(arvore.iterator().hasNext());
+    }
+
+    @ParameterizedTest(name = "ordem {0}")
+    @ValueSource(ints = { 3, 4, 5, 8, 64 })
+    void removerDaDireitaEmprestaDaEsquerdaEJunta(int ordem) {
+        List<Integer> referencia = new ArrayList<>();
+        ArvoreB<Integer> arvore = crescente(ordem, 500);
+        for (int i = 0; i < 500; i++) {
+            referencia.add(i);
+        }
+        while (!referencia.isEmpty()) {
+            Integer maior = referencia.remove(referencia.size() - 1);
+            assertEquals(maior, arvore.remover(maior));
+            conferir(arvore, referencia);
+        }
+        assertEquals(-1, arvore.altura());
+    }
+
+    @ParameterizedTest(name = "ordem {0}")
+    @ValueSource(ints = { 3, 4, 5, 8, 64 })
+    void removerIntercaladoEsvaziaOsNosDoMeio(int ordem) {
+        List<Integer> referencia = new ArrayList<>();
+        ArvoreB<Integer> arvore = crescente(ordem, 600);
+        for (int i = 0; i < 600; i++) {
+            referencia.add(i);
+        }
+        // Primeiro os pares, depois os múltiplos de 3 que sobraram, depois o resto do meio para as pontas
+        for (int passo : new int[] { 2, 3 }) {
+            for (int i = 0; i < 600; i += passo) {
+                boolean presente = referencia.remove(Integer.valueOf(i));
+                assertEquals(presente ? Integer.valueOf(i) : null, arvore.remover(i));
+                conferir(arvore, referencia);
+            }
+        }
+        while (!referencia.isEmpty()) {
+            Integer meio = referencia.remove(referencia.size() / 2);
+            assertEquals(meio, arvore.remover(meio));
+            conferir(arvore, referencia);
+        }
+        assertNull(arvore.remover(0));
+    }
+
+    @ParameterizedTest(name = "ordem {0}")
+    @ValueSource(ints = { 3, 4, 7, 16 })
+    void operacoesAleatoriasComRepeticoes(int ordem) {
+        Random rand = new Random(ordem);
+        ArvoreB<Integer> arvore = new ArvoreB<>(Integer::compare, ordem);
+        List<Integer> referencia = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) {
+            // Universo pequeno para haver muitos valores repetidos, que podem ficar em folhas vizinhas
+            int valor = rand.nextInt(300);
+            if (rand.nextInt(10) < (i < 3000 ? 7 : 3)) {
+                arvore.adicionar(valor);
+                int j = Collections.binarySearch(referencia, valor);
+                referencia.add(j < 0 ? -j - 1 : j, valor);
+            } else {
+                boolean presente = referencia.remove(Integer.valueOf(valor));
+                assertEquals(presente ? Integer.valueOf(valor) : null, arvore.remover(valor));
+            }
+            arvore.verificar();
+        }
+        conferir(arvore, referencia);
+
+        List<Integer> reverso = new ArrayList<>(referencia);
+        Collections.reverse(reverso);
+        assertEquals(reverso, emOrdem(arvore.iteradorReverso()));
+        assertEquals(referencia, emOrdem(arvore.iteradorEmNivel()));
+        for (int min = -5; min < 310; min += 7) {
+            int max = min + rand.nextInt(40);
+            List<Integer> esperado = new ArrayList<>();
+            for (Integer valor : referencia) {
+                if (valor >= min && valor <= max) {
+                    esperado.add(valor);
+                }
+            }
+            assertEquals(esperado, emOrdem(arvore.intervalo(min, max)));
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/* Operações aleatórias de inserção e remoção sobre cada árvore binária, comparadas com uma lista
+ * ordenada de referência (com repetições, como nas árvores), conferindo as invariantes de cada
+ * tipo de árvore ao longo do caminho. As consultas de ordem (posicao, selecionar, vizinhos,
+ * intervalo) e o spliterator são conferidos contra a mesma referência.
+ */
+class ArvoresBinariasTest {
+
+    private static final Comparator<Integer> COMPARADOR = Integer::compare;
+
+    static Stream<Arguments> arvores() {
+        return Stream.of(
+                Arguments.of("ArvoreBinaria", (Supplier<ArvoreBinaria<Integer>>) () -> new ArvoreBinaria<>(COMPARADOR)),
+                Arguments.of("BodeExpiatorio", (Supplier<ArvoreBinaria<Integer>>) () -> {
+                    ArvoreBinaria<Integer> arvore = new ArvoreBinaria<>(COMPARADOR);
+                    arvore.ativarBodeExpiatorio(0.7);
+                    return arvore;
+                }),
+                Arguments.of("ArvoreAVL", (Supplier<ArvoreBinaria<Integer>>) () -> new ArvoreAVL<>(COMPARADOR)),
+                Arguments.of("ArvoreRubroNegra", (Supplier<ArvoreBinaria<Integer>>) () -> new ArvoreRubroNegra<>(COMPARADOR)),
+                Arguments.of("ArvoreSplay", (Supplier<ArvoreBinaria<Integer>>) () -> new ArvoreSplay<>(COMPARADOR)),
+                Arguments.of("ArvoreSplaySemi", (Supplier<ArvoreBinaria<Integer>>) () -> new ArvoreSplay<>(COMPARADOR, true)));
+    }
+
+    // As invariantes de cada tipo de árvore, além das da árvore binária de busca
+    private static void conferir(ArvoreBinaria<Integer> arvore) {
+        if (arvore instanceof ArvoreAVL) {
+            Invariantes.avl((ArvoreAVL<Integer>) arvore);
+        } else if (arvore instanceof ArvoreRubroNegra) {
+            Invariantes.rubroNegra((ArvoreRubroNegra<Integer>) arvore);
+        } else {
+            Invariantes.binaria(arvore);
+        }
+    }
+
+    private static void adicionar(List<Integer> referencia, int valor) {
+        int i = Collections.binarySearch(referencia, valor);
+        referencia.add(i < 0 ? -i - 1 : i, valor);
+    }
+
+    private static List<Integer> emOrdem(Iterator<Integer> it) {
+        List<Integer> valores = new ArrayList<>();
+        it.forEachRemaining(valores::add);
+        return valores;
+    }
+
+    // Árvore e referência com `n` valores sorteados entre 0 e `universo`, com repetições
+    private static List<Integer> preencher(ArvoreBinaria<Integer> arvore, int n, int universo, Random rand) {
+        List<Integer> referencia = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int valor = rand.nextInt(universo);
+            arvore.adicionar(valor);
+            adicionar(referencia, valor);
+        }
+        return referencia;
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("arvores")
+    void operacoesAleatoriasMantemAsInvariantes(String nome, Supplier<ArvoreBinaria<Integer>> fabrica) {
+        Random rand = new Random(1);
+        ArvoreBinaria<Integer> arvore = fabrica.get();
+        List<Integer> referencia = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int valor = rand.nextInt(600);
+            // Mais inserções que remoções no começo, para a árvore crescer e depois encolher
+            if (rand.nextInt(10) < (i < 2500 ? 7 : 3)) {
+                arvore.adicionar(valor);
+                adicionar(referencia, valor);
+            } else {
+                boolean presente = referencia.remove(Integer.valueOf(valor));
+                assertEquals(presente ? Integer.valueOf(valor) : null, arvore.remover(valor));
+            }
+            if (i % 25 == 0) {
+                conferir(arvore);
+                assertEquals(referencia, emOrdem(arvore.iterator()));
+            }
+        }
+        conferir(arvore);
+        assertEquals(referencia, emOrdem(arvore.iterator()));
+        for (int valor = 0; valor < 600; valor++) {
+            assertEquals(referencia.contains(valor) ? Integer.valueOf(valor) : null, arvore.pesquisar(valor));
+        }
+        // Esvazia na ordem em que os valores estavam
+        for (Integer valor : new ArrayList<>(referencia)) {
+            assertEquals(valor, arvore.remover(valor));
+        }
+        conferir(arvore);
+        assertEquals(0, arvore.quantidadeNos());
+        assertEquals(-1, arvore.altura());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("arvores")
+    void lotesMantemAsInvariantes(String nome, Supplier<ArvoreBinaria<Integer>> fabrica) {
+        Random rand = new Random(2);
+        ArvoreBinaria<Integer> arvore = fabrica.get();
+        List<Integer> referencia = preencher(arvore, 300, 2000, rand);
+        List<Integer> novos = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            novos.add(rand.nextInt(2000));
+        }
+        arvore.adicionarTodos(novos);
+        novos.forEach(valor -> adicionar(referencia, valor));
+        conferir(arvore);
+        assertEquals(referencia, emOrdem(arvore.iterator()));
+
+        List<Integer> remover = new ArrayList<>(referencia.subList(0, referencia.size() / 2));
+        Collections.shuffle(remover, rand);
+        arvore.removerLote(remover);
+        remover.forEach(referencia::remove);
+        conferir(arvore);
+        assertEquals(referencia, emOrdem(arvore.iterator()));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("arvores")
+    void posicaoESelecionarSeguemAOrdem(String nome, Supplier<ArvoreBinaria<Integer>> fabrica) {
+        Random rand = new Random(3);
+        ArvoreBinaria<Integer> arvore = fabrica.get();
+        List<Integer> referencia = preencher(arvore, 1500, 1000, rand);
+        for (int k = 0; k < referencia.size(); k++) {
+            assertEquals(referencia.get(k), arvore.selecionar(k));
+        }
+        assertNull(arvore.selecionar(-1));
+        assertNull(arvore.selecionar(referencia.size()));
+        for (int valor = -1; valor <= 1001; valor++) {
+            int i = Collections.binarySearch(referencia, valor);
+            // A primeira ocorrência, se houver, é a quantidade de menores
+            int menores = i < 0 ? -i - 1 : referencia.indexOf(valor);
+            assertEquals(menores, arvore.posicao(valor));
+        }
+        conferir(arvore);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("arvores")
+    void vizinhosEIntervalosSeguemAOrdem(String nome, Supplier<ArvoreBinaria<Integer>> fabrica) {
+        Random rand = new Random(4);
+        ArvoreBinaria<Integer> arvore = fabrica.get();
+        List<Integer> referencia = preencher(arvore, 400, 1000, rand);
+        assertEquals(referencia.get(0), arvore.menor());
+        assertEquals(referencia.get(referencia.size() - 1), arvore.maior());
+        for (int valor = -1; valor <= 1001; valor++) {
+            Integer piso = null, teto = null, antecessor = null, sucessor = null;
+            for (Integer atual : referencia) {
+                if (atual <= valor) {
+                    piso = atual;
+                }
+                if (atual < valor) {
+                    antecessor = atual;
+                }
+                if (atual >= valor && teto == null) {
+                    teto = atual;
+                }
+                if (atual > valor && sucessor == null) {
+                    sucessor = atual;
+                }
+            }
+            assertEquals(piso, arvore.piso(valor));
+            assertEquals(teto, arvore.teto(valor));
+            assertEquals(antecessor, arvore.antecessor(valor));
+            assertEquals(sucessor, arvore.sucessor(valor));
+        }
+        for (int i = 0; i < 200; i++) {
+            int min = rand.nextInt(1100) - 50;
+            int max = min + rand.nextInt(300) - 50;
+            List<Integer> esperado = new ArrayList<>();
+            for (Integer atual : referencia) {
+                if (atual >= min && atual <= max) {
+                    esperado.add(atual);
+                }
+            }
+            assertEquals(esperado, emOrdem(arvore.intervalo(min, max)));
+        }
+        conferir(arvore);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("arvores")
+    void spliteratorDivideSemPerderNemRepetir(String nome, Supplier<ArvoreBinaria<Integer>> fabrica) {
+        Random rand = new Random(5);
+        ArvoreBinaria<Integer> arvore = fabrica.get();
+        List<Integer> referencia = preencher(arvore, 3000, 5000, rand);
+
+        // Divide até o fim, sempre pelo lado sorteado, e junta os pedaços na ordem do caminhamento
+        List<Integer> juntos = new ArrayList<>();
+        dividir(arvore.spliterator(), rand, juntos::add);
+        assertEquals(referencia, juntos);
+
+        Spliterator<Integer> inteiro = arvore.spliterator();
+        assertEquals(referencia.size(), inteiro.getExactSizeIfKnown());
+        assertTrue(inteiro.hasCharacteristics(Spliterator.ORDERED | Spliterator.SORTED));
+
+        long soma = referencia.stream().mapToLong(Integer::longValue).sum();
+        assertEquals(soma, StreamSupport.stream(arvore.spliterator(), true).mapToLong(Integer::longValue).sum());
+        assertEquals(referencia, StreamSupport.stream(arvore.spliterator(), true).toList());
+    }
+
+    // Consome o spliterator em ordem: o prefixo devolvido por trySplit vem antes do resto
+    private static void dividir(Spliterator<Integer> resto, Random rand, Consumer<Integer> destino) {
+        long antes = resto.estimateSize();
+        Spliterator<Integer> prefixo = resto.trySplit();
+        if (prefixo == null) {
+            resto.forEachRemaining(destino);
+            return;
+        }
+        if (resto.hasCharacteristics(Spliterator.SIZED) && prefixo.hasCharacteristics(Spliterator.SIZED)) {
+            assertEquals(antes, prefixo.estimateSize() + resto.estimateSize());
+        }
+        if (rand.nextInt(4) == 0) {
+            // Consome um pedaço do prefixo antes de dividi-lo de novo
+            prefixo.tryAdvance(destino);
+        }
+        dividir(prefixo, rand, destino);
+        dividir(resto, rand, destino);
+    }
+
+    @Test
+    void bodeExpiatorioLimitaAAltura() {
+        double alfa = 0.7;
+        ArvoreBinaria<Integer> arvore = new ArvoreBinaria<>(COMPARADOR);
+        arvore.ativarBodeExpiatorio(alfa);
+        // Em ordem crescente a ArvoreBinaria sem balanceamento seria uma lista
+        for (int i = 0; i < 20000; i++) {
+            arvore.adicionar(i);
+            if (i % 500 == 0) {
+                Invariantes.binaria(arvore);
+                assertTrue(arvore.altura() <= alturaMaxima(arvore.quantidadeNos(), alfa), "altura " + arvore.altura());
+            }
+        }
+        Random rand = new Random(6);
+        for (int i = 0; i < 19000; i++) {
+            arvore.remover(rand.nextInt(20000));
+            if (i % 500 == 0) {
+                Invariantes.binaria(arvore);
+                assertTrue(arvore.altura() <= alturaMaxima(arvore.quantidadeNos(), alfa), "altura " + arvore.altura());
+            }
+        }
+    }
+
+    // log(n)/log(1/alfa) depois das inserções, mais um nível que as remoções podem deixar antes da reconstrução total
+    private static double alturaMaxima(int n, double alfa) {
+        return Math.log(Math.max(n, 1) / alfa) / -Math.log(alfa) + 1;
+    }
+
+    @Test
+    void arvoreDegeneradaNaoEstouraAPilha() {
+        int n = 30000;
+        ArvoreBinaria<Integer> arvore = new ArvoreBinaria<>(COMPARADOR);
+        for (int i = 0; i < n; i++) {
+            arvore.adicionar(i);
+        }
+        assertEquals(n - 1, arvore.altura());
+        assertEquals(n, arvore.quantidadeNos());
+        assertEquals(n / 2, arvore.posicao(n / 2));
+        assertEquals(Integer.valueOf(n - 1), arvore.pesquisar(n - 1));
+        for (int i = n - 1; i >= 0; i -= 2) {
+            assertEquals(Integer.valueOf(i), arvore.remover(i));
+        }
+        assertEquals(n / 2, arvore.quantidadeNos());
+        assertEquals(n / 2 - 1, arvore.altura());
+    }
+}
@@ -0,0 +1,24 @@
+package lib;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Codec dos testes: cada Integer ocupa 4 bytes
+final class CodecInteiro implements CodecValor<Integer> {
+
+    @Override
+    public void escrever(Integer valor, DataOutput saida) throws IOException {
+        saida.writeInt(valor);
+    }
+
+    @Override
+    public Integer ler(ByteBuffer entrada) {
+        return entrada.getInt();
+    }
+
+    @Override
+    public int tamanhoMinimo() {
+        return 4;
+    }
+}
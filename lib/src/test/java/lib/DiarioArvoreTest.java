@@ -0,0 +1,199 @@
+package lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/* Recuperação pelo DiarioArvore: a árvore reaberta a partir do diretório tem os mesmos valores
+ * que tinha ao fechar (ou no último sincronizar, em uma queda), depois de compactações e com o
+ * último registro do diário rasgado ou corrompido, que é descartado. Cada registro de um Integer
+ * ocupa 13 bytes: tipo, tamanho, valor e CRC.
+ */
+class DiarioArvoreTest {
+
+    private static final CodecInteiro CODEC = new CodecInteiro();
+    private static final int TAMANHO_REGISTRO = 1 + 4 + 4 + 4;
+
+    @TempDir
+    Path diretorio;
+
+    private static List<Integer> emOrdem(ArvoreBinaria<Integer> arvore) {
+        List<Integer> valores = new ArrayList<>();
+        arvore.forEach(valores::add);
+        return valores;
+    }
+
+    // Adições e remoções sorteadas, aplicadas na árvore e na referência
+    private static void alterar(ArvoreBinaria<Integer> arvore, List<Integer> referencia, int operacoes, Random rand) {
+        for (int i = 0; i < operacoes; i++) {
+            int valor = rand.nextInt(2000);
+            if (rand.nextInt(3) > 0) {
+                arvore.adicionar(valor);
+                int j = Collections.binarySearch(referencia, valor);
+                referencia.add(j < 0 ? -j - 1 : j, valor);
+            } else if (arvore.remover(valor) != null) {
+                referencia.remove(Integer.valueOf(valor));
+            }
+        }
+    }
+
+    // Abre o diário sobre a árvore vazia, faz as alterações e fecha o diário
+    private void comDiario(ArvoreAVL<Integer> arvore, int lote, Consumer<ArvoreAVL<Integer>> alteracoes)
+            throws IOException {
+        DiarioArvore<Integer> diario = DiarioArvore.abrir(diretorio, CODEC, arvore, lote);
+        try {
+            alteracoes.accept(arvore);
+        } finally {
+            diario.close();
+        }
+    }
+
+    // Recupera uma árvore nova a partir do diretório e confere os valores
+    private void reabrir(List<Integer> esperado) throws IOException {
+        ArvoreAVL<Integer> recuperada = new ArvoreAVL<>(Integer::compare);
+        DiarioArvore.abrir(diretorio, CODEC, recuperada, 16).close();
+        Invariantes.avl(recuperada);
+        assertEquals(esperado, emOrdem(recuperada));
+    }
+
+    // O diário da geração mais recente
+    private Path ultimoDiario() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().matches("diario-\\d+\\.log"))
+                    .max((a, b) -> Long.compare(geracao(a), geracao(b)))
+                    .orElseThrow();
+        }
+    }
+
+    private static long geracao(Path diario) {
+        String nome = diario.getFileName().toString();
+        return Long.parseLong(nome.substring("diario-".length(), nome.length() - ".log".length()));
+    }
+
+    @Test
+    void reabrirRefazAsAlteracoes() throws IOException {
+        Random rand = new Random(1);
+        List<Integer> referencia = new ArrayList<>();
+        ArvoreAVL<Integer> arvore = new ArvoreAVL<>(Integer::compare);
+        comDiario(arvore, 16, a -> alterar(a, referencia, 3000, rand));
+        reabrir(referencia);
+
+        // Cada abertura começa uma geração nova; as anteriores continuam sendo refeitas em ordem
+        ArvoreAVL<Integer> segunda = new ArvoreAVL<>(Integer::compare);
+        comDiario(segunda, 16, a -> alterar(a, referencia, 3000, rand));
+        reabrir(referencia);
+    }
+
+    @Test
+    void quedaPerdeSoOQueNaoFoiSincronizado() throws IOException {
+        Random rand = new Random(2);
+        List<Integer> referencia = new ArrayList<>();
+        ArvoreAVL<Integer> arvore = new ArvoreAVL<>(Integer::compare);
+        DiarioArvore<Integer> diario = DiarioArvore.abrir(diretorio, CODEC, arvore, 1000);
+        alterar(arvore, referencia, 2500, rand);
+        diario.sincronizar();
+        List<Integer> sincronizada = new ArrayList<>(referencia);
+        // Menos que um lote: fica só na memória do diário, como em uma queda antes do fsync
+        alterar(arvore, referencia, 500, rand);
+
+        // O diário antigo não é fechado: fechar gravaria o lote pendente
+        reabrir(sincronizada);
+    }
+
+    @Test
+    void compactarGravaORetratoEApagaAsGeracoesAnteriores() throws IOException {
+        Random rand = new Random(3);
+        List<Integer> referencia = new ArrayList<>();
+        ArvoreAVL<Integer> arvore = new ArvoreAVL<>(Integer::compare);
+        try (DiarioArvore<Integer> diario = DiarioArvore.abrir(diretorio, CODEC, arvore, 64)) {
+            alterar(arvore, referencia, 2000, rand);
+            diario.compactar().join();
+            alterar(arvore, referencia, 2000, rand);
+        }
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            List<String> nomes = arquivos.map(arquivo -> arquivo.getFileName().toString()).toList();
+            assertEquals(1, nomes.stream().filter(nome -> nome.endsWith(".arv")).count(), nomes.toString());
+            assertFalse(nomes.stream().anyMatch(nome -> nome.endsWith(".tmp")), nomes.toString());
+        }
+        reabrir(referencia);
+    }
+
+    @Test
+    void registroFinalRasgadoEDescartado() throws IOException {
+        Random rand = new Random(4);
+        List<Integer> referencia = new ArrayList<>();
+        ArvoreAVL<Integer> arvore = new ArvoreAVL<>(Integer::compare);
+        comDiario(arvore, 1, a -> {
+            alterar(a, referencia, 1000, rand);
+            // Último registro, que a queda vai rasgar
+            a.adicionar(5000);
+        });
+        Path diario = ultimoDiario();
+        long tamanho = Files.size(diario);
+        try (FileChannel canal = FileChannel.open(diario, StandardOpenOption.WRITE)) {
+            canal.truncate(tamanho - 3);
+        }
+
+        reabrir(referencia);
+        // O diário foi cortado no último registro completo
+        assertEquals(tamanho - TAMANHO_REGISTRO, Files.size(diario));
+
+        // E as gerações seguintes continuam a partir dele
+        ArvoreAVL<Integer> seguinte = new ArvoreAVL<>(Integer::compare);
+        comDiario(seguinte, 1, a -> alterar(a, referencia, 500, rand));
+        reabrir(referencia);
+    }
+
+    @Test
+    void registroFinalComCrcErradoEDescartado() throws IOException {
+        Random rand = new Random(5);
+        List<Integer> referencia = new ArrayList<>();
+        ArvoreAVL<Integer> arvore = new ArvoreAVL<>(Integer::compare);
+        comDiario(arvore, 8, a -> {
+            alterar(a, referencia, 1000, rand);
+            a.adicionar(5000);
+        });
+        Path diario = ultimoDiario();
+        byte[] bytes = Files.readAllBytes(diario);
+        // Troca um bit do valor do último registro, sem mexer no tamanho
+        bytes[bytes.length - 5] ^= 1;
+        Files.write(diario, bytes);
+
+        reabrir(referencia);
+        assertEquals(bytes.length - TAMANHO_REGISTRO, Files.size(diario));
+    }
+
+    @Test
+    void registroDanificadoAntesDoUltimoDiarioERecusado() throws IOException {
+        Random rand = new Random(6);
+        List<Integer> referencia = new ArrayList<>();
+        ArvoreAVL<Integer> arvore = new ArvoreAVL<>(Integer::compare);
+        comDiario(arvore, 8, a -> alterar(a, referencia, 200, rand));
+        Path antigo = ultimoDiario();
+        ArvoreAVL<Integer> segunda = new ArvoreAVL<>(Integer::compare);
+        comDiario(segunda, 8, a -> alterar(a, referencia, 200, rand));
+        assertTrue(geracao(ultimoDiario()) > geracao(antigo));
+        byte[] bytes = Files.readAllBytes(antigo);
+        bytes[bytes.length - 5] ^= 1;
+        Files.write(antigo, bytes);
+
+        // Só o fim do último diário pode estar danificado: um registro perdido no meio mudaria o que vem depois
+        assertThrows(IOException.class,
+                () -> DiarioArvore.abrir(diretorio, CODEC, new ArvoreAVL<>(Integer::compare), 8));
+    }
+}
@@ -0,0 +1,98 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/* Conferências das invariantes das árvores binárias, feitas direto nos nós. Cada uma lança
+ * AssertionError na primeira violação, com o valor do nó em que ela aconteceu.
+ */
+final class Invariantes {
+
+    private Invariantes() {
+    }
+
+    /* Ordem do comparador no caminhamento em ordem, ponteiros para o pai e tamanhos armazenados
+     * iguais aos recalculados. Confere também quantidadeNos() e altura() da árvore
+     */
+    static <T> void binaria(ArvoreBinaria<T> arvore) {
+        if (arvore.raiz != null && arvore.raiz.getPai() != null) {
+            throw new AssertionError("A raiz tem pai");
+        }
+        List<T> emOrdem = new ArrayList<>();
+        int[] medidas = medir(arvore.raiz, emOrdem);
+        Comparator<T> comparador = arvore.comparador;
+        for (int i = 1; i < emOrdem.size(); i++) {
+            if (comparador.compare(emOrdem.get(i - 1), emOrdem.get(i)) > 0) {
+                throw new AssertionError("Fora de ordem: " + emOrdem.get(i - 1) + " antes de " + emOrdem.get(i));
+            }
+        }
+        if (arvore.quantidadeNos() != medidas[1]) {
+            throw new AssertionError("quantidadeNos() = " + arvore.quantidadeNos() + ", recalculada " + medidas[1]);
+        }
+        if (arvore.altura() != medidas[0]) {
+            throw new AssertionError("altura() = " + arvore.altura() + ", recalculada " + medidas[0]);
+        }
+    }
+
+    // Além das conferências de binaria, alturas armazenadas corretas e fator de balanceamento entre -1 e 1
+    static <T> void avl(ArvoreAVL<T> arvore) {
+        binaria(arvore);
+        List<No<T>> nos = ArvoreBinaria.nosEmOrdem(arvore.raiz);
+        for (No<T> no : nos) {
+            int esquerda = No.alturaArmazenada(no.getFilhoEsquerda());
+            int direita = No.alturaArmazenada(no.getFilhoDireita());
+            if (no.getAltura() != Math.max(esquerda, direita) + 1) {
+                throw new AssertionError("Altura armazenada errada em " + no.getValor());
+            }
+            if (Math.abs(esquerda - direita) > 1) {
+                throw new AssertionError("Desbalanceado em " + no.getValor());
+            }
+        }
+    }
+
+    // Além das conferências de binaria, raiz preta, nenhum vermelho com filho vermelho e a mesma altura negra em todos os caminhos
+    static <T> void rubroNegra(ArvoreRubroNegra<T> arvore) {
+        binaria(arvore);
+        if (ArvoreRubroNegra.vermelho(arvore.raiz)) {
+            throw new AssertionError("A raiz é vermelha");
+        }
+        alturaNegra(arvore.raiz);
+    }
+
+    // Devolve { altura, tamanho } da subárvore e junta seus valores em ordem
+    private static <T> int[] medir(No<T> no, List<T> emOrdem) {
+        if (no == null) {
+            return new int[] { -1, 0 };
+        }
+        if ((no.getFilhoEsquerda() != null && no.getFilhoEsquerda().getPai() != no)
+                || (no.getFilhoDireita() != null && no.getFilhoDireita().getPai() != no)) {
+            throw new AssertionError("Filho de " + no.getValor() + " com o pai errado");
+        }
+        int[] esquerda = medir(no.getFilhoEsquerda(), emOrdem);
+        emOrdem.add(no.getValor());
+        int[] direita = medir(no.getFilhoDireita(), emOrdem);
+        int tamanho = esquerda[1] + direita[1] + 1;
+        if (no.getTamanho() != tamanho) {
+            throw new AssertionError("Tamanho armazenado " + no.getTamanho() + ", recalculado " + tamanho
+                    + " em " + no.getValor());
+        }
+        return new int[] { Math.max(esquerda[0], direita[0]) + 1, tamanho };
+    }
+
+    private static int alturaNegra(No<?> no) {
+        if (no == null) {
+            return 1;
+        }
+        if (ArvoreRubroNegra.vermelho(no)
+                && (ArvoreRubroNegra.vermelho(no.getFilhoEsquerda()) || ArvoreRubroNegra.vermelho(no.getFilhoDireita()))) {
+            throw new AssertionError("Vermelho com filho vermelho em " + no.getValor());
+        }
+        int esquerda = alturaNegra(no.getFilhoEsquerda());
+        int direita = alturaNegra(no.getFilhoDireita());
+        if (esquerda != direita) {
+            throw new AssertionError("Alturas negras diferentes em " + no.getValor());
+        }
+        return esquerda + (ArvoreRubroNegra.vermelho(no) ? 0 : 1);
+    }
+}
@@ -0,0 +1,93 @@
+package app;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import lib.ArvoreAVL;
+import lib.ArvoreAVLConcorrente;
+import lib.IArvoreBinaria;
+
+/**
+ * Mede a vazão de uma carga de 95% pesquisar e 5% adicionar/remover de 1 a 32 threads,
+ * comparando a ArvoreAVLConcorrente com uma ArvoreAVL protegida por um único synchronized.
+ */
+public class AppBenchmarkAVLConcorrente {
+
+    static final int matriculaBase = 2000000000;
+    static final int alunos = 1000000;
+    static final long duracaoMs = 2000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] threads = { 1, 2, 4, 8, 16, 32 };
+        ComparadorAlunoPorMatricula comparador = new ComparadorAlunoPorMatricula();
+
+        System.out.println("Threads  synchronized (ops/s)  concorrente (ops/s)");
+        for (int n : threads) {
+            ArvoreAVL<Aluno> simples = new ArvoreAVL<>(comparador);
+            carregar(simples);
+            long sincronizada = medir(n, simples, true);
+
+            ArvoreAVLConcorrente<Aluno> concorrente = new ArvoreAVLConcorrente<>(comparador);
+            carregar(concorrente);
+            long otimista = medir(n, concorrente, false);
+
+            System.out.printf("%-8d %-21d %d%n", n, sincronizada, otimista);
+        }
+    }
+
+    // Carrega as matrículas pares; as ímpares são usadas pelas escritas durante a medição
+    private static void carregar(IArvoreBinaria<Aluno> arv) {
+        for (int i = 0; i < alunos; i++) {
+            arv.adicionar(new Aluno(matriculaBase + 2 * i, ""));
+        }
+    }
+
+    // Roda a carga por duracaoMs com n threads e retorna operações por segundo
+    private static long medir(int n, IArvoreBinaria<Aluno> arv, boolean sincronizar) throws InterruptedException {
+        LongAdder operacoes = new LongAdder();
+        CountDownLatch largada = new CountDownLatch(1);
+        Thread[] ts = new Thread[n];
+        long[] fim = new long[1];
+        for (int t = 0; t < n; t++) {
+            ts[t] = new Thread(() -> {
+                ThreadLocalRandom rand = ThreadLocalRandom.current();
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long feitas = 0;
+                while (System.currentTimeMillis() < fim[0]) {
+                    int i = rand.nextInt(alunos);
+                    int tipo = rand.nextInt(100);
+                    if (sincronizar) {
+                        synchronized (arv) {
+                            operar(arv, i, tipo);
+                        }
+                    } else {
+                        operar(arv, i, tipo);
+                    }
+                    feitas++;
+                }
+                operacoes.add(feitas);
+            });
+            ts[t].start();
+        }
+        fim[0] = System.currentTimeMillis() + duracaoMs;
+        largada.countDown();
+        for (Thread t : ts) {
+            t.join();
+        }
+        return operacoes.sum() * 1000 / duracaoMs;
+    }
+
+    private static void operar(IArvoreBinaria<Aluno> arv, int i, int tipo) {
+        if (tipo < 95) {
+            arv.pesquisar(new Aluno(matriculaBase + 2 * i, ""));
+        } else if (tipo < 98) {
+            arv.adicionar(new Aluno(matriculaBase + 2 * i + 1, ""));
+        } else {
+            arv.remover(new Aluno(matriculaBase + 2 * i + 1, ""));
+        }
+    }
+}
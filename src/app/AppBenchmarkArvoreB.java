@@ -0,0 +1,99 @@
+package app;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import lib.ArvoreAVL;
+import lib.ArvoreB;
+import lib.IArvoreBinaria;
+
+/**
+ * Compara a ArvoreB (com algumas ordens) e a ArvoreAVL em adicionar, pesquisar e
+ * caminhamento completo, com 1.000.000 e 10.000.000 de alunos inseridos em ordem aleatória.
+ *
+ * As pesquisas são feitas em outra ordem aleatória, para que cada uma desça pela árvore
+ * sem aproveitar o cache da anterior. O caminhamento soma as matrículas, para o JIT
+ * não descartar o laço.
+ *
+ * Para o tamanho de 10 milhões execute com heap suficiente, por exemplo: java -Xmx6g
+ */
+public class AppBenchmarkArvoreB {
+
+    static final int matriculaBase = 2000000000;
+
+    public static void main(String[] args) {
+        ComparadorAlunoPorMatricula comparador = new ComparadorAlunoPorMatricula();
+        int[] tamanhos = { 1000000, 10000000 };
+
+        String[] nomes = { "ArvoreAVL", "ArvoreB ordem 16", "ArvoreB ordem 64", "ArvoreB ordem 256" };
+        List<Supplier<IArvoreBinaria<Aluno>>> fabricas = List.of(
+                () -> new ArvoreAVL<>(comparador),
+                () -> new ArvoreB<>(comparador, 16),
+                () -> new ArvoreB<>(comparador, 64),
+                () -> new ArvoreB<>(comparador, 256));
+
+        // Rodada menor só para aquecer o JIT, sem imprimir
+        for (Supplier<IArvoreBinaria<Aluno>> fabrica : fabricas) {
+            medir(fabrica, embaralhados(100000, 42), embaralhados(100000, 43));
+        }
+
+        System.out.println("Tempo médio por operação em ns");
+        System.out.println("Árvore              n          adicionar  pesquisar  caminhar   Altura");
+        for (int n : tamanhos) {
+            Aluno[] alunos = embaralhados(n, 42);
+            Aluno[] consultas = embaralhados(n, 43);
+            for (int i = 0; i < fabricas.size(); i++) {
+                long[] resultado = medir(fabricas.get(i), alunos, consultas);
+                System.out.printf("%-19s %-10d %-10.1f %-10.1f %-10.1f %d%n", nomes[i], n,
+                        (double) resultado[0] / n, (double) resultado[1] / n, (double) resultado[2] / n, resultado[3]);
+            }
+        }
+    }
+
+    // Retorna {ns de adicionar, ns de pesquisar, ns de caminhar, altura}
+    private static long[] medir(Supplier<IArvoreBinaria<Aluno>> fabrica, Aluno[] alunos, Aluno[] consultas) {
+        IArvoreBinaria<Aluno> arv = fabrica.get();
+        long inicio = System.nanoTime();
+        for (Aluno aluno : alunos) {
+            arv.adicionar(aluno);
+        }
+        long adicionar = System.nanoTime() - inicio;
+
+        int encontrados = 0;
+        inicio = System.nanoTime();
+        for (Aluno aluno : consultas) {
+            if (arv.pesquisar(aluno) != null) {
+                encontrados++;
+            }
+        }
+        long pesquisar = System.nanoTime() - inicio;
+
+        long soma = 0;
+        inicio = System.nanoTime();
+        for (Aluno aluno : arv) {
+            soma += aluno.getMatricula();
+        }
+        long caminhar = System.nanoTime() - inicio;
+
+        if (encontrados != consultas.length || soma == 0) {
+            throw new IllegalStateException("Resultado inesperado na árvore");
+        }
+        return new long[] { adicionar, pesquisar, caminhar, arv.altura() };
+    }
+
+    // Matrículas de 1 a quantidade em ordem aleatória (Fisher-Yates com semente fixa)
+    private static Aluno[] embaralhados(int quantidade, long semente) {
+        Aluno[] alunos = new Aluno[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            alunos[i] = new Aluno(matriculaBase + i + 1, "");
+        }
+        Random rand = new Random(semente);
+        for (int i = quantidade - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            Aluno aux = alunos[i];
+            alunos[i] = alunos[j];
+            alunos[j] = aux;
+        }
+        return alunos;
+    }
+}
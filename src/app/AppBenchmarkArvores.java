@@ -0,0 +1,148 @@
+package app;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import lib.ArvoreAVL;
+import lib.ArvoreBinaria;
+import lib.ArvoreRubroNegra;
+import lib.IArvoreBinaria;
+
+/**
+ * Compara ArvoreBinaria, ArvoreAVL e ArvoreRubroNegra em quatro cargas de trabalho:
+ *
+ *  - Inserção: n alunos inseridos em uma árvore vazia
+ *  - Remoção:  a partir de uma árvore com n alunos, todos removidos
+ *  - Leitura:  n operações sobre uma árvore com n alunos, 95% pesquisas e 5% trocas (remove um, insere outro)
+ *  - Mista:    n operações partindo da metade dos alunos, 40% inserções, 30% remoções e 30% pesquisas
+ *
+ * As matrículas são embaralhadas com semente fixa, então as três árvores recebem exatamente
+ * a mesma sequência de operações. Cada carga é medida algumas vezes e é impresso o melhor tempo.
+ */
+public class AppBenchmarkArvores {
+
+    static final int matriculaBase = 2000000000;
+    static final int n = 1000000;
+    static final int repeticoes = 3;
+
+    public static void main(String[] args) {
+        ComparadorAlunoPorMatricula comparador = new ComparadorAlunoPorMatricula();
+        Aluno[] alunos = embaralhados(n, 42);
+        // Sequência de operações da carga mista, a mesma para todas as árvores
+        int[] sorteio = new int[n];
+        Random rand = new Random(7);
+        for (int i = 0; i < n; i++) {
+            sorteio[i] = rand.nextInt(100);
+        }
+
+        String[] nomes = { "ArvoreBinaria", "ArvoreAVL", "ArvoreRubroNegra" };
+        List<Supplier<IArvoreBinaria<Aluno>>> fabricas = List.of(
+                () -> new ArvoreBinaria<>(comparador),
+                () -> new ArvoreAVL<>(comparador),
+                () -> new ArvoreRubroNegra<>(comparador));
+
+        // Rodada menor só para aquecer o JIT
+        Aluno[] aquecimento = embaralhados(100000, 1);
+        for (Supplier<IArvoreBinaria<Aluno>> fabrica : fabricas) {
+            insercao(fabrica, aquecimento);
+            remocao(fabrica, aquecimento);
+            leitura(fabrica, aquecimento, sorteio);
+            mista(fabrica, aquecimento, sorteio);
+        }
+
+        System.out.println("n = " + n + ", tempo médio por operação em ns (melhor de " + repeticoes + ")");
+        System.out.println("Árvore             Inserção   Remoção    Leitura    Mista      Altura");
+        for (int i = 0; i < fabricas.size(); i++) {
+            Supplier<IArvoreBinaria<Aluno>> fabrica = fabricas.get(i);
+            long insercao = Long.MAX_VALUE, remocao = Long.MAX_VALUE, leitura = Long.MAX_VALUE, mista = Long.MAX_VALUE;
+            for (int r = 0; r < repeticoes; r++) {
+                insercao = Math.min(insercao, insercao(fabrica, alunos));
+                remocao = Math.min(remocao, remocao(fabrica, alunos));
+                leitura = Math.min(leitura, leitura(fabrica, alunos, sorteio));
+                mista = Math.min(mista, mista(fabrica, alunos, sorteio));
+            }
+            IArvoreBinaria<Aluno> arv = construir(fabrica, alunos, alunos.length);
+            System.out.printf("%-18s %-10.1f %-10.1f %-10.1f %-10.1f %d%n", nomes[i],
+                    (double) insercao / n, (double) remocao / n, (double) leitura / n, (double) mista / n, arv.altura());
+        }
+    }
+
+    private static long insercao(Supplier<IArvoreBinaria<Aluno>> fabrica, Aluno[] alunos) {
+        IArvoreBinaria<Aluno> arv = fabrica.get();
+        long inicio = System.nanoTime();
+        for (Aluno aluno : alunos) {
+            arv.adicionar(aluno);
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    private static long remocao(Supplier<IArvoreBinaria<Aluno>> fabrica, Aluno[] alunos) {
+        IArvoreBinaria<Aluno> arv = construir(fabrica, alunos, alunos.length);
+        long inicio = System.nanoTime();
+        // Remove em outra ordem que a da inserção: do fim do vetor para o começo
+        for (int i = alunos.length - 1; i >= 0; i--) {
+            arv.remover(alunos[i]);
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    private static long leitura(Supplier<IArvoreBinaria<Aluno>> fabrica, Aluno[] alunos, int[] sorteio) {
+        IArvoreBinaria<Aluno> arv = construir(fabrica, alunos, alunos.length);
+        int m = alunos.length;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < m; i++) {
+            Aluno aluno = alunos[(int) ((long) i * 7919 % m)];
+            if (sorteio[i] < 95) {
+                arv.pesquisar(aluno);
+            } else {
+                arv.remover(aluno);
+                arv.adicionar(aluno);
+            }
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    private static long mista(Supplier<IArvoreBinaria<Aluno>> fabrica, Aluno[] alunos, int[] sorteio) {
+        int m = alunos.length;
+        // A primeira metade já está na árvore; a segunda vai sendo inserida
+        IArvoreBinaria<Aluno> arv = construir(fabrica, alunos, m / 2);
+        int proximo = m / 2;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < m; i++) {
+            Aluno aluno = alunos[(int) ((long) i * 7919 % m)];
+            if (sorteio[i] < 40) {
+                arv.adicionar(alunos[proximo]);
+                proximo = proximo + 1 < m ? proximo + 1 : m / 2;
+            } else if (sorteio[i] < 70) {
+                arv.remover(aluno);
+            } else {
+                arv.pesquisar(aluno);
+            }
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    private static IArvoreBinaria<Aluno> construir(Supplier<IArvoreBinaria<Aluno>> fabrica, Aluno[] alunos, int quantidade) {
+        IArvoreBinaria<Aluno> arv = fabrica.get();
+        for (int i = 0; i < quantidade; i++) {
+            arv.adicionar(alunos[i]);
+        }
+        return arv;
+    }
+
+    // Matrículas de 1 a quantidade em ordem aleatória (Fisher-Yates com semente fixa)
+    private static Aluno[] embaralhados(int quantidade, long semente) {
+        Aluno[] alunos = new Aluno[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            alunos[i] = new Aluno(matriculaBase + i + 1, "");
+        }
+        Random rand = new Random(semente);
+        for (int i = quantidade - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            Aluno aux = alunos[i];
+            alunos[i] = alunos[j];
+            alunos[j] = aux;
+        }
+        return alunos;
+    }
+}
@@ -0,0 +1,69 @@
+package app;
+
+import java.util.Random;
+import lib.ArvoreAVL;
+import lib.IArvoreBinaria;
+
+/**
+ * Mede o custo de inserção na árvore AVL para tamanhos de 1.000 até 10.000.000 de nós.
+ *
+ * Para cada tamanho são impressos o tempo médio por inserção e esse tempo dividido
+ * por log2(n). Se a inserção custa O(log n), a segunda coluna fica aproximadamente
+ * constante enquanto n cresce 10.000 vezes.
+ *
+ * Para o tamanho de 10 milhões execute com heap suficiente, por exemplo: java -Xmx4g
+ */
+public class AppBenchmarkInsercaoAVL {
+
+    static final int matriculaBase = 2000000000;
+
+    public static void main(String[] args) {
+        ComparadorAlunoPorMatricula comparador = new ComparadorAlunoPorMatricula();
+        int[] tamanhos = { 1000, 10000, 100000, 1000000, 10000000 };
+
+        // Primeira rodada só para aquecer o JIT, sem imprimir
+        medir(100000, comparador, false);
+        medir(100000, comparador, true);
+
+        System.out.println("Ordem        n            ns/inserção  ns/(inserção*log2 n)  Altura");
+        for (int n : tamanhos) {
+            imprimir("Sequencial", n, medir(n, comparador, false));
+        }
+        for (int n : tamanhos) {
+            imprimir("Aleatória", n, medir(n, comparador, true));
+        }
+    }
+
+    // Constrói uma árvore com n alunos e retorna {tempo total em ns, altura final}
+    private static long[] medir(int n, ComparadorAlunoPorMatricula comparador, boolean aleatoria) {
+        // Os alunos são criados antes da medição para que só a inserção seja cronometrada
+        Aluno[] alunos = new Aluno[n];
+        for (int i = 0; i < n; i++) {
+            alunos[i] = new Aluno(matriculaBase + i + 1, "");
+        }
+        if (aleatoria) {
+            // Embaralhamento de Fisher-Yates com semente fixa para resultados reproduzíveis
+            Random rand = new Random(42);
+            for (int i = n - 1; i > 0; i--) {
+                int j = rand.nextInt(i + 1);
+                Aluno aux = alunos[i];
+                alunos[i] = alunos[j];
+                alunos[j] = aux;
+            }
+        }
+
+        IArvoreBinaria<Aluno> arv = new ArvoreAVL<>(comparador);
+        long inicio = System.nanoTime();
+        for (Aluno aluno : alunos) {
+            arv.adicionar(aluno);
+        }
+        long tempo = System.nanoTime() - inicio;
+        return new long[] { tempo, arv.altura() };
+    }
+
+    private static void imprimir(String ordem, int n, long[] resultado) {
+        double porInsercao = (double) resultado[0] / n;
+        double log2 = Math.log(n) / Math.log(2);
+        System.out.printf("%-12s %-12d %-12.1f %-21.2f %d%n", ordem, n, porInsercao, porInsercao / log2, resultado[1]);
+    }
+}
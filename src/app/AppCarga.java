@@ -0,0 +1,143 @@
+package app;
+
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lib.ArvoreAVL;
+import lib.ArvoreBinaria;
+import lib.ArvoreRubroNegra;
+import lib.ArvoreSplay;
+import lib.MetricasArvore;
+import lib.MetricasArvore.Operacao;
+
+/**
+ * Roda fluxos de operações do GeradorDeCarga sobre as árvores e imprime, para cada distribuição de
+ * chaves e cada árvore, a vazão e os percentis de latência de pesquisar, adicionar e remover.
+ *
+ * Uso: AppCarga [n] [operações] [adicionar:pesquisar:remover]
+ *
+ *  - n:          alunos carregados antes da medição, que são também o universo das matrículas (1 milhão)
+ *  - operações:  tamanho do fluxo de operações (10 milhões)
+ *  - proporções: pesos de cada operação no fluxo (10:80:10)
+ *
+ * Cada árvore começa com todas as matrículas do universo, geradas em paralelo e carregadas por
+ * adicionarTodos, e recebe exatamente o mesmo fluxo de operações em cada distribuição. As operações
+ * são geradas em blocos, fora da medição. As latências vêm das métricas da árvore (ativarMetricas),
+ * que cronometram cada operação; a vazão também é medida com elas ligadas.
+ */
+public class AppCarga {
+
+    static final long semente = 42;
+    // Operações geradas de cada vez
+    static final int bloco = 1 << 16;
+    static final double[] percentis = { 50, 90, 99, 99.9 };
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        long operacoes = args.length > 1 ? Long.parseLong(args[1]) : 10000000;
+        int[] proporcoes = { 10, 80, 10 };
+        if (args.length > 2) {
+            String[] partes = args[2].split(":");
+            if (partes.length != 3) {
+                throw new IllegalArgumentException("As proporções devem ser adicionar:pesquisar:remover");
+            }
+            for (int i = 0; i < 3; i++) {
+                proporcoes[i] = Integer.parseInt(partes[i]);
+            }
+        }
+
+        ComparadorAlunoPorMatricula comparador = new ComparadorAlunoPorMatricula();
+        String[] nomes = { "ArvoreBinaria", "ArvoreAVL", "ArvoreRubroNegra", "ArvoreSplay" };
+        List<Supplier<ArvoreBinaria<Aluno>>> fabricas = List.of(
+                () -> new ArvoreBinaria<>(comparador),
+                () -> new ArvoreAVL<>(comparador),
+                () -> new ArvoreRubroNegra<>(comparador),
+                () -> new ArvoreSplay<>(comparador));
+        // Cada árvore recebe um gerador novo com a mesma semente, e portanto o mesmo fluxo
+        List<IntFunction<GeradorDeCarga>> distribuicoes = List.of(
+                universo -> GeradorDeCarga.uniforme(universo, semente),
+                universo -> GeradorDeCarga.sequencial(universo, semente),
+                universo -> GeradorDeCarga.zipf(universo, 1.0, semente),
+                universo -> GeradorDeCarga.agrupada(universo, 64, Math.min(universo, 1024), semente));
+
+        long inicio = System.nanoTime();
+        List<Aluno> alunos = GeradorDeCarga.sequencial(n, semente).alunos(n).parallel()
+                .collect(Collectors.toList());
+        System.out.printf("%d alunos gerados em %.1f ms%n", n, (System.nanoTime() - inicio) / 1e6);
+
+        // Rodada menor só para aquecer o JIT
+        for (Supplier<ArvoreBinaria<Aluno>> fabrica : fabricas) {
+            rodar(fabrica.get(), alunos, distribuicoes.get(0).apply(n), Math.min(operacoes, 1000000), proporcoes);
+        }
+
+        System.out.printf("n = %d, %d operações (adicionar:pesquisar:remover = %d:%d:%d), latências em ns%n",
+                n, operacoes, proporcoes[0], proporcoes[1], proporcoes[2]);
+        for (IntFunction<GeradorDeCarga> distribuicao : distribuicoes) {
+            System.out.println();
+            System.out.println("Distribuição " + distribuicao.apply(n).getDescricao());
+            System.out.printf("%-18s %-10s %10s %8s %8s %8s %8s %8s %8s %12s%n", "Árvore", "Operação",
+                    "ops/s", "nós/op", "p50", "p90", "p99", "p99.9", "máx", "altura final");
+            for (int i = 0; i < fabricas.size(); i++) {
+                ArvoreBinaria<Aluno> arv = fabricas.get(i).get();
+                long nanos = rodar(arv, alunos, distribuicao.apply(n), operacoes, proporcoes);
+                imprimir(nomes[i], arv.getMetricas(), operacoes, nanos);
+            }
+        }
+    }
+
+    // Carrega a árvore, roda o fluxo com as métricas ligadas e retorna o tempo total das operações
+    private static long rodar(ArvoreBinaria<Aluno> arv, List<Aluno> alunos, GeradorDeCarga gerador,
+                              long operacoes, int[] proporcoes) {
+        arv.adicionarTodos(alunos);
+        arv.ativarMetricas();
+        gerador.setProporcoes(proporcoes[0], proporcoes[1], proporcoes[2]);
+        GeradorDeCarga.TipoOperacao[] tipos = new GeradorDeCarga.TipoOperacao[bloco];
+        Aluno[] argumentos = new Aluno[bloco];
+        long total = 0;
+        for (long feitas = 0; feitas < operacoes; feitas += bloco) {
+            int quantidade = (int) Math.min(bloco, operacoes - feitas);
+            if (quantidade < bloco) {
+                tipos = new GeradorDeCarga.TipoOperacao[quantidade];
+                argumentos = new Aluno[quantidade];
+            }
+            gerador.proximasOperacoes(tipos, argumentos);
+            long inicio = System.nanoTime();
+            for (int i = 0; i < quantidade; i++) {
+                switch (tipos[i]) {
+                    case ADICIONAR:
+                        arv.adicionar(argumentos[i]);
+                        break;
+                    case PESQUISAR:
+                        arv.pesquisar(argumentos[i]);
+                        break;
+                    default:
+                        arv.remover(argumentos[i]);
+                }
+            }
+            total += System.nanoTime() - inicio;
+        }
+        return total;
+    }
+
+    private static void imprimir(String nome, MetricasArvore.Retrato metricas, long operacoes, long nanos) {
+        boolean primeira = true;
+        for (Operacao operacao : new Operacao[] { Operacao.PESQUISAR, Operacao.ADICIONAR, Operacao.REMOVER }) {
+            if (metricas.getQuantidade(operacao) == 0) {
+                continue;
+            }
+            StringBuilder linha = new StringBuilder(String.format("%-18s %-10s %10s %8.1f", primeira ? nome : "",
+                    operacao.name().toLowerCase(), primeira ? String.format("%.0f", operacoes * 1e9 / nanos) : "",
+                    metricas.getMediaNosVisitados(operacao)));
+            for (double percentil : percentis) {
+                linha.append(String.format(" %8d", metricas.percentilLatencia(operacao, percentil)));
+            }
+            linha.append(String.format(" %8d", metricas.getLatenciaMaxima(operacao)));
+            if (primeira) {
+                linha.append(String.format(" %12d", metricas.getAltura()));
+            }
+            System.out.println(linha);
+            primeira = false;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package app;
+
+import lib.ArvoreAVL;
+
+/**
+ * Compara o acesso em ordem de matrícula pela raiz (adicionar/pesquisar da árvore) e pelo
+ * cursor da ArvoreAVL, que desce a partir do último acesso. As métricas mostram quantos nós
+ * cada operação visitou e a latência.
+ */
+public class AppCursorAVL {
+
+    static final int matriculaBase = 2000000000;
+
+    public static void main(String[] args) {
+        ComparadorAlunoPorMatricula comparador = new ComparadorAlunoPorMatricula();
+        int n = 1000000;
+
+        ArvoreAVL<Aluno> pelaRaiz = new ArvoreAVL<>(comparador);
+        pelaRaiz.ativarMetricas();
+        for (int i = 1; i <= n; i++) {
+            pelaRaiz.adicionar(new Aluno(matriculaBase + i, "Aluno"));
+        }
+        for (int i = 1; i <= n; i++) {
+            pelaRaiz.pesquisar(new Aluno(matriculaBase + i, ""));
+        }
+        System.out.println("Pela raiz");
+        System.out.print(pelaRaiz.getMetricas());
+
+        ArvoreAVL<Aluno> peloCursor = new ArvoreAVL<>(comparador);
+        peloCursor.ativarMetricas();
+        ArvoreAVL.Cursor<Aluno> cursor = peloCursor.cursor();
+        for (int i = 1; i <= n; i++) {
+            cursor.adicionar(new Aluno(matriculaBase + i, "Aluno"));
+        }
+        // Pesquisa em ordem, pulando algumas matrículas como faria um relatório com filtro
+        for (int i = 1; i <= n; i += 1 + (i % 5)) {
+            cursor.pesquisar(new Aluno(matriculaBase + i, ""));
+        }
+        System.out.println("Pelo cursor");
+        System.out.print(peloCursor.getMetricas());
+    }
+}
@@ -0,0 +1,106 @@
+package app;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Random;
+import lib.ArvoreAVL;
+import lib.DiarioArvore;
+
+/**
+ * Mostra o custo do diário de escrita e a recuperação depois de uma queda.
+ *
+ * Primeiro mede a vazão de adicionar/remover em uma ArvoreAVL com diário para vários
+ * tamanhos de lote de fsync. Depois faz alterações, compacta no meio, "cai" (a árvore é
+ * abandonada sem close, depois do último fsync) e recupera o diretório em uma árvore nova,
+ * conferindo que ela tem os mesmos alunos, na mesma ordem, que a original.
+ */
+public class AppDiarioArvore {
+
+    static final int matriculaBase = 2000000000;
+
+    public static void main(String[] args) throws IOException {
+        ComparadorAlunoPorMatricula comparador = new ComparadorAlunoPorMatricula();
+        CodecAluno codec = new CodecAluno();
+        int operacoes = 200000;
+
+        System.out.println("Registros por lote   operações/s");
+        for (int lote : new int[] { 1, 16, 256, 4096 }) {
+            Path diretorio = Files.createTempDirectory("diario");
+            try {
+                ArvoreAVL<Aluno> arv = new ArvoreAVL<>(comparador);
+                // Com lote 1 cada operação espera um fsync, então ela roda menos operações
+                int n = lote == 1 ? operacoes / 100 : operacoes;
+                Random rand = new Random(42);
+                long inicio = System.nanoTime();
+                try (DiarioArvore<Aluno> diario = DiarioArvore.abrir(diretorio, codec, arv, lote)) {
+                    for (int i = 0; i < n; i++) {
+                        alterar(arv, rand);
+                    }
+                    // O último lote incompleto também entra na medição
+                    diario.sincronizar();
+                }
+                double segundos = (System.nanoTime() - inicio) / 1e9;
+                System.out.printf("%-20d %.0f%n", lote, n / segundos);
+            } finally {
+                apagar(diretorio);
+            }
+        }
+
+        Path diretorio = Files.createTempDirectory("diario");
+        try {
+            ArvoreAVL<Aluno> original = new ArvoreAVL<>(comparador);
+            DiarioArvore<Aluno> diario = DiarioArvore.abrir(diretorio, codec, original, 256);
+            Random rand = new Random(7);
+            for (int i = 0; i < operacoes; i++) {
+                alterar(original, rand);
+                if (i == operacoes / 2) {
+                    diario.compactar().join();
+                    System.out.println("Compactado com " + original.quantidadeNos() + " alunos");
+                }
+            }
+            diario.sincronizar();
+            // Queda: nada mais é feito com o diário, nem close
+
+            long inicio = System.nanoTime();
+            ArvoreAVL<Aluno> recuperada = new ArvoreAVL<>(comparador);
+            DiarioArvore.abrir(diretorio, codec, recuperada, 256).close();
+            System.out.printf("Recuperação: %d ms%n", (System.nanoTime() - inicio) / 1000000);
+            boolean iguais = mesmasMatriculas(original.iterator(), recuperada.iterator());
+            System.out.println("Quantidade de Nós: " + recuperada.quantidadeNos() + " Altura: " + recuperada.altura()
+                    + (iguais ? " (igual à original)" : " (DIFERENTE da original)"));
+        } finally {
+            apagar(diretorio);
+        }
+    }
+
+    private static boolean mesmasMatriculas(Iterator<Aluno> a, Iterator<Aluno> b) {
+        while (a.hasNext() && b.hasNext()) {
+            if (a.next().getMatricula() != b.next().getMatricula()) {
+                return false;
+            }
+        }
+        return !a.hasNext() && !b.hasNext();
+    }
+
+    // Dois terços das operações adicionam um aluno, um terço remove
+    private static void alterar(ArvoreAVL<Aluno> arv, Random rand) {
+        Aluno aluno = new Aluno(matriculaBase + rand.nextInt(100000), "Aluno");
+        if (rand.nextInt(3) < 2) {
+            arv.adicionar(aluno);
+        } else {
+            arv.remover(aluno);
+        }
+    }
+
+    private static void apagar(Path diretorio) throws IOException {
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio)) {
+            for (Path arquivo : arquivos) {
+                Files.delete(arquivo);
+            }
+        }
+        Files.delete(diretorio);
+    }
+}
@@ -0,0 +1,128 @@
+package app;
+
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import lib.ArvoreAVLConcorrente;
+
+/**
+ * Teste de estresse da ArvoreAVLConcorrente com várias threads escrevendo e lendo ao mesmo tempo.
+ *
+ * Metade das matrículas é inserida antes do teste e nunca é removida; os leitores precisam
+ * encontrá-las em todas as pesquisas. Cada escritor insere e remove matrículas de uma faixa
+ * só sua, então no final a árvore deve conter exatamente as matrículas fixas mais as que cada
+ * escritor deixou, em ordem e com a altura de uma AVL.
+ */
+public class AppEstresseAVLConcorrente {
+
+    static final int matriculaBase = 2000000000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int fixos = 100000;
+        int escritores = 4;
+        int leitores = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int operacoesPorThread = 500000;
+
+        ArvoreAVLConcorrente<Aluno> arv = new ArvoreAVLConcorrente<>(new ComparadorAlunoPorMatricula());
+        // Matrículas fixas são as pares; as ímpares ficam para os escritores
+        for (int i = 0; i < fixos; i++) {
+            arv.adicionar(new Aluno(matriculaBase + 2 * i, ""));
+        }
+
+        AtomicLong falhas = new AtomicLong();
+        int[] presentesPorEscritor = new int[escritores];
+        CountDownLatch largada = new CountDownLatch(1);
+        Thread[] threads = new Thread[escritores + leitores];
+
+        for (int e = 0; e < escritores; e++) {
+            int id = e;
+            threads[e] = new Thread(() -> {
+                // Faixa deste escritor: ímpares i com i % escritores == id, dentro das matrículas fixas
+                boolean[] presente = new boolean[fixos / escritores];
+                int quantos = 0;
+                ThreadLocalRandom rand = ThreadLocalRandom.current();
+                aguardar(largada);
+                for (int op = 0; op < operacoesPorThread; op++) {
+                    int slot = rand.nextInt(presente.length);
+                    Aluno aluno = new Aluno(matriculaBase + 2 * (slot * escritores + id) + 1, "");
+                    if (presente[slot]) {
+                        if (arv.remover(aluno) == null) {
+                            falhas.incrementAndGet();
+                        }
+                        presente[slot] = false;
+                        quantos--;
+                    } else {
+                        arv.adicionar(aluno);
+                        presente[slot] = true;
+                        quantos++;
+                    }
+                }
+                presentesPorEscritor[id] = quantos;
+            });
+        }
+        for (int l = 0; l < leitores; l++) {
+            threads[escritores + l] = new Thread(() -> {
+                ThreadLocalRandom rand = ThreadLocalRandom.current();
+                aguardar(largada);
+                for (int op = 0; op < operacoesPorThread; op++) {
+                    int matricula = matriculaBase + 2 * rand.nextInt(fixos);
+                    Aluno encontrado = arv.pesquisar(new Aluno(matricula, ""));
+                    if (encontrado == null || encontrado.getMatricula() != matricula) {
+                        falhas.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        long inicio = System.nanoTime();
+        for (Thread t : threads) {
+            t.start();
+        }
+        largada.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        long tempo = System.nanoTime() - inicio;
+
+        int esperado = fixos;
+        for (int quantos : presentesPorEscritor) {
+            esperado += quantos;
+        }
+        if (arv.quantidadeNos() != esperado) {
+            System.out.println("Quantidade de nós errada: " + arv.quantidadeNos() + " esperado: " + esperado);
+            falhas.incrementAndGet();
+        }
+        int anterior = Integer.MIN_VALUE;
+        Iterator<Aluno> it = arv.iterator();
+        while (it.hasNext()) {
+            int matricula = it.next().getMatricula();
+            if (matricula <= anterior) {
+                System.out.println("Fora de ordem: " + matricula + " depois de " + anterior);
+                falhas.incrementAndGet();
+            }
+            anterior = matricula;
+        }
+        double alturaMaxima = 1.45 * Math.log(esperado + 2) / Math.log(2);
+        if (arv.altura() > alturaMaxima) {
+            System.out.println("Altura acima do limite da AVL: " + arv.altura());
+            falhas.incrementAndGet();
+        }
+
+        System.out.println("Threads: " + escritores + " escritores, " + leitores + " leitores");
+        System.out.println("Quantidade de Nós: " + arv.quantidadeNos() + " Altura: " + arv.altura());
+        System.out.printf("Tempo: %.2f s%n", tempo / 1e9);
+        System.out.println(falhas.get() == 0 ? "Nenhuma falha encontrada" : "Falhas: " + falhas.get());
+        if (falhas.get() != 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void aguardar(CountDownLatch largada) {
+        try {
+            largada.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -6,6 +6,7 @@
 package app;
 
 //Lembre-se de ajustar os imports!!!!!
+import lib.AdaptadorArvoreAVLInt;
 import lib.ArvoreAVL;
 import lib.ArvoreBinaria;
 import lib.IArvoreBinaria;
@@ -51,5 +52,28 @@ public class AppRelatorioAVL {
         gerador.geraArvoreDegenerada(10000, arv);
         System.out.println("Árvore Degenerada Criada");
         System.out.println("Quantidade de Nós: " + arv.quantidadeNos() + " Altura: " + arv.altura());
+
+        // Árvore AVL de chaves int, indexada direto pela matrícula, sem comparador
+        arv = new AdaptadorArvoreAVLInt<>(Aluno::getMatricula, 10000);
+        gerador.geraArvoreDegenerada(10000, arv);
+        System.out.println("Árvore AVL de Matrículas int Criada");
+        System.out.println("Quantidade de Nós: " + arv.quantidadeNos() + " Altura: " + arv.altura());
+
+        // Métricas da AVL e da árvore degenerada: mesmas inserções, seguidas de pesquisas e remoções
+        imprimirMetricas("Métricas da Árvore AVL", new ArvoreAVL<>(comparador));
+        imprimirMetricas("Métricas da Árvore Degenerada", new ArvoreBinaria<>(comparador));
+    }
+
+    private static void imprimirMetricas(String titulo, ArvoreBinaria<Aluno> arv) {
+        arv.ativarMetricas();
+        new GeradorDeArvores().geraArvoreDegenerada(10000, arv);
+        for (int i = 1; i <= 10000; i += 3) {
+            arv.pesquisar(new Aluno(2000000000 + i, ""));
+        }
+        for (int i = 1; i <= 10000; i += 7) {
+            arv.remover(new Aluno(2000000000 + i, ""));
+        }
+        System.out.println(titulo);
+        System.out.print(arv.getMetricas());
     }
 }
@@ -1,4 +1,5 @@
 package app;
+import java.util.List;
 import lib.ArvoreBinaria;
 import lib.IArvoreBinaria;
 
@@ -92,5 +93,27 @@ public class AppRelatorioArvoreBinaria {
         System.out.println(" Altura: " + arv.altura());
         // ------Fim do trecho citado na questão 10 do
         // relatório-------------------------------
+
+        // As mesmas 50000 matrículas em ordem, na árvore binária com o modo bode expiatório ligado
+        ArvoreBinaria<Aluno> bodeExpiatorio = new ArvoreBinaria<>(compPorMatricula);
+        bodeExpiatorio.ativarBodeExpiatorio(0.7);
+        gerador.geraArvoreDegenerada(50000, bodeExpiatorio);
+        System.out.println("Árvore Degenerada com Bode Expiatório Criada");
+        System.out.println("Quantidade de Nós: " + bodeExpiatorio.quantidadeNos() + " Altura: " + bodeExpiatorio.altura());
+
+        // Métricas de pesquisas na árvore balanceada e na degenerada de 50000 alunos
+        ArvoreBinaria<Aluno> balanceada = new ArvoreBinaria<>(compPorMatricula);
+        gerador.geraArvorePerfeitamenteBalanceada(1, 50000, balanceada);
+        ArvoreBinaria<Aluno> degenerada = new ArvoreBinaria<>(compPorMatricula);
+        gerador.geraArvoreDegenerada(50000, degenerada);
+        for (ArvoreBinaria<Aluno> medida : List.of(balanceada, degenerada)) {
+            medida.ativarMetricas();
+            for (int i = 1; i <= 50000; i += 97) {
+                medida.pesquisar(new Aluno(2000000000 + i, ""));
+            }
+            System.out.println(medida == balanceada ? "Métricas da Árvore Perfeitamente Balanceada"
+                    : "Métricas da Árvore Degenerada");
+            System.out.print(medida.getMetricas());
+        }
     }
 }
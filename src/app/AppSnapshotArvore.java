@@ -0,0 +1,79 @@
+package app;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Random;
+import lib.ArquivoArvore;
+import lib.ArvoreAVL;
+
+/**
+ * Compara o tempo de reconstruir uma ArvoreAVL de alunos por adicionar com o tempo de
+ * carregá-la de um arquivo gravado pelo ArquivoArvore, e confere que as duas são iguais
+ * (mesmos valores, mesma altura, mesma forma no caminhamento em nível).
+ *
+ * O tamanho pode ser passado como argumento; o padrão é 10.000.000 de alunos.
+ * Para esse tamanho execute com heap suficiente, por exemplo: java -Xmx6g
+ */
+public class AppSnapshotArvore {
+
+    static final int matriculaBase = 2000000000;
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+        ComparadorAlunoPorMatricula comparador = new ComparadorAlunoPorMatricula();
+        CodecAluno codec = new CodecAluno();
+
+        Aluno[] alunos = new Aluno[n];
+        for (int i = 0; i < n; i++) {
+            alunos[i] = new Aluno(matriculaBase + i + 1, "Aluno " + i);
+        }
+        // Embaralhamento de Fisher-Yates com semente fixa para resultados reproduzíveis
+        Random rand = new Random(42);
+        for (int i = n - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            Aluno aux = alunos[i];
+            alunos[i] = alunos[j];
+            alunos[j] = aux;
+        }
+
+        long inicio = System.nanoTime();
+        ArvoreAVL<Aluno> original = new ArvoreAVL<>(comparador);
+        for (Aluno aluno : alunos) {
+            original.adicionar(aluno);
+        }
+        System.out.printf("Reconstrução por adicionar: %d ms%n", (System.nanoTime() - inicio) / 1000000);
+
+        Path arquivo = Files.createTempFile("arvore", ".bin");
+        try {
+            inicio = System.nanoTime();
+            ArquivoArvore.salvar(original, codec, arquivo);
+            System.out.printf("Gravação: %d ms, %d bytes%n", (System.nanoTime() - inicio) / 1000000, Files.size(arquivo));
+
+            inicio = System.nanoTime();
+            ArvoreAVL<Aluno> carregada = new ArvoreAVL<>(comparador);
+            ArquivoArvore.carregar(arquivo, codec, carregada);
+            System.out.printf("Carga do arquivo mapeado: %d ms%n", (System.nanoTime() - inicio) / 1000000);
+
+            boolean iguais = original.quantidadeNos() == carregada.quantidadeNos()
+                    && original.altura() == carregada.altura()
+                    && mesmaSequencia(original.iteradorEmNivel(), carregada.iteradorEmNivel());
+            System.out.println("Quantidade de Nós: " + carregada.quantidadeNos() + " Altura: " + carregada.altura()
+                    + (iguais ? " (igual à original)" : " (DIFERENTE da original)"));
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    private static boolean mesmaSequencia(Iterator<Aluno> a, Iterator<Aluno> b) {
+        while (a.hasNext() && b.hasNext()) {
+            Aluno x = a.next();
+            Aluno y = b.next();
+            if (x.getMatricula() != y.getMatricula() || !x.getNome().equals(y.getNome())) {
+                return false;
+            }
+        }
+        return !a.hasNext() && !b.hasNext();
+    }
+}
@@ -0,0 +1,49 @@
+package app;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import lib.CodecValor;
+
+/**
+ * Grava um Aluno como: matrícula (int), tamanho do nome em bytes (int, -1 para nome nulo)
+ * e os bytes do nome em UTF-8.
+ */
+public class CodecAluno implements CodecValor<Aluno> {
+
+    @Override
+    public void escrever(Aluno aluno, DataOutput saida) throws IOException {
+        saida.writeInt(aluno.getMatricula());
+        if (aluno.getNome() == null) {
+            saida.writeInt(-1);
+        } else {
+            byte[] nome = aluno.getNome().getBytes(StandardCharsets.UTF_8);
+            saida.writeInt(nome.length);
+            saida.write(nome);
+        }
+    }
+
+    @Override
+    public Aluno ler(ByteBuffer entrada) {
+        int matricula = entrada.getInt();
+        int tamanho = entrada.getInt();
+        String nome = null;
+        if (tamanho >= 0) {
+            if (tamanho > entrada.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            byte[] bytes = new byte[tamanho];
+            entrada.get(bytes);
+            nome = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new Aluno(matricula, nome);
+    }
+
+    // Matrícula e tamanho do nome
+    @Override
+    public int tamanhoMinimo() {
+        return 8;
+    }
+}
@@ -0,0 +1,55 @@
+package app;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sorteia posições de 0 a n-1 com distribuição de Zipf: a posição k sai com probabilidade
+ * proporcional a 1/(k+1)^expoente, então a posição 0 é a mais popular. Com expoente 0 a
+ * distribuição é uniforme; por volta de 1, poucas posições concentram a maior parte dos sorteios.
+ *
+ * Guarda a distribuição acumulada (8 bytes por posição) e sorteia por busca binária nela, em O(log n).
+ * Para que as posições populares não sejam sempre as menores chaves, quem usa costuma passá-las
+ * por uma permutação.
+ */
+public class DistribuicaoZipf {
+
+    private final double[] acumulada;
+
+    public DistribuicaoZipf(int n, double expoente) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n deve ser positivo");
+        }
+        if (expoente < 0) {
+            throw new IllegalArgumentException("O expoente não pode ser negativo");
+        }
+        acumulada = new double[n];
+        double soma = 0;
+        for (int k = 0; k < n; k++) {
+            soma += 1 / Math.pow(k + 1, expoente);
+            acumulada[k] = soma;
+        }
+        for (int k = 0; k < n; k++) {
+            acumulada[k] /= soma;
+        }
+    }
+
+    public int getN() {
+        return acumulada.length;
+    }
+
+    // Sorteia uma posição: a primeira cuja probabilidade acumulada passa de um valor uniforme em [0, 1)
+    public int sortear(SplittableRandom rand) {
+        double u = rand.nextDouble();
+        int inicio = 0;
+        int fim = acumulada.length - 1;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (acumulada[meio] > u) {
+                fim = meio;
+            } else {
+                inicio = meio + 1;
+            }
+        }
+        return inicio;
+    }
+}
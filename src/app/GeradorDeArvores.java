@@ -21,9 +21,22 @@ import lib.IArvoreBinaria;
 public class GeradorDeArvores {
 
     final char vogais[] = { 'a', 'e', 'i', 'o', 'u', 'A', 'E', 'I', 'O', 'U' };
-    final Random rand = new Random();
+    final Random rand;
     final int matriculaBase = 2000000000;
 
+    public GeradorDeArvores() {
+        rand = new Random();
+    }
+
+    /**
+     * Construtor com semente fixa, para gerar sempre as mesmas árvores (usado nos benchmarks)
+     * 
+     * @param semente - semente do gerador de números aleatórios
+     */
+    public GeradorDeArvores(long semente) {
+        rand = new Random(semente);
+    }
+
     /**
      * Método que verifica se um caracter é vogal
      * 
@@ -75,17 +88,17 @@ public class GeradorDeArvores {
 
     private String geraPalavra(int tam) {
         int cont;
-        String palavra = "";
+        StringBuilder palavra = new StringBuilder(tam);
 
-        palavra += geraLetra(false);
+        palavra.append(geraLetra(false));
         for (cont = 1; cont < tam; cont++) {
             // Com esse if garanto que a palavra não terá duas consoantes seguidas
             if (ehVogal(palavra.charAt(cont - 1)))
-                palavra += geraLetra(true);
+                palavra.append(geraLetra(true));
             else
-                palavra += geraVogal(true);
+                palavra.append(geraVogal(true));
         }
-        return palavra;
+        return palavra.toString();
     }
 
     /**
@@ -98,11 +111,7 @@ public class GeradorDeArvores {
      */
 
     private String geraNomeCompleto() {
-        String nome = "";
-        nome += geraPalavra(3 + rand.nextInt(6));
-        nome += " ";
-        nome += geraPalavra(3 + rand.nextInt(6));
-        return nome;
+        return geraPalavra(3 + rand.nextInt(6)) + " " + geraPalavra(3 + rand.nextInt(6));
     }
 
     /**
@@ -157,4 +166,27 @@ public class GeradorDeArvores {
         }
     }
 
+    /**
+     * Método que gera uma árvore com n elementos inseridos em ordem aleatória
+     * 
+     * @param n   - quantidade de elementos a inserir na árvore
+     * @param arv - árvore na qual os elementos serão inseridos
+     */
+    public void geraArvoreAleatoria(int n, IArvoreBinaria<Aluno> arv) {
+        // As matrículas são as mesmas da árvore degenerada, embaralhadas (Fisher-Yates)
+        int[] matriculas = new int[n];
+        for (int i = 0; i < n; i++) {
+            matriculas[i] = matriculaBase + i + 1;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int aux = matriculas[i];
+            matriculas[i] = matriculas[j];
+            matriculas[j] = aux;
+        }
+        for (int matricula : matriculas) {
+            arv.adicionar(new Aluno(matricula, geraNomeCompleto()));
+        }
+    }
+
 }
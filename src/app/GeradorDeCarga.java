@@ -0,0 +1,270 @@
+package app;
+
+import java.util.Spliterator;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Gera cargas de trabalho parecidas com as de produção: fluxos de alunos e fluxos de operações
+ * (adicionar, pesquisar e remover, em proporções dadas), com as matrículas sorteadas por uma
+ * distribuição:
+ *
+ *  - uniforme:   todas as matrículas do universo com a mesma chance
+ *  - sequencial: as matrículas em ordem, voltando ao começo no fim do universo
+ *  - Zipf:       poucas matrículas concentram a maior parte dos acessos (DistribuicaoZipf),
+ *                espalhadas pelo universo por uma permutação
+ *  - agrupada:   as matrículas caem em faixas estreitas a partir de alguns inícios sorteados
+ *
+ * O universo são as matrículas de matriculaBase + 1 a matriculaBase + universo, as mesmas do
+ * GeradorDeArvores. Cada trecho de um fluxo usa o seu próprio SplittableRandom, dividido do gerador
+ * principal, então os trechos são gerados em paralelo sem disputa. Com a mesma semente, o fluxo de
+ * operações é sempre o mesmo, qualquer que seja o número de threads.
+ *
+ * Os nomes são escritos em um char[] reaproveitado por trecho: cada aluno custa só o Aluno e a String.
+ */
+public class GeradorDeCarga {
+
+    public enum TipoOperacao { ADICIONAR, PESQUISAR, REMOVER }
+
+    static final int matriculaBase = 2000000000;
+
+    // Operações por trecho do fluxo de operações, cada trecho com o seu SplittableRandom
+    private static final int TRECHO = 4096;
+    // Duas palavras de até 8 letras e o espaço
+    private static final int TAMANHO_NOME = 17;
+    private static final char[] VOGAIS = { 'a', 'e', 'i', 'o', 'u' };
+
+    // Sorteia a chave (0 a universo - 1) da posição i do fluxo
+    private interface Sorteio {
+        int chave(long i, SplittableRandom rand);
+    }
+
+    private final String descricao;
+    private final int universo;
+    private final Sorteio sorteio;
+    private final SplittableRandom rand;
+
+    // Posição do fluxo de operações e proporções de cada tipo de operação
+    private long posicao = 0;
+    private int adicionar = 0;
+    private int pesquisar = 1;
+    private int remover = 0;
+
+    private GeradorDeCarga(String descricao, int universo, SplittableRandom rand, Sorteio sorteio) {
+        this.descricao = descricao;
+        this.universo = universo;
+        this.rand = rand;
+        this.sorteio = sorteio;
+    }
+
+    public static GeradorDeCarga uniforme(int universo, long semente) {
+        validarUniverso(universo);
+        return new GeradorDeCarga("uniforme", universo, new SplittableRandom(semente),
+                (i, rand) -> rand.nextInt(universo));
+    }
+
+    public static GeradorDeCarga sequencial(int universo, long semente) {
+        validarUniverso(universo);
+        return new GeradorDeCarga("sequencial", universo, new SplittableRandom(semente),
+                (i, rand) -> (int) (i % universo));
+    }
+
+    // A chave mais popular tem probabilidade proporcional a 1, a k-ésima a 1/k^expoente
+    public static GeradorDeCarga zipf(int universo, double expoente, long semente) {
+        validarUniverso(universo);
+        DistribuicaoZipf zipf = new DistribuicaoZipf(universo, expoente);
+        SplittableRandom rand = new SplittableRandom(semente);
+        int[] permutacao = new int[universo];
+        for (int i = 0; i < universo; i++) {
+            permutacao[i] = i;
+        }
+        for (int i = universo - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int aux = permutacao[i];
+            permutacao[i] = permutacao[j];
+            permutacao[j] = aux;
+        }
+        return new GeradorDeCarga("zipf " + expoente, universo, rand,
+                (i, r) -> permutacao[zipf.sortear(r)]);
+    }
+
+    // Sorteia uma das `grupos` faixas e, nela, uma das `largura` matrículas seguidas ao seu início
+    public static GeradorDeCarga agrupada(int universo, int grupos, int largura, long semente) {
+        validarUniverso(universo);
+        if (grupos < 1 || largura < 1 || largura > universo) {
+            throw new IllegalArgumentException("Grupos e largura devem ser positivos e a largura caber no universo");
+        }
+        SplittableRandom rand = new SplittableRandom(semente);
+        int[] inicios = new int[grupos];
+        for (int g = 0; g < grupos; g++) {
+            inicios[g] = rand.nextInt(universo);
+        }
+        return new GeradorDeCarga("agrupada " + grupos + "x" + largura, universo, rand,
+                (i, r) -> (int) (((long) inicios[r.nextInt(grupos)] + r.nextInt(largura)) % universo));
+    }
+
+    private static void validarUniverso(int universo) {
+        if (universo < 1) {
+            throw new IllegalArgumentException("O universo deve ser positivo");
+        }
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public int getUniverso() {
+        return universo;
+    }
+
+    /**
+     * Define as proporções de cada operação no fluxo de operações (por padrão, só pesquisas)
+     *
+     * @param adicionar - peso das inserções
+     * @param pesquisar - peso das pesquisas
+     * @param remover   - peso das remoções
+     */
+    public void setProporcoes(int adicionar, int pesquisar, int remover) {
+        if (adicionar < 0 || pesquisar < 0 || remover < 0 || (long) adicionar + pesquisar + remover == 0
+                || (long) adicionar + pesquisar + remover > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("As proporções não podem ser negativas e devem somar mais que zero");
+        }
+        this.adicionar = adicionar;
+        this.pesquisar = pesquisar;
+        this.remover = remover;
+    }
+
+    /**
+     * Fluxo de `quantidade` alunos com nomes aleatórios e matrículas sorteadas pela distribuição.
+     * Na sequencial o aluno i tem a matrícula matriculaBase + i + 1, então até o tamanho do universo
+     * não há repetições. O fluxo pode ser paralelo (parallel()): cada divisão leva um SplittableRandom
+     * dividido do da parte que fica. Não avança o fluxo de operações
+     *
+     * @param quantidade - quantidade de alunos do fluxo
+     * @return um Stream sequencial, que pode ser tornado paralelo
+     */
+    public Stream<Aluno> alunos(long quantidade) {
+        if (quantidade < 0) {
+            throw new IllegalArgumentException("A quantidade não pode ser negativa");
+        }
+        return StreamSupport.stream(new FluxoDeAlunos(0, quantidade, rand.split()), false);
+    }
+
+    /**
+     * Preenche os vetores com as próximas operações do fluxo: tipos[i] é a operação e alunos[i] o
+     * argumento, com nome só nas inserções (nas pesquisas e remoções basta a matrícula). Os trechos
+     * de TRECHO operações são gerados em paralelo no pool comum
+     *
+     * @param tipos  - recebe o tipo de cada operação
+     * @param alunos - recebe o aluno de cada operação; do mesmo tamanho que tipos
+     */
+    public void proximasOperacoes(TipoOperacao[] tipos, Aluno[] alunos) {
+        if (tipos.length != alunos.length) {
+            throw new IllegalArgumentException("Os vetores devem ter o mesmo tamanho");
+        }
+        int quantidade = tipos.length;
+        int trechos = (quantidade + TRECHO - 1) / TRECHO;
+        // Divididos antes, em ordem, para o fluxo não depender da ordem em que os trechos rodam
+        SplittableRandom[] geradores = new SplittableRandom[trechos];
+        for (int t = 0; t < trechos; t++) {
+            geradores[t] = rand.split();
+        }
+        long inicio = posicao;
+        int total = adicionar + pesquisar + remover;
+        IntStream.range(0, trechos).parallel().forEach(t -> {
+            SplittableRandom r = geradores[t];
+            char[] nome = new char[TAMANHO_NOME];
+            int fim = Math.min(quantidade, (t + 1) * TRECHO);
+            for (int i = t * TRECHO; i < fim; i++) {
+                int chave = sorteio.chave(inicio + i, r);
+                int p = r.nextInt(total);
+                TipoOperacao tipo = p < adicionar ? TipoOperacao.ADICIONAR
+                        : p < adicionar + pesquisar ? TipoOperacao.PESQUISAR : TipoOperacao.REMOVER;
+                tipos[i] = tipo;
+                alunos[i] = new Aluno(matriculaBase + 1 + chave,
+                        tipo == TipoOperacao.ADICIONAR ? geraNomeCompleto(r, nome) : "");
+            }
+        });
+        posicao += quantidade;
+    }
+
+    // Alunos das posições [inicio, fim) de um fluxo de alunos
+    private final class FluxoDeAlunos implements Spliterator<Aluno> {
+        private long inicio;
+        private final long fim;
+        private final SplittableRandom rand;
+        private final char[] nome = new char[TAMANHO_NOME];
+
+        FluxoDeAlunos(long inicio, long fim, SplittableRandom rand) {
+            this.inicio = inicio;
+            this.fim = fim;
+            this.rand = rand;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Aluno> acao) {
+            if (inicio >= fim) {
+                return false;
+            }
+            acao.accept(new Aluno(matriculaBase + 1 + sorteio.chave(inicio++, rand), geraNomeCompleto(rand, nome)));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Aluno> acao) {
+            for (; inicio < fim; inicio++) {
+                acao.accept(new Aluno(matriculaBase + 1 + sorteio.chave(inicio, rand), geraNomeCompleto(rand, nome)));
+            }
+        }
+
+        @Override
+        public Spliterator<Aluno> trySplit() {
+            if (fim - inicio < 2 * TRECHO) {
+                return null;
+            }
+            long meio = (inicio + fim) >>> 1;
+            FluxoDeAlunos antes = new FluxoDeAlunos(inicio, meio, rand.split());
+            inicio = meio;
+            return antes;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fim - inicio;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    // Nome e sobrenome de 3 a 8 letras, como os do GeradorDeArvores, escritos em `nome`
+    private static String geraNomeCompleto(SplittableRandom rand, char[] nome) {
+        int tamanho = geraPalavra(rand, nome, 0);
+        nome[tamanho++] = ' ';
+        tamanho = geraPalavra(rand, nome, tamanho);
+        return new String(nome, 0, tamanho);
+    }
+
+    // Escreve a partir de `inicio` uma palavra com inicial maiúscula, sem duas consoantes seguidas; retorna o fim
+    private static int geraPalavra(SplittableRandom rand, char[] nome, int inicio) {
+        int fim = inicio + 3 + rand.nextInt(6);
+        char letra = (char) ('A' + rand.nextInt(26));
+        nome[inicio] = letra;
+        boolean vogal = ehVogal((char) (letra - 'A' + 'a'));
+        for (int i = inicio + 1; i < fim; i++) {
+            letra = vogal ? (char) ('a' + rand.nextInt(26)) : VOGAIS[rand.nextInt(5)];
+            nome[i] = letra;
+            vogal = ehVogal(letra);
+        }
+        return fim;
+    }
+
+    private static boolean ehVogal(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
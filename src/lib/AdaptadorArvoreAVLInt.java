@@ -0,0 +1,83 @@
+package lib;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.function.ToIntFunction;
+
+/* Permite usar uma ArvoreAVLInt onde se espera uma IArvoreBinaria<T>.
+ *
+ * A chave de cada elemento é extraída por uma função (por exemplo Aluno::getMatricula)
+ * e a árvore compara essas chaves int diretamente, sem Comparator.
+ * Como a ArvoreAVLInt é um mapa, adicionar um elemento com uma chave já existente
+ * substitui o elemento anterior em vez de criar um nó duplicado.
+ */
+public class AdaptadorArvoreAVLInt<T> implements IArvoreBinaria<T> {
+
+    private final ArvoreAVLInt<T> arvore;
+    private final ToIntFunction<? super T> extratorChave;
+
+    public AdaptadorArvoreAVLInt(ToIntFunction<? super T> extratorChave) {
+        this(extratorChave, 16);
+    }
+
+    // Construtor que já reserva espaço para a quantidade de elementos esperada
+    public AdaptadorArvoreAVLInt(ToIntFunction<? super T> extratorChave, int capacidade) {
+        this.arvore = new ArvoreAVLInt<>(capacidade);
+        this.extratorChave = extratorChave;
+    }
+
+    @Override
+    public void adicionar(T novoValor) {
+        arvore.inserir(extratorChave.applyAsInt(novoValor), novoValor);
+    }
+
+    @Override
+    public T pesquisar(T valor) {
+        return arvore.obter(extratorChave.applyAsInt(valor));
+    }
+
+    // O comparador não segue a ordem das chaves, então a árvore é varrida até o primeiro igual
+    @Override
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public T pesquisar(T valor, Comparator comparador) {
+        Iterator<T> it = arvore.valores();
+        while (it.hasNext()) {
+            T atual = it.next();
+            if (comparador.compare(valor, atual) == 0) {
+                return atual;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public T remover(T valor) {
+        return arvore.remover(extratorChave.applyAsInt(valor));
+    }
+
+    // Árvore só com a raiz tem altura 0 e árvore vazia, -1
+    @Override
+    public int altura() {
+        return arvore.altura();
+    }
+
+    @Override
+    public int quantidadeNos() {
+        return arvore.tamanho();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return arvore.valores();
+    }
+
+    @Override
+    public Iterator<T> iteradorReverso() {
+        return arvore.valoresReversos();
+    }
+
+    @Override
+    public Iterator<T> iteradorEmNivel() {
+        return arvore.valoresEmNivel();
+    }
+}
@@ -0,0 +1,253 @@
+package lib;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/* Grava e carrega uma ArvoreBinaria (ou subclasse, como a ArvoreAVL) em um arquivo binário compacto.
+ *
+ * Formato (big-endian):
+ *   int    MAGICO ("ARVB")
+ *   int    VERSAO
+ *   int    quantidade de nós
+ *   para cada nó, em pré-ordem:
+ *     byte   bits de estrutura (TEM_ESQUERDA | TEM_DIREITA)
+ *     bytes  valor, no formato do CodecValor
+ *
+ * Com os bits de estrutura a pré-ordem descreve a forma exata da árvore, então a carga religa
+ * os nós em O(n) sem chamar o comparador e a árvore volta com a mesma forma (uma AVL continua
+ * balanceada e uma árvore binária degenerada continua degenerada). A exceção é carregar em uma
+ * ArvoreAVL um arquivo que não é de uma AVL: ela religa os nós balanceados.
+ * Cada valor codificado deve ter menos que MARGEM (64 KiB) bytes; salvar rejeita os maiores.
+ * A carga lê o arquivo mapeado em memória (FileChannel.map), em janelas de até 1 GiB.
+ */
+public final class ArquivoArvore {
+
+    private static final int MAGICO = 0x41525642;
+    private static final int VERSAO = 1;
+    private static final byte TEM_ESQUERDA = 1;
+    private static final byte TEM_DIREITA = 2;
+
+    private static final long JANELA = 1L << 30;
+    // Cada valor codificado deve caber nisto, para não ficar dividido entre duas janelas
+    private static final int MARGEM = 1 << 16;
+
+    private ArquivoArvore() {
+    }
+
+    // Grava a árvore no arquivo, substituindo o conteúdo anterior
+    public static <T> void salvar(ArvoreBinaria<T> arvore, CodecValor<? super T> codec, Path arquivo) throws IOException {
+        try (SaidaContada contada = new SaidaContada(new BufferedOutputStream(Files.newOutputStream(arquivo), 1 << 16));
+             DataOutputStream saida = new DataOutputStream(contada)) {
+            escreverCabecalho(saida, arvore.quantidadeNos());
+            // Pré-ordem iterativa: o filho da direita é empilhado antes para o da esquerda sair primeiro
+            ArrayDeque<No<T>> pilha = new ArrayDeque<>();
+            if (arvore.raiz != null) {
+                pilha.push(arvore.raiz);
+            }
+            while (!pilha.isEmpty()) {
+                No<T> no = pilha.pop();
+                if (no.getFilhoDireita() != null) {
+                    pilha.push(no.getFilhoDireita());
+                }
+                if (no.getFilhoEsquerda() != null) {
+                    pilha.push(no.getFilhoEsquerda());
+                }
+                saida.writeByte(estrutura(no));
+                escreverValor(no.getValor(), codec, saida, contada);
+            }
+        }
+    }
+
+    /* Copia, em O(n) e sem E/S, os valores e os bits de estrutura da árvore em pré-ordem.
+     * A cópia pode ser gravada depois por gravarRetrato, em outra thread, enquanto a árvore continua mudando
+     */
+    static Retrato capturar(ArvoreBinaria<?> arvore) {
+        int quantidade = arvore.quantidadeNos();
+        Retrato retrato = new Retrato(new Object[quantidade], new byte[quantidade]);
+        ArrayDeque<No<?>> pilha = new ArrayDeque<>();
+        if (arvore.raiz != null) {
+            pilha.push(arvore.raiz);
+        }
+        int i = 0;
+        while (!pilha.isEmpty()) {
+            No<?> no = pilha.pop();
+            if (no.getFilhoDireita() != null) {
+                pilha.push(no.getFilhoDireita());
+            }
+            if (no.getFilhoEsquerda() != null) {
+                pilha.push(no.getFilhoEsquerda());
+            }
+            retrato.valores[i] = no.getValor();
+            retrato.estrutura[i++] = estrutura(no);
+        }
+        return retrato;
+    }
+
+    // Grava o retrato no mesmo formato de salvar e força os bytes para o disco antes de retornar
+    @SuppressWarnings("unchecked")
+    static <T> void gravarRetrato(Retrato retrato, CodecValor<? super T> codec, Path arquivo) throws IOException {
+        try (FileOutputStream arquivoSaida = new FileOutputStream(arquivo.toFile());
+             SaidaContada contada = new SaidaContada(new BufferedOutputStream(arquivoSaida, 1 << 16));
+             DataOutputStream saida = new DataOutputStream(contada)) {
+            escreverCabecalho(saida, retrato.valores.length);
+            for (int i = 0; i < retrato.valores.length; i++) {
+                saida.writeByte(retrato.estrutura[i]);
+                escreverValor((T) retrato.valores[i], codec, saida, contada);
+            }
+            saida.flush();
+            arquivoSaida.getFD().sync();
+        }
+    }
+
+    // Valores e bits de estrutura de uma árvore, em pré-ordem
+    static final class Retrato {
+        final Object[] valores;
+        final byte[] estrutura;
+
+        Retrato(Object[] valores, byte[] estrutura) {
+            this.valores = valores;
+            this.estrutura = estrutura;
+        }
+    }
+
+    /* Escreve o valor e confere que ele, com o byte de estrutura, cabe em MARGEM bytes: um valor maior
+     * poderia cruzar o fim de uma janela na carga
+     */
+    private static <T> void escreverValor(T valor, CodecValor<? super T> codec, DataOutputStream saida,
+                                          SaidaContada contada) throws IOException {
+        long antes = contada.escritos;
+        codec.escrever(valor, saida);
+        long tamanho = contada.escritos - antes;
+        if (1 + tamanho > MARGEM) {
+            throw new IOException("Valor com " + tamanho + " bytes: o arquivo aceita no máximo "
+                    + (MARGEM - 1) + " bytes por valor");
+        }
+    }
+
+    // Conta os bytes escritos, em long: o arquivo pode passar de 2 GiB
+    private static final class SaidaContada extends FilterOutputStream {
+        long escritos = 0;
+
+        SaidaContada(OutputStream saida) {
+            super(saida);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            escritos++;
+        }
+
+        @Override
+        public void write(byte[] b, int inicio, int tamanho) throws IOException {
+            out.write(b, inicio, tamanho);
+            escritos += tamanho;
+        }
+    }
+
+    private static void escreverCabecalho(DataOutputStream saida, int quantidade) throws IOException {
+        saida.writeInt(MAGICO);
+        saida.writeInt(VERSAO);
+        saida.writeInt(quantidade);
+    }
+
+    private static byte estrutura(No<?> no) {
+        byte estrutura = 0;
+        if (no.getFilhoEsquerda() != null) {
+            estrutura |= TEM_ESQUERDA;
+        }
+        if (no.getFilhoDireita() != null) {
+            estrutura |= TEM_DIREITA;
+        }
+        return estrutura;
+    }
+
+    /* Carrega o arquivo na árvore destino, que deve estar vazia. Os nós são criados pelo destino
+     * (então uma ArvoreAVL recebe nós com altura e uma ArvoreRubroNegra recebe nós com cor)
+     * e o comparador do destino não é chamado: o arquivo deve ter sido gravado com a mesma ordem
+     */
+    public static <T> void carregar(Path arquivo, CodecValor<? extends T> codec, ArvoreBinaria<T> destino) throws IOException {
+        if (destino.raiz != null) {
+            throw new IllegalArgumentException("A árvore de destino deve estar vazia");
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanhoArquivo = canal.size();
+            long inicioJanela = 0;
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(JANELA, tamanhoArquivo));
+            if (buffer.getInt() != MAGICO) {
+                throw new IOException("Arquivo não é uma árvore gravada pelo ArquivoArvore: " + arquivo);
+            }
+            int versao = buffer.getInt();
+            if (versao != VERSAO) {
+                throw new IOException("Versão de arquivo não suportada: " + versao);
+            }
+            int quantidade = buffer.getInt();
+            // Cada nó ocupa ao menos o byte de estrutura e o menor valor do codec
+            if (quantidade < 0 || quantidade > (tamanhoArquivo - buffer.position()) / (1 + codec.tamanhoMinimo())) {
+                throw new IOException("Quantidade de nós inválida para o tamanho do arquivo: " + quantidade);
+            }
+
+            @SuppressWarnings("unchecked")
+            No<T>[] nos = (No<T>[]) new No<?>[quantidade];
+            /* Pilha das posições que ainda esperam um filho: i para "filho da esquerda do nó i"
+             * e ~i (negativo) para "filho da direita do nó i". Cada nó lido ocupa a do topo
+             */
+            int[] pendentes = new int[64];
+            int topo = 0;
+            for (int i = 0; i < quantidade; i++) {
+                // Perto do fim da janela, se ela não alcança o fim do arquivo, mapeia a próxima a partir daqui
+                if (buffer.remaining() < MARGEM && inicioJanela + buffer.limit() < tamanhoArquivo) {
+                    inicioJanela += buffer.position();
+                    buffer = canal.map(FileChannel.MapMode.READ_ONLY, inicioJanela,
+                            Math.min(JANELA, tamanhoArquivo - inicioJanela));
+                }
+                byte estrutura = buffer.get();
+                No<T> no = destino.criarNo(codec.ler(buffer));
+                nos[i] = no;
+                if (i > 0) {
+                    if (topo == 0) {
+                        throw new IOException("Arquivo corrompido: nó " + i + " sem posição na árvore");
+                    }
+                    int pendente = pendentes[--topo];
+                    if (pendente >= 0) {
+                        nos[pendente].setFilhoEsquerda(no);
+                    } else {
+                        nos[~pendente].setFilhoDireita(no);
+                    }
+                }
+                if (topo + 2 > pendentes.length) {
+                    pendentes = Arrays.copyOf(pendentes, pendentes.length * 2);
+                }
+                if ((estrutura & TEM_DIREITA) != 0) {
+                    pendentes[topo++] = ~i;
+                }
+                if ((estrutura & TEM_ESQUERDA) != 0) {
+                    pendentes[topo++] = i;
+                }
+            }
+            if (topo != 0) {
+                throw new IOException("Arquivo corrompido: faltam " + topo + " nós");
+            }
+            // Na pré-ordem os descendentes vêm depois do nó, então de trás para frente os filhos são atualizados antes
+            for (int i = quantidade - 1; i >= 0; i--) {
+                nos[i].atualizarAltura();
+                nos[i].atualizarTamanho();
+            }
+            destino.carregarEstrutura(quantidade == 0 ? null : nos[0]);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Arquivo truncado: " + arquivo, e);
+        }
+    }
+}
@@ -1,125 +1,252 @@
 package lib;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 
 /* Esta classe implementa uma árvore binária balanceada (AVL)
    onde a diferença em altura entre as subárvores esquerda e direita
     de cada nó é no máximo um (positivo ou negativo)
   */
 public class ArvoreAVL<T> extends ArvoreBinaria<T> {
+    // A altura de uma AVL é no máximo 1,44*log2(n+2), então 64 níveis bastam para qualquer int de nós
+    private static final int ALTURA_MAXIMA = 64;
+
+    // Caminho da raiz até o nó em que a remoção está trabalhando (caminho[topo] é o mais fundo)
+    private final No<T>[] caminho;
+    // Nó de onde a próxima inserção deve descer, em vez da raiz; usado pelo Cursor e consumido por inserir
+    private No<T> inicioInsercao = null;
+    // Nó criado pela última inserção feita a partir de inicioInsercao
+    private No<T> ultimoInserido = null;
+
     /* Construtor que inicializa a árvore com o comparador especificado,
     ou seja, o comparador é usado para comparar elementos na árvore */
+    @SuppressWarnings("unchecked")
     public ArvoreAVL(Comparator<T> comparator) {
         super(comparator);
+        caminho = (No<T>[]) new No<?>[ALTURA_MAXIMA];
     }
 
-    // Método recursivo para adicionar um novo nó na árvore
-    @Override
-    protected No<T> addRecursao(No<T> raiz, No<T> novo){
-        // Chama o método de adição da classe pai
-        raiz = super.addRecursao(raiz, novo);
+    // Constrói, em O(n), uma árvore AVL a partir de valores já ordenados pelo comparador
+    public static <T> ArvoreAVL<T> construirDeOrdenado(Comparator<T> comp, List<T> valores) {
+        ArvoreAVL<T> arv = new ArvoreAVL<>(comp);
+        // A árvore perfeitamente balanceada já sai com as alturas certas, sem rotações
+        arv.carregarOrdenado(valores);
+        return arv;
+    }
 
-        /*Verifica o fator de balanceamento e caso seja necessário
-        realiza rotações para o balancear a árvore
-        */
+    // Versão de construirDeOrdenado para vetores
+    public static <T> ArvoreAVL<T> construirDeOrdenado(Comparator<T> comp, T[] valores) {
+        return construirDeOrdenado(comp, Arrays.asList(valores));
+    }
 
-        //Verifica do fator de balanceamento maior que 1
-        if (raiz.fatorBalanceamento() > 1) {
-            //Fator de balanceamento negativo do filho a direita
-            if (raiz.getFilhoDireita().fatorBalanceamento() < 0) {
-                // Rotação dupla direita-esquerda
-                // Faço uma rotação a direita no filho a direita
-                raiz.setFilhoDireita(rotacaoDireita(raiz.getFilhoDireita()));
+    /* A estrutura carregada (ArquivoArvore, DiarioArvore) pode ter sido gravada por uma árvore que não
+     * é AVL, até degenerada. As alturas já vêm calculadas; se algum nó tiver fator de balanceamento
+     * fora de [-1, 1], os nós são religados balanceados, em ordem, sem comparar valores
+     */
+    @Override
+    protected void carregarEstrutura(No<T> novaRaiz) {
+        if (!balanceada(novaRaiz)) {
+            List<No<T>> nos = nosEmOrdem(novaRaiz);
+            novaRaiz = montarBalanceada(nos, 0, nos.size() - 1);
+        }
+        super.carregarEstrutura(novaRaiz);
+    }
+
+    private static boolean balanceada(No<?> raiz) {
+        ArrayDeque<No<?>> pilha = new ArrayDeque<>();
+        if (raiz != null) {
+            pilha.push(raiz);
+        }
+        while (!pilha.isEmpty()) {
+            No<?> no = pilha.pop();
+            if (Math.abs(no.fatorBalanceamento()) > 1) {
+                return false;
             }
-            // Rotação simples à esquerda na raiz
-            raiz = rotacaoEsquerda(raiz);
-            // Fator de balanceamento menor que -1
-        } else if (raiz.fatorBalanceamento() < -1) {
-            if (raiz.getFilhoEsquerda().fatorBalanceamento() > 0) {
-                // Rotação dupla esquerda-direita
-                // Faço uma rotação a esquerda no filho a esquerda
-                raiz.setFilhoEsquerda(rotacaoEsquerda(raiz.getFilhoEsquerda()));
+            if (no.getFilhoEsquerda() != null) {
+                pilha.push(no.getFilhoEsquerda());
+            }
+            if (no.getFilhoDireita() != null) {
+                pilha.push(no.getFilhoDireita());
             }
-            // Rotação simples à direita na raiz
-            raiz = rotacaoDireita(raiz);
         }
-
-        return raiz;
+        return true;
     }
 
-    // Método público para remover um valor da árvore AVL.
-
+    // Método recursivo para adicionar um novo nó na árvore
     @Override
-    public T remover(T valor) {
-        // Chama o método privado remover, que faz a remoção recursiva, passando a raiz da árvore.
-        No<T> removido = remover(raiz, valor);
-        // Retorna o valor removido se não for null, caso contrário, retorna null.
-        return removido != null ? removido.getValor() : null;
-    }
-
-    // Método privado que remove de forma recursiva um nó com o valor especificado a partir da raiz dada.
-
-    private No<T> remover(No<T> raiz, T valor) {
-        // Se a raiz for null, o valor não está na árvore.
+    protected No<T> inserir(No<T> raiz, No<T> novo){
+        if (inicioInsercao != null) {
+            No<T> inicio = inicioInsercao;
+            inicioInsercao = null;
+            return inserirAPartirDe(inicio, novo);
+        }
+        // Chegou em uma posição vazia, o novo nó (folha, altura 0) ocupa este lugar
         if (raiz == null) {
-            return null;
+            return novo;
         }
-        // Compara o valor a ser removido com o valor do nó atual
-        int comp = comparador.compare(valor, raiz.getValor());
+        int comp = comparador.compare(novo.getValor(), raiz.getValor());
 
         if (comp < 0) {
-            // Se o valor a ser removido for menor que zero, chama recursivamente para a subárvore esquerda
-            raiz.setFilhoEsquerda(remover(raiz.getFilhoEsquerda(), valor));
-        } else if (comp > 0) {
-            // Se o valor a ser removido for maior que zero, chama recursivamente para a subárvore direita.
-            raiz.setFilhoDireita(remover(raiz.getFilhoDireita(), valor));
+            raiz.setFilhoEsquerda(inserir(raiz.getFilhoEsquerda(), novo));
         } else {
+            raiz.setFilhoDireita(inserir(raiz.getFilhoDireita(), novo));
+        }
+
+        /*Atualiza a altura e o tamanho armazenados a partir dos filhos e, caso seja necessário,
+        realiza rotações para o balancear a árvore. Ambos custam O(1) por nível
+        */
+        atualizar(raiz);
+        return balancear(raiz);
+    }
 
-            //Se comp == 0, os valores são iguais, o nó a ser removido foi encontrado
-            if (raiz.getFilhoEsquerda() == null || raiz.getFilhoDireita() == null) {
-                // Caso 1: O nó tem no máximo um filho.
-                // Substitui o nó pelo seu único filho ou por null se não tiver filhos.
-                raiz = (raiz.getFilhoEsquerda() != null) ? raiz.getFilhoEsquerda() : raiz.getFilhoDireita();
+    /* Inserção que desce a partir de um nó qualquer da árvore, cuja faixa de valores deve conter o novo.
+     * Depois sobe pelos pais até a raiz, atualizando altura e tamanho e rebalanceando como a versão recursiva
+     */
+    private No<T> inserirAPartirDe(No<T> inicio, No<T> novo) {
+        No<T> atual = inicio;
+        while (true) {
+            if (comparador.compare(novo.getValor(), atual.getValor()) < 0) {
+                if (atual.getFilhoEsquerda() == null) {
+                    atual.setFilhoEsquerda(novo);
+                    break;
+                }
+                atual = atual.getFilhoEsquerda();
             } else {
-                // Caso 2: O nó tem dois filhos.
-                // Se o nó a ser removido possui dois filhos, a estratégia é encontrar o sucessor,
-                // que é o menor valor na subárvore direita do nó a ser removido
-                No<T> sucessor = encontrarSucessor(raiz.getFilhoDireita());
-                // o valor do nó a ser removido é substituído pelo valor do sucessor
-                raiz.setValor(sucessor.getValor());
-                //O sucessor é removido da subárvore direita através da chamada recursiva
-                raiz.setFilhoDireita(remover(raiz.getFilhoDireita(), sucessor.getValor()));
+                if (atual.getFilhoDireita() == null) {
+                    atual.setFilhoDireita(novo);
+                    break;
+                }
+                atual = atual.getFilhoDireita();
             }
         }
-        // Após a remoção, se a raiz não for null, balanceia a árvore.
-        if (raiz != null) {
-            raiz = balancear(raiz);
+        ultimoInserido = novo;
+        while (atual != null) {
+            // o pai da raiz pode estar desatualizado durante a operação, então a raiz é reconhecida pelo campo
+            No<T> pai = atual == raiz ? null : atual.getPai();
+            boolean esquerda = pai != null && pai.getFilhoEsquerda() == atual;
+            atualizar(atual);
+            No<T> subarvore = balancear(atual);
+            if (pai == null) {
+                raiz = subarvore;
+            } else if (esquerda) {
+                pai.setFilhoEsquerda(subarvore);
+            } else {
+                pai.setFilhoDireita(subarvore);
+            }
+            atual = pai;
         }
-        // Retorna a nova raiz da subárvore.
         return raiz;
     }
 
-    //Balancear a árvore binária de busca, após uma operação de remoção.
+    /* Método que remove um valor da árvore AVL, chamado pelo remover público da árvore binária.
+     * Uma única descida localiza o nó e, se ele tiver dois filhos, continua até o sucessor, guardando
+     * o caminho em uma pilha. O valor do sucessor vai para o nó e o sucessor é desligado ali mesmo.
+     * Depois sobe pela pilha rebalanceando só enquanto a altura da subárvore mudar; acima disso
+     * cada nó apenas perde um no tamanho
+     */
+    @Override
+    protected T removerValor(T valor) {
+        int topo = -1;
+        No<T> alvo = raiz;
+        while (alvo != null) {
+            int comp = comparador.compare(valor, alvo.getValor());
+            if (comp == 0) {
+                break;
+            }
+            caminho[++topo] = alvo;
+            alvo = comp < 0 ? alvo.getFilhoEsquerda() : alvo.getFilhoDireita();
+        }
+        // O valor não está na árvore, não há nada a rebalancear
+        if (alvo == null) {
+            limparCaminho(topo);
+            return null;
+        }
+        T removido = alvo.getValor();
+
+        // Com dois filhos, o sucessor (o menor da subárvore direita) empresta seu valor e sai no lugar do alvo
+        No<T> sai = alvo;
+        if (alvo.getFilhoEsquerda() != null && alvo.getFilhoDireita() != null) {
+            caminho[++topo] = alvo;
+            sai = alvo.getFilhoDireita();
+            while (sai.getFilhoEsquerda() != null) {
+                caminho[++topo] = sai;
+                sai = sai.getFilhoEsquerda();
+            }
+            alvo.setValor(sai.getValor());
+        }
+        // O nó que sai tem no máximo um filho, que ocupa o seu lugar
+        No<T> filho = sai.getFilhoEsquerda() != null ? sai.getFilhoEsquerda() : sai.getFilhoDireita();
+        substituirFilho(topo >= 0 ? caminho[topo] : null, sai, filho);
+
+        int i = topo;
+        for (; i >= 0; i--) {
+            No<T> no = caminho[i];
+            int alturaAntes = no.getAltura();
+            atualizar(no);
+            No<T> subarvore = balancear(no);
+            if (subarvore != no) {
+                substituirFilho(i >= 1 ? caminho[i - 1] : null, no, subarvore);
+            }
+            if (subarvore.getAltura() == alturaAntes) {
+                // A altura desta subárvore não mudou, então os ancestrais continuam balanceados
+                i--;
+                break;
+            }
+        }
+        for (; i >= 0; i--) {
+            caminho[i].somarTamanho(-1);
+        }
+        limparCaminho(topo);
+        return removido;
+    }
+
+    // Coloca `novo` no lugar de `antigo` como filho de `pai` (ou como raiz, se pai for nulo)
+    private void substituirFilho(No<T> pai, No<T> antigo, No<T> novo) {
+        if (pai == null) {
+            raiz = novo;
+        } else if (pai.getFilhoEsquerda() == antigo) {
+            pai.setFilhoEsquerda(novo);
+        } else {
+            pai.setFilhoDireita(novo);
+        }
+    }
+
+    // Solta as referências do caminho para não segurar nós removidos
+    private void limparCaminho(int topo) {
+        for (int i = 0; i <= topo; i++) {
+            caminho[i] = null;
+        }
+    }
+
+    //Balancear a árvore binária de busca, após uma operação de inserção ou remoção.
     private No<T> balancear(No<T> raiz) {
-        // Chama o fator de balanceamento do nó atual.
-        int balanceamento = fatorBalanceamento(raiz);
+        // Fator de balanceamento do nó atual, em O(1) pelas alturas armazenadas.
+        int balanceamento = raiz.fatorBalanceamento();
 
         //O valor do fator de balanceamento é comparado com os limites 1 e -1
         if (balanceamento > 1) {
             // Verifica o fator de balanceamento do filho direito.
             // Se for menor que 0, significa que é necessário realizar uma rotação dupla.
-            if (fatorBalanceamento(raiz.getFilhoDireita()) < 0) {
+            if (raiz.getFilhoDireita().fatorBalanceamento() < 0) {
                 // Realiza uma rotação à direita no filho direito para em seguida ocorrer a rotação à esquerda.
                 raiz.setFilhoDireita(rotacaoDireita(raiz.getFilhoDireita()));
+                contarRotacao(true);
+            } else {
+                contarRotacao(false);
             }
             //Rotação à esquerda
             raiz = rotacaoEsquerda(raiz);
         } else if (balanceamento < -1) {
             // Verifica o fator de balanceamento do filho esquerdo.
             // Se for maior que 0, significa que é necessário realizar uma rotação dupla.
-            if (fatorBalanceamento(raiz.getFilhoEsquerda()) > 0) {
+            if (raiz.getFilhoEsquerda().fatorBalanceamento() > 0) {
                 // Realiza uma rotação à esquerda no filho esquerdo para em seguida ocorrer para a rotação à direita.
                 raiz.setFilhoEsquerda(rotacaoEsquerda(raiz.getFilhoEsquerda()));
+                contarRotacao(true);
+            } else {
+                contarRotacao(false);
             }
             // Rotação à direita
             raiz = rotacaoDireita(raiz);
@@ -128,15 +255,6 @@ public class ArvoreAVL<T> extends ArvoreBinaria<T> {
         return raiz;
     }
 
-/* Calcula o  fator de balanceamento:
- * hd(altura da subárvore direita) - he( altura da subárvore esquerda)
- */
-    private int fatorBalanceamento(No<T> no) {
-        if (no == null) {
-            return 0;
-        }
-        return altura(no.getFilhoDireita()) - altura(no.getFilhoEsquerda());
-    }
     // Realiza a rotação à esquerda em um nó
     private No<T> rotacaoEsquerda(No<T> r) {
         // Armazena o filho a direita de `r` em `f`
@@ -145,6 +263,9 @@ public class ArvoreAVL<T> extends ArvoreBinaria<T> {
         r.setFilhoDireita(f.getFilhoEsquerda());
         //  Faz de `r` o filho a esquerda de `f`
         f.setFilhoEsquerda(r);
+        // `r` agora está abaixo de `f`, então sua altura e tamanho são atualizados primeiro
+        atualizar(r);
+        atualizar(f);
         return f;
     }
 
@@ -156,32 +277,188 @@ public class ArvoreAVL<T> extends ArvoreBinaria<T> {
         r.setFilhoEsquerda(f.getFilhoDireita());
         //  Faz de `r` o filho a direita de `f`
         f.setFilhoDireita(r);
+        // `r` agora está abaixo de `f`, então sua altura e tamanho são atualizados primeiro
+        atualizar(r);
+        atualizar(f);
         return f;
     }
 
-    // Encontra o sucessor de um nó (menor nó na subárvore direita do nó especificado)
+    // Conta a rotação nas métricas, se estiverem ativas
+    private void contarRotacao(boolean dupla) {
+        if (metricas != null) {
+            metricas.contarRotacao(dupla);
+        }
+    }
+
+    // Recalcula a altura e o tamanho armazenados de um nó cujos filhos mudaram
+    private void atualizar(No<T> no) {
+        no.atualizarAltura();
+        no.atualizarTamanho();
+    }
+
+    // Cria um cursor sobre a árvore, ainda sem posição
+    public Cursor<T> cursor() {
+        return new Cursor<>(this);
+    }
+
+    /* Cursor (finger) que guarda o nó do último acesso, para acessos em ordem quase sequencial
+     * (como as matrículas do GeradorDeArvores). Em vez de descer da raiz, pesquisar e adicionar
+     * sobem pelos pais a partir do nó guardado só até o primeiro ancestral cuja subárvore contém
+     * o valor, e descem dali. Para um valor a d posições do anterior isso custa O(log d)
+     * comparações na média de uma sequência de acessos (um passo que atravessa um nó alto ainda
+     * pode subir até ele); a subida segue ponteiros sem comparar. A inserção continua
+     * atualizando alturas e tamanhos até a raiz.
+     *
+     * O cursor usa as operações públicas da árvore, então diário, índices e métricas continuam
+     * valendo. Remoções feitas na árvore depois do último acesso fazem o próximo acesso começar
+     * pela raiz, porque o nó guardado pode ter saído dela. Como a árvore, não é thread-safe
+     */
+    public static final class Cursor<T> {
+        private final ArvoreAVL<T> arvore;
+        // Nó do último acesso, válido enquanto arvore.remocoes == remocoes
+        private No<T> no = null;
+        private int remocoes;
+
+        private Cursor(ArvoreAVL<T> arvore) {
+            this.arvore = arvore;
+        }
+
+        // Valor sob o cursor, ou null se ele não tiver posição
+        public T getValor() {
+            return posicionado() ? no.getValor() : null;
+        }
+
+        /* Pesquisa o valor a partir da última posição. O cursor fica no elemento encontrado ou,
+         * se ele não estiver na árvore, no último nó visitado (vizinho de onde ele estaria)
+         */
+        public T pesquisar(T valor) {
+            MetricasArvore metricas = arvore.metricas;
+            long inicio = metricas != null ? metricas.iniciar() : 0;
+            No<T> atual = inicioDescida(valor);
+            T encontrado = null;
+            while (atual != null) {
+                no = atual;
+                int c = arvore.comparador.compare(valor, atual.getValor());
+                if (c == 0) {
+                    encontrado = atual.getValor();
+                    break;
+                }
+                atual = c < 0 ? atual.getFilhoEsquerda() : atual.getFilhoDireita();
+            }
+            remocoes = arvore.remocoes;
+            if (metricas != null) {
+                metricas.registrar(MetricasArvore.Operacao.PESQUISAR, inicio);
+            }
+            return encontrado;
+        }
 
-    private No<T> encontrarSucessor(No<T> no) {
-        //O método inicia um loop while que continua enquanto o nó atual (no) possui um filho à esquerda
-        while (no.getFilhoEsquerda() != null) {
-            //Em cada iteração, o nó atual é atualizado para ser seu filho à esquerda
-            no = no.getFilhoEsquerda();
+        // Adiciona o valor descendo a partir da última posição; o cursor fica no novo elemento
+        public void adicionar(T valor) {
+            arvore.inicioInsercao = inicioDescida(valor);
+            try {
+                arvore.adicionar(valor);
+            } finally {
+                arvore.inicioInsercao = null;
+            }
+            if (arvore.ultimoInserido != null) {
+                no = arvore.ultimoInserido;
+                arvore.ultimoInserido = null;
+            } else {
+                // árvore vazia: a inserção comum foi usada e o novo nó é a raiz
+                no = arvore.raiz;
+            }
+            remocoes = arvore.remocoes;
+        }
+
+        // Move o cursor para o próximo elemento em ordem e retorna seu valor, ou null se não houver
+        public T proximo() {
+            if (!posicionado()) {
+                return null;
+            }
+            No<T> atual = no;
+            if (atual.getFilhoDireita() != null) {
+                atual = arvore.encontrarSucessor(atual.getFilhoDireita());
+            } else {
+                // sobe enquanto vier da direita; o primeiro pai alcançado pela esquerda é o sucessor
+                while (atual != arvore.raiz && atual.getPai().getFilhoDireita() == atual) {
+                    atual = atual.getPai();
+                }
+                if (atual == arvore.raiz) {
+                    return null;
+                }
+                atual = atual.getPai();
+            }
+            no = atual;
+            return atual.getValor();
+        }
+
+        // Move o cursor para o elemento anterior em ordem e retorna seu valor, ou null se não houver
+        public T anterior() {
+            if (!posicionado()) {
+                return null;
+            }
+            No<T> atual = no;
+            if (atual.getFilhoEsquerda() != null) {
+                atual = atual.getFilhoEsquerda();
+                while (atual.getFilhoDireita() != null) {
+                    atual = atual.getFilhoDireita();
+                }
+            } else {
+                while (atual != arvore.raiz && atual.getPai().getFilhoEsquerda() == atual) {
+                    atual = atual.getPai();
+                }
+                if (atual == arvore.raiz) {
+                    return null;
+                }
+                atual = atual.getPai();
+            }
+            no = atual;
+            return atual.getValor();
+        }
+
+        private boolean posicionado() {
+            return no != null && remocoes == arvore.remocoes;
+        }
+
+        /* Escolhe o nó de onde descer: o mais baixo, a partir do nó guardado, cuja subárvore contém o valor.
+         * Indo para a direita, o limite superior da subárvore de um nó é o primeiro ancestral do qual ela
+         * é descendente pela esquerda; os pais alcançados pela direita não o mudam e não são comparados.
+         * Enquanto o valor passar desse limite, sobe até ele. Indo para a esquerda, o contrário
+         */
+        private No<T> inicioDescida(T valor) {
+            if (!posicionado()) {
+                return arvore.raiz;
+            }
+            Comparator<T> comparador = arvore.comparador;
+            No<T> atual = no;
+            int c = comparador.compare(valor, atual.getValor());
+            if (c == 0) {
+                return atual;
+            }
+            while (true) {
+                No<T> filho = atual;
+                while (filho != arvore.raiz && (c > 0 ? filho.getPai().getFilhoDireita() : filho.getPai().getFilhoEsquerda()) == filho) {
+                    filho = filho.getPai();
+                }
+                if (filho == arvore.raiz) {
+                    // sem limite deste lado: a subárvore do nó atual já contém o valor
+                    return atual;
+                }
+                No<T> limite = filho.getPai();
+                int l = comparador.compare(valor, limite.getValor());
+                if (c > 0 ? l < 0 : l > 0) {
+                    return atual;
+                }
+                atual = limite;
+            }
         }
-        //Ao sair do loop, o nó atual estará apontando para o nó mais à esquerda da subárvore direita,
-        // que é o sucessor procurado.
-        return no;
     }
 
-    // Retorna a altura da árvore
+    /* Retorna a altura da árvore em O(1), lida da altura armazenada na raiz.
+     * Como em IArvoreBinaria: árvore vazia tem altura -1 e só a raiz, 0
+     */
     @Override
     public int altura() {
-        return altura(raiz);
-    }
-    // Calcula a altura de um nó recursivamente
-    private int altura(No<T> no) {
-        if (no == null) {
-            return 0;
-        }
-        return 1 + Math.max(altura(no.getFilhoEsquerda()), altura(no.getFilhoDireita()));
+        return No.alturaArmazenada(raiz);
     }
 }
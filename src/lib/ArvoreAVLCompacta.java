@@ -0,0 +1,309 @@
+package lib;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/* Árvore AVL com os mesmos algoritmos da ArvoreAVL, mas com os nós guardados em um PoolDeNos
+ * (vetores paralelos indexados por int) em vez de objetos No.
+ *
+ * Inserções não alocam um objeto por elemento e remoções não deixam lixo para o coletor:
+ * a posição do nó removido volta para a lista livre do pool e é reaproveitada.
+ * Depois de muitas remoções e inserções, compactar() renumera os nós em ordem para que
+ * a descida e os caminhamentos acessem posições próximas na memória.
+ *
+ * O pool guarda o tamanho de cada subárvore, então as consultas de IArvoreOrdenada (posição,
+ * k-ésimo, vizinhos e intervalo) descem a árvore uma única vez, como na ArvoreAVL.
+ * Índices secundários, diário e métricas são da ArvoreBinaria e das suas subclasses, cujos nós são objetos No.
+ */
+public class ArvoreAVLCompacta<T> implements IArvoreOrdenada<T> {
+
+    private static final int NULO = PoolDeNos.NULO;
+
+    private final PoolDeNos pool = new PoolDeNos();
+    private final Comparator<T> comparador;
+    private int raiz = NULO;
+    // Valor retirado pela remoção em andamento
+    private T removido;
+
+    public ArvoreAVLCompacta(Comparator<T> comparador) {
+        this.comparador = comparador;
+    }
+
+    @Override
+    public void adicionar(T novoValor) {
+        raiz = inserir(raiz, novoValor);
+    }
+
+    // Mesma inserção recursiva da ArvoreAVL: iguais vão para a direita e cada nível é rebalanceado
+    private int inserir(int no, T valor) {
+        if (no == NULO) {
+            return pool.alocar(valor);
+        }
+        if (comparador.compare(valor, valor(no)) < 0) {
+            pool.setEsquerda(no, inserir(pool.getEsquerda(no), valor));
+        } else {
+            pool.setDireita(no, inserir(pool.getDireita(no), valor));
+        }
+        pool.atualizar(no);
+        return pool.balancear(no);
+    }
+
+    @Override
+    public T pesquisar(T valor) {
+        int no = raiz;
+        while (no != NULO) {
+            int comp = comparador.compare(valor, valor(no));
+            if (comp == 0) {
+                return valor(no);
+            }
+            no = comp < 0 ? pool.getEsquerda(no) : pool.getDireita(no);
+        }
+        return null;
+    }
+
+    // O comparador não segue a ordem da árvore, então ela é varrida até o primeiro igual
+    @Override
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public T pesquisar(T valor, Comparator comparador) {
+        for (T atual : this) {
+            if (comparador.compare(valor, atual) == 0) {
+                return atual;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public T remover(T valor) {
+        removido = null;
+        raiz = remover(raiz, valor);
+        T resultado = removido;
+        removido = null;
+        return resultado;
+    }
+
+    private int remover(int no, T valor) {
+        if (no == NULO) {
+            return NULO;
+        }
+        int comp = comparador.compare(valor, valor(no));
+        if (comp < 0) {
+            pool.setEsquerda(no, remover(pool.getEsquerda(no), valor));
+        } else if (comp > 0) {
+            pool.setDireita(no, remover(pool.getDireita(no), valor));
+        } else {
+            removido = valor(no);
+            int esquerda = pool.getEsquerda(no);
+            int direita = pool.getDireita(no);
+            if (esquerda == NULO || direita == NULO) {
+                // No máximo um filho: ele ocupa o lugar do nó, cuja posição volta para o pool
+                pool.liberar(no);
+                return esquerda != NULO ? esquerda : direita;
+            }
+            // Dois filhos: o valor do sucessor é copiado para cá e o sucessor sai da direita
+            int sucessor = direita;
+            while (pool.getEsquerda(sucessor) != NULO) {
+                sucessor = pool.getEsquerda(sucessor);
+            }
+            pool.setValor(no, pool.getValor(sucessor));
+            pool.setDireita(no, removerMenor(direita));
+        }
+        pool.atualizar(no);
+        return pool.balancear(no);
+    }
+
+    // Retira o menor nó da subárvore e retorna a nova raiz dela
+    private int removerMenor(int no) {
+        int esquerda = pool.getEsquerda(no);
+        if (esquerda == NULO) {
+            int direita = pool.getDireita(no);
+            pool.liberar(no);
+            return direita;
+        }
+        pool.setEsquerda(no, removerMenor(esquerda));
+        pool.atualizar(no);
+        return pool.balancear(no);
+    }
+
+    /* Renumera os nós na ordem do caminhamento em ordem, liberando os blocos que sobraram.
+     * Custa O(n); vale a pena depois de uma fase de muitas remoções ou antes de uma fase de leitura
+     */
+    public void compactar() {
+        raiz = pool.compactar(raiz);
+    }
+
+    // Árvore só com a raiz tem altura 0 e árvore vazia, -1
+    @Override
+    public int altura() {
+        return pool.altura(raiz);
+    }
+
+    @Override
+    public int quantidadeNos() {
+        return pool.quantidade();
+    }
+
+    // Quantos elementos são menores que o valor, somando os tamanhos das subárvores esquerdas deixadas para trás
+    @Override
+    public int posicao(T valor) {
+        int menores = 0;
+        int no = raiz;
+        while (no != NULO) {
+            if (comparador.compare(valor, valor(no)) <= 0) {
+                no = pool.getEsquerda(no);
+            } else {
+                menores += pool.tamanho(pool.getEsquerda(no)) + 1;
+                no = pool.getDireita(no);
+            }
+        }
+        return menores;
+    }
+
+    // k-ésimo menor elemento (k a partir de 0) pelos tamanhos das subárvores
+    @Override
+    public T selecionar(int k) {
+        if (k < 0 || k >= pool.quantidade()) {
+            return null;
+        }
+        int no = raiz;
+        while (true) {
+            int tamEsquerda = pool.tamanho(pool.getEsquerda(no));
+            if (k < tamEsquerda) {
+                no = pool.getEsquerda(no);
+            } else if (k == tamEsquerda) {
+                return valor(no);
+            } else {
+                k -= tamEsquerda + 1;
+                no = pool.getDireita(no);
+            }
+        }
+    }
+
+    @Override
+    public T menor() {
+        return extremo(false);
+    }
+
+    @Override
+    public T maior() {
+        return extremo(true);
+    }
+
+    // Desce sempre pelo mesmo lado até o último nó
+    private T extremo(boolean direita) {
+        if (raiz == NULO) {
+            return null;
+        }
+        int no = raiz;
+        int proximo = direita ? pool.getDireita(no) : pool.getEsquerda(no);
+        while (proximo != NULO) {
+            no = proximo;
+            proximo = direita ? pool.getDireita(no) : pool.getEsquerda(no);
+        }
+        return valor(no);
+    }
+
+    @Override
+    public T piso(T valor) {
+        return descerAteLimite(valor, true, true);
+    }
+
+    @Override
+    public T teto(T valor) {
+        return descerAteLimite(valor, false, true);
+    }
+
+    @Override
+    public T antecessor(T valor) {
+        return descerAteLimite(valor, true, false);
+    }
+
+    @Override
+    public T sucessor(T valor) {
+        return descerAteLimite(valor, false, false);
+    }
+
+    // Mesma descida de ArvoreBinaria.descerAteLimite, sobre índices
+    private T descerAteLimite(T valor, boolean abaixo, boolean inclusivo) {
+        int no = raiz;
+        int candidato = NULO;
+        while (no != NULO) {
+            int comp = comparador.compare(valor, valor(no));
+            if (comp == 0 && inclusivo) {
+                return valor(no);
+            }
+            if (abaixo ? comp > 0 : comp < 0) {
+                candidato = no;
+                no = abaixo ? pool.getDireita(no) : pool.getEsquerda(no);
+            } else {
+                no = abaixo ? pool.getEsquerda(no) : pool.getDireita(no);
+            }
+        }
+        return candidato == NULO ? null : valor(candidato);
+    }
+
+    @Override
+    public Iterator<T> intervalo(T min, T max) {
+        return new IteradorIntervalo(min, max);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return pool.emOrdem(raiz, false);
+    }
+
+    @Override
+    public Iterator<T> iteradorReverso() {
+        return pool.emOrdem(raiz, true);
+    }
+
+    @Override
+    public Iterator<T> iteradorEmNivel() {
+        return pool.emNivel(raiz);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T valor(int no) {
+        return (T) pool.getValor(no);
+    }
+
+    // Como o IteradorIntervalo da ArvoreBinaria: começa no primeiro valor >= min e para no primeiro > max
+    private class IteradorIntervalo implements Iterator<T> {
+        private final int[] pilha = new int[PoolDeNos.ALTURA_MAXIMA];
+        private int topo = 0;
+        private final T max;
+
+        IteradorIntervalo(T min, T max) {
+            this.max = max;
+            int no = raiz;
+            while (no != NULO) {
+                if (comparador.compare(min, valor(no)) <= 0) {
+                    pilha[topo++] = no;
+                    no = pool.getEsquerda(no);
+                } else {
+                    no = pool.getDireita(no);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return topo > 0 && comparador.compare(valor(pilha[topo - 1]), max) <= 0;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int no = pilha[--topo];
+            int proximo = pool.getDireita(no);
+            while (proximo != NULO) {
+                pilha[topo++] = proximo;
+                proximo = pool.getEsquerda(proximo);
+            }
+            return valor(no);
+        }
+    }
+}
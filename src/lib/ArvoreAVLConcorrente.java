@@ -0,0 +1,489 @@
+package lib;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+
+/* Árvore AVL que pode ser usada por várias threads ao mesmo tempo.
+ *
+ * Os escritores (adicionar, remover...) são serializados por um StampedLock em modo escrita.
+ * A pesquisar(T), que domina as cargas de leitura, não trava: cada nó tem uma versão, ímpar
+ * enquanto uma escrita em andamento troca um filho ou o valor dele, e a descida confere, a cada
+ * passo, que o nó onde está não mudou desde que chegou nele. As rotações mantêm a faixa de
+ * valores de todo nó que não é religado, então só uma escrita que passa pelo caminho da pesquisa
+ * a faz recomeçar; escritas em outras partes da árvore não a atrapalham. adicionarTodos, que pode
+ * religar a árvore inteira, invalida todas as descidas em andamento.
+ * Depois de TENTATIVAS_OTIMISTAS descidas invalidadas seguidas, a pesquisa espera a trava de
+ * leitura, em vez de girar enquanto os escritores passam.
+ * altura() e quantidadeNos() são lidos de forma otimista pelo StampedLock, com o mesmo limite.
+ * As demais consultas usam a trava de leitura, que permite vários leitores simultâneos.
+ *
+ * Os iteradores e o spliterator percorrem uma cópia tirada sob a trava de leitura, então
+ * não enxergam escritas feitas depois de criados.
+ */
+public class ArvoreAVLConcorrente<T> implements IArvoreOrdenada<T> {
+
+    // Leituras otimistas invalidadas seguidas antes de esperar a trava de leitura
+    private static final int TENTATIVAS_OTIMISTAS = 16;
+    // Uma AVL com até 2^31 nós tem altura menor que 46; passar disso indica uma leitura inconsistente
+    private static final int LIMITE_PASSOS = 128;
+    // Resultado de uma descida sem trava que viu uma escrita no caminho
+    private static final Object REFAZER = new Object();
+
+    private final ArvoreVersionada<T> arvore;
+    private final StampedLock trava = new StampedLock();
+    // Raiz da árvore publicada ao fim de cada escrita, antes das versões dos nós alterados voltarem a ser pares
+    private volatile No<T> raiz = null;
+
+    public ArvoreAVLConcorrente(Comparator<T> comparador) {
+        this.arvore = new ArvoreVersionada<>(comparador);
+    }
+
+    @Override
+    public void adicionar(T novoValor) {
+        long stamp = trava.writeLock();
+        try {
+            arvore.adicionar(novoValor);
+        } finally {
+            terminarEscrita(stamp);
+        }
+    }
+
+    public void adicionarTodos(Collection<? extends T> novos) {
+        long stamp = trava.writeLock();
+        // pode religar a árvore inteira: em vez de marcar cada nó, invalida todas as descidas
+        arvore.epoca++;
+        VarHandle.storeStoreFence();
+        try {
+            arvore.adicionarTodos(novos);
+        } finally {
+            arvore.epoca++;
+            terminarEscrita(stamp);
+        }
+    }
+
+    @Override
+    public T remover(T valor) {
+        long stamp = trava.writeLock();
+        try {
+            return arvore.remover(valor);
+        } finally {
+            terminarEscrita(stamp);
+        }
+    }
+
+    // Publica a raiz, libera os nós alterados e só então solta a trava de escrita
+    private void terminarEscrita(long stamp) {
+        raiz = arvore.raiz;
+        arvore.liberarMarcados();
+        trava.unlockWrite(stamp);
+    }
+
+    public void registrarIndice(Comparator<T> comp) {
+        long stamp = trava.writeLock();
+        try {
+            arvore.registrarIndice(comp);
+        } finally {
+            trava.unlockWrite(stamp);
+        }
+    }
+
+    public void removerIndice(Comparator<T> comp) {
+        long stamp = trava.writeLock();
+        try {
+            arvore.removerIndice(comp);
+        } finally {
+            trava.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T pesquisar(T valor) {
+        for (int tentativa = 0; tentativa < TENTATIVAS_OTIMISTAS; tentativa++) {
+            Object encontrado = descerVersionado(valor);
+            if (encontrado != REFAZER) {
+                return (T) encontrado;
+            }
+            Thread.onSpinWait();
+        }
+        long stamp = trava.readLock();
+        try {
+            return arvore.pesquisar(valor);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    /* Descida de pesquisar(T) sem trava. Antes de seguir para um filho confere que a versão do nó
+     * atual não mudou (então o filho e o valor lidos eram dele) e, depois de ler a versão do filho,
+     * que ele ainda era filho do nó atual. Retorna o valor encontrado, null se ele não estiver na
+     * árvore ou REFAZER se uma escrita alterou algum nó do caminho
+     */
+    private Object descerVersionado(T valor) {
+        long epoca = arvore.epoca;
+        if ((epoca & 1) != 0) {
+            return REFAZER;
+        }
+        No<T> primeiro = raiz;
+        if (primeiro == null) {
+            return arvore.epoca == epoca ? null : REFAZER;
+        }
+        NoVersionado<T> atual = (NoVersionado<T>) primeiro;
+        int versao = atual.versao;
+        if ((versao & 1) != 0 || raiz != atual) {
+            return REFAZER;
+        }
+        for (int passos = 0; passos < LIMITE_PASSOS; passos++) {
+            T valorAtual = atual.getValor();
+            int comp;
+            try {
+                comp = arvore.comparador.compare(valor, valorAtual);
+            } catch (RuntimeException e) {
+                // Se o nó não mudou, a exceção veio do próprio comparador ou do valor; senão a leitura viu um nó pela metade
+                VarHandle.acquireFence();
+                if (atual.versao == versao && arvore.epoca == epoca) {
+                    throw e;
+                }
+                return REFAZER;
+            }
+            No<T> filho = comp < 0 ? atual.getFilhoEsquerda() : atual.getFilhoDireita();
+            VarHandle.acquireFence();
+            if (atual.versao != versao) {
+                return REFAZER;
+            }
+            if (comp == 0 || filho == null) {
+                if (arvore.epoca != epoca) {
+                    return REFAZER;
+                }
+                return comp == 0 ? valorAtual : null;
+            }
+            NoVersionado<T> proximo = (NoVersionado<T>) filho;
+            int versaoProximo = proximo.versao;
+            if ((versaoProximo & 1) != 0 || atual.versao != versao) {
+                return REFAZER;
+            }
+            atual = proximo;
+            versao = versaoProximo;
+        }
+        return REFAZER;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public T pesquisar(T valor, Comparator comparador) {
+        long stamp = trava.readLock();
+        try {
+            return arvore.pesquisar(valor, comparador);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    public int contar(Predicate<? super T> predicado) {
+        long stamp = trava.readLock();
+        try {
+            return arvore.contar(predicado);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    public List<T> filtrar(Predicate<? super T> predicado) {
+        long stamp = trava.readLock();
+        try {
+            return arvore.filtrar(predicado);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    // Altura lida de forma otimista: é um único campo da raiz
+    @Override
+    public int altura() {
+        for (int tentativa = 0; tentativa < TENTATIVAS_OTIMISTAS; tentativa++) {
+            long stamp = trava.tryOptimisticRead();
+            int altura = arvore.altura();
+            if (stamp != 0 && trava.validate(stamp)) {
+                return altura;
+            }
+            Thread.onSpinWait();
+        }
+        long stamp = trava.readLock();
+        try {
+            return arvore.altura();
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    // Quantidade lida de forma otimista: é um único campo da raiz
+    @Override
+    public int quantidadeNos() {
+        for (int tentativa = 0; tentativa < TENTATIVAS_OTIMISTAS; tentativa++) {
+            long stamp = trava.tryOptimisticRead();
+            int quantidade = arvore.quantidadeNos();
+            if (stamp != 0 && trava.validate(stamp)) {
+                return quantidade;
+            }
+            Thread.onSpinWait();
+        }
+        long stamp = trava.readLock();
+        try {
+            return arvore.quantidadeNos();
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int posicao(T valor) {
+        long stamp = trava.readLock();
+        try {
+            return arvore.posicao(valor);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public T selecionar(int k) {
+        long stamp = trava.readLock();
+        try {
+            return arvore.selecionar(k);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public T menor() {
+        long stamp = trava.readLock();
+        try {
+            return arvore.menor();
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public T maior() {
+        long stamp = trava.readLock();
+        try {
+            return arvore.maior();
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public T piso(T valor) {
+        long stamp = trava.readLock();
+        try {
+            return arvore.piso(valor);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public T teto(T valor) {
+        long stamp = trava.readLock();
+        try {
+            return arvore.teto(valor);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public T antecessor(T valor) {
+        long stamp = trava.readLock();
+        try {
+            return arvore.antecessor(valor);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public T sucessor(T valor) {
+        long stamp = trava.readLock();
+        try {
+            return arvore.sucessor(valor);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    // Copia o intervalo sob a trava de leitura e itera sobre a cópia
+    @Override
+    public Iterator<T> intervalo(T min, T max) {
+        long stamp = trava.readLock();
+        try {
+            return copiar(arvore.intervalo(min, max)).iterator();
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public String caminharEmNivel() {
+        long stamp = trava.readLock();
+        try {
+            return arvore.caminharEmNivel();
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public String caminharEmOrdem() {
+        long stamp = trava.readLock();
+        try {
+            return arvore.caminharEmOrdem();
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    // Os escritores esperam até a saída terminar de ser escrita
+    @Override
+    public void caminharEmNivel(Appendable saida) throws IOException {
+        long stamp = trava.readLock();
+        try {
+            arvore.caminharEmNivel(saida);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    // Os escritores esperam até a saída terminar de ser escrita
+    @Override
+    public void caminharEmOrdem(Appendable saida) throws IOException {
+        long stamp = trava.readLock();
+        try {
+            arvore.caminharEmOrdem(saida);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return copiarSobTrava(false).iterator();
+    }
+
+    @Override
+    public Iterator<T> iteradorReverso() {
+        long stamp = trava.readLock();
+        try {
+            return copiar(arvore.iteradorReverso()).iterator();
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Iterator<T> iteradorEmNivel() {
+        return copiarSobTrava(true).iterator();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return copiarSobTrava(false).spliterator();
+    }
+
+    // Copia os valores em ordem (ou em nível) enquanto segura a trava de leitura
+    private List<T> copiarSobTrava(boolean emNivel) {
+        long stamp = trava.readLock();
+        try {
+            return copiar(emNivel ? arvore.iteradorEmNivel() : arvore.iterator());
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    private List<T> copiar(Iterator<T> it) {
+        List<T> copia = new ArrayList<>();
+        it.forEachRemaining(copia::add);
+        return copia;
+    }
+
+    /* ArvoreAVL de nós com versão. Todo nó que tem um filho ou o valor trocado por uma escrita
+     * passa a ter versão ímpar na primeira troca e volta a ter versão par, maior que a anterior,
+     * em liberarMarcados(), chamado no fim da escrita. As rotações e a remoção só alteram nós
+     * pelos setters, então nenhuma alteração escapa da marcação
+     */
+    private static final class ArvoreVersionada<T> extends ArvoreAVL<T> {
+        // Nós com versão ímpar na escrita em andamento
+        private final List<NoVersionado<T>> marcados = new ArrayList<>();
+        // Ímpar enquanto adicionarTodos religa a árvore; então os nós não são marcados um a um
+        volatile long epoca = 0;
+
+        ArvoreVersionada(Comparator<T> comparador) {
+            super(comparador);
+        }
+
+        @Override
+        protected No<T> criarNo(T valor) {
+            return new NoVersionado<>(valor, this);
+        }
+
+        void liberarMarcados() {
+            for (NoVersionado<T> no : marcados) {
+                no.versao++;
+            }
+            marcados.clear();
+        }
+    }
+
+    private static final class NoVersionado<T> extends No<T> {
+        volatile int versao = 0;
+        private final ArvoreVersionada<T> arvore;
+
+        NoVersionado(T valor, ArvoreVersionada<T> arvore) {
+            super(valor);
+            this.arvore = arvore;
+        }
+
+        // A versão fica ímpar antes da primeira alteração do nó ser visível
+        private void marcar() {
+            if ((versao & 1) == 0 && (arvore.epoca & 1) == 0) {
+                versao++;
+                VarHandle.storeStoreFence();
+                arvore.marcados.add(this);
+            }
+        }
+
+        @Override
+        public void setValor(T valor) {
+            marcar();
+            super.setValor(valor);
+        }
+
+        @Override
+        public void setFilhoEsquerda(No<T> filhoEsquerda) {
+            // a inserção recursiva da ArvoreAVL religa o mesmo filho em todo o caminho
+            if (filhoEsquerda != getFilhoEsquerda()) {
+                marcar();
+            }
+            super.setFilhoEsquerda(filhoEsquerda);
+        }
+
+        @Override
+        public void setFilhoDireita(No<T> filhoDireita) {
+            if (filhoDireita != getFilhoDireita()) {
+                marcar();
+            }
+            super.setFilhoDireita(filhoDireita);
+        }
+    }
+}
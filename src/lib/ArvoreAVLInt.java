@@ -0,0 +1,172 @@
+package lib;
+
+import java.util.Iterator;
+
+/* Árvore AVL especializada em chaves int, usada como mapa chave -> valor.
+ *
+ * Em vez de um objeto No por elemento, os nós são posições de um PoolDeNos com chaves
+ * (vetores paralelos de chaves, valores, filhos e alturas), e os filhos são índices nesses vetores.
+ * As chaves ficam em vetores de int e são comparadas diretamente, sem Comparator e sem
+ * Integer. As posições liberadas pela remoção são reaproveitadas pela lista livre do pool,
+ * que também faz o balanceamento e os caminhamentos, os mesmos da ArvoreAVLCompacta.
+ *
+ * Como é um mapa, adicionar uma chave que já existe substitui o valor associado.
+ */
+public class ArvoreAVLInt<V> {
+
+    private static final int NULO = PoolDeNos.NULO;
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    private final PoolDeNos pool = new PoolDeNos(true);
+    private int raiz = NULO;
+    // Valor retirado pela última remoção ou substituído pela última inserção
+    private Object anterior;
+
+    public ArvoreAVLInt() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    // Construtor que já reserva espaço para a quantidade de nós esperada
+    public ArvoreAVLInt(int capacidade) {
+        pool.reservar(Math.max(capacidade, 1));
+    }
+
+    // Associa o valor à chave e retorna o valor que estava associado a ela antes, ou null
+    @SuppressWarnings("unchecked")
+    public V inserir(int chave, V valor) {
+        anterior = null;
+        raiz = inserir(raiz, chave, valor);
+        V substituido = (V) anterior;
+        anterior = null;
+        return substituido;
+    }
+
+    private int inserir(int no, int chave, V valor) {
+        if (no == NULO) {
+            int novo = pool.alocar(valor);
+            pool.setChave(novo, chave);
+            return novo;
+        }
+        int c = pool.getChave(no);
+        if (chave < c) {
+            pool.setEsquerda(no, inserir(pool.getEsquerda(no), chave, valor));
+        } else if (chave > c) {
+            pool.setDireita(no, inserir(pool.getDireita(no), chave, valor));
+        } else {
+            // Chave já existente: só troca o valor, a forma da árvore não muda
+            anterior = pool.getValor(no);
+            pool.setValor(no, valor);
+            return no;
+        }
+        pool.atualizar(no);
+        return pool.balancear(no);
+    }
+
+    // Retorna o valor associado à chave, ou null se ela não estiver na árvore
+    @SuppressWarnings("unchecked")
+    public V obter(int chave) {
+        int no = buscar(chave);
+        return no == NULO ? null : (V) pool.getValor(no);
+    }
+
+    // Verifica se a chave está na árvore
+    public boolean contem(int chave) {
+        return buscar(chave) != NULO;
+    }
+
+    private int buscar(int chave) {
+        int no = raiz;
+        while (no != NULO) {
+            int c = pool.getChave(no);
+            if (chave == c) {
+                return no;
+            }
+            no = chave < c ? pool.getEsquerda(no) : pool.getDireita(no);
+        }
+        return NULO;
+    }
+
+    // Remove a chave e retorna o valor que estava associado a ela, ou null se ela não estiver na árvore
+    @SuppressWarnings("unchecked")
+    public V remover(int chave) {
+        anterior = null;
+        raiz = remover(raiz, chave);
+        V removido = (V) anterior;
+        anterior = null;
+        return removido;
+    }
+
+    private int remover(int no, int chave) {
+        if (no == NULO) {
+            return NULO;
+        }
+        int c = pool.getChave(no);
+        if (chave < c) {
+            pool.setEsquerda(no, remover(pool.getEsquerda(no), chave));
+        } else if (chave > c) {
+            pool.setDireita(no, remover(pool.getDireita(no), chave));
+        } else {
+            anterior = pool.getValor(no);
+            int esquerda = pool.getEsquerda(no);
+            int direita = pool.getDireita(no);
+            if (esquerda == NULO || direita == NULO) {
+                // No máximo um filho: ele ocupa o lugar do nó removido
+                pool.liberar(no);
+                return esquerda != NULO ? esquerda : direita;
+            }
+            // Dois filhos: o sucessor (menor da direita) é copiado para cá e retirado da direita
+            int sucessor = direita;
+            while (pool.getEsquerda(sucessor) != NULO) {
+                sucessor = pool.getEsquerda(sucessor);
+            }
+            pool.setChave(no, pool.getChave(sucessor));
+            pool.setValor(no, pool.getValor(sucessor));
+            pool.setDireita(no, removerMenor(direita));
+        }
+        pool.atualizar(no);
+        return pool.balancear(no);
+    }
+
+    // Retira o menor nó da subárvore e retorna a nova raiz dela
+    private int removerMenor(int no) {
+        int esquerda = pool.getEsquerda(no);
+        if (esquerda == NULO) {
+            int direita = pool.getDireita(no);
+            pool.liberar(no);
+            return direita;
+        }
+        pool.setEsquerda(no, removerMenor(esquerda));
+        pool.atualizar(no);
+        return pool.balancear(no);
+    }
+
+    // Renumera os nós na ordem das chaves, como ArvoreAVLCompacta.compactar()
+    public void compactar() {
+        raiz = pool.compactar(raiz);
+    }
+
+    // Quantidade de chaves na árvore
+    public int tamanho() {
+        return pool.quantidade();
+    }
+
+    // Altura da árvore: 0 só com a raiz e -1 se estiver vazia
+    public int altura() {
+        return pool.altura(raiz);
+    }
+
+    // Iterador dos valores em ordem crescente de chave
+    public Iterator<V> valores() {
+        return pool.emOrdem(raiz, false);
+    }
+
+    // Iterador dos valores em ordem decrescente de chave
+    public Iterator<V> valoresReversos() {
+        return pool.emOrdem(raiz, true);
+    }
+
+    // Iterador dos valores em nível, da raiz para as folhas
+    public Iterator<V> valoresEmNivel() {
+        return pool.emNivel(raiz);
+    }
+}
@@ -0,0 +1,236 @@
+package lib;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicReference;
+
+/* Árvore AVL persistente: os nós nunca são alterados depois de criados.
+ *
+ * adicionar e remover copiam só os O(log n) nós do caminho da raiz até o ponto alterado
+ * (e os envolvidos em rotações), reaproveitando todo o resto, e publicam a nova raiz
+ * atomicamente. Se outro escritor publicar antes, a operação é refeita sobre a raiz nova.
+ *
+ * Quem leu uma raiz enxerga aquela versão para sempre, então snapshot() custa O(1) e
+ * caminhamentos, iteradores ou uma gravação em segundo plano feitos sobre ele não
+ * travam os escritores nem veem resultados pela metade.
+ */
+public class ArvoreAVLPersistente<T> implements IArvoreBinaria<T> {
+
+    // Nó imutável: altura e tamanho são calculados uma vez, na criação
+    private static final class NoPersistente<T> {
+        final T valor;
+        final NoPersistente<T> esquerda;
+        final NoPersistente<T> direita;
+        final int altura;
+        final int tamanho;
+
+        NoPersistente(T valor, NoPersistente<T> esquerda, NoPersistente<T> direita) {
+            this.valor = valor;
+            this.esquerda = esquerda;
+            this.direita = direita;
+            this.altura = Math.max(altura(esquerda), altura(direita)) + 1;
+            this.tamanho = tamanho(esquerda) + tamanho(direita) + 1;
+        }
+
+        static int altura(NoPersistente<?> no) {
+            return no == null ? -1 : no.altura;
+        }
+
+        static int tamanho(NoPersistente<?> no) {
+            return no == null ? 0 : no.tamanho;
+        }
+    }
+
+    private final Comparator<T> comparador;
+    private final AtomicReference<NoPersistente<T>> raiz;
+
+    public ArvoreAVLPersistente(Comparator<T> comparador) {
+        this(comparador, null);
+    }
+
+    private ArvoreAVLPersistente(Comparator<T> comparador, NoPersistente<T> raiz) {
+        this.comparador = comparador;
+        this.raiz = new AtomicReference<>(raiz);
+    }
+
+    /* Retorna, em O(1), uma árvore com o conteúdo atual. Ela compartilha todos os nós com esta,
+     * mas as escritas feitas em uma não aparecem na outra
+     */
+    public ArvoreAVLPersistente<T> snapshot() {
+        return new ArvoreAVLPersistente<>(comparador, raiz.get());
+    }
+
+    @Override
+    public void adicionar(T novoValor) {
+        while (true) {
+            NoPersistente<T> atual = raiz.get();
+            if (raiz.compareAndSet(atual, inserir(atual, novoValor))) {
+                return;
+            }
+        }
+    }
+
+    // Retorna uma cópia da subárvore com o valor inserido; iguais vão para a direita, como na ArvoreAVL
+    private NoPersistente<T> inserir(NoPersistente<T> no, T valor) {
+        if (no == null) {
+            return new NoPersistente<>(valor, null, null);
+        }
+        if (comparador.compare(valor, no.valor) < 0) {
+            return balancear(no.valor, inserir(no.esquerda, valor), no.direita);
+        }
+        return balancear(no.valor, no.esquerda, inserir(no.direita, valor));
+    }
+
+    @Override
+    public T remover(T valor) {
+        while (true) {
+            NoPersistente<T> atual = raiz.get();
+            // Posição 0 recebe o valor removido por esta tentativa
+            Object[] removido = new Object[1];
+            NoPersistente<T> nova = remover(atual, valor, removido);
+            if (removido[0] == null) {
+                return null;
+            }
+            if (raiz.compareAndSet(atual, nova)) {
+                @SuppressWarnings("unchecked")
+                T resultado = (T) removido[0];
+                return resultado;
+            }
+        }
+    }
+
+    // Retorna uma cópia da subárvore sem o valor; se ele não existir, retorna a própria subárvore
+    private NoPersistente<T> remover(NoPersistente<T> no, T valor, Object[] removido) {
+        if (no == null) {
+            return null;
+        }
+        int comp = comparador.compare(valor, no.valor);
+        if (comp < 0) {
+            NoPersistente<T> esquerda = remover(no.esquerda, valor, removido);
+            return esquerda == no.esquerda ? no : balancear(no.valor, esquerda, no.direita);
+        } else if (comp > 0) {
+            NoPersistente<T> direita = remover(no.direita, valor, removido);
+            return direita == no.direita ? no : balancear(no.valor, no.esquerda, direita);
+        }
+        removido[0] = no.valor;
+        if (no.esquerda == null) {
+            return no.direita;
+        }
+        if (no.direita == null) {
+            return no.esquerda;
+        }
+        // Dois filhos: o sucessor (menor da direita) ocupa o lugar do nó
+        NoPersistente<T> sucessor = no.direita;
+        while (sucessor.esquerda != null) {
+            sucessor = sucessor.esquerda;
+        }
+        return balancear(sucessor.valor, no.esquerda, removerMenor(no.direita));
+    }
+
+    private NoPersistente<T> removerMenor(NoPersistente<T> no) {
+        if (no.esquerda == null) {
+            return no.direita;
+        }
+        return balancear(no.valor, removerMenor(no.esquerda), no.direita);
+    }
+
+    /* Cria o nó (valor, esquerda, direita), fazendo as rotações simples ou duplas da ArvoreAVL
+     * quando as alturas dos filhos diferem em mais de um. As rotações criam nós novos
+     */
+    private NoPersistente<T> balancear(T valor, NoPersistente<T> esquerda, NoPersistente<T> direita) {
+        int alturaE = NoPersistente.altura(esquerda);
+        int alturaD = NoPersistente.altura(direita);
+        if (alturaD - alturaE > 1) {
+            if (NoPersistente.altura(direita.esquerda) > NoPersistente.altura(direita.direita)) {
+                // Rotação dupla direita-esquerda
+                NoPersistente<T> meio = direita.esquerda;
+                return new NoPersistente<>(meio.valor,
+                        new NoPersistente<>(valor, esquerda, meio.esquerda),
+                        new NoPersistente<>(direita.valor, meio.direita, direita.direita));
+            }
+            // Rotação simples à esquerda
+            return new NoPersistente<>(direita.valor,
+                    new NoPersistente<>(valor, esquerda, direita.esquerda), direita.direita);
+        } else if (alturaE - alturaD > 1) {
+            if (NoPersistente.altura(esquerda.direita) > NoPersistente.altura(esquerda.esquerda)) {
+                // Rotação dupla esquerda-direita
+                NoPersistente<T> meio = esquerda.direita;
+                return new NoPersistente<>(meio.valor,
+                        new NoPersistente<>(esquerda.valor, esquerda.esquerda, meio.esquerda),
+                        new NoPersistente<>(valor, meio.direita, direita));
+            }
+            // Rotação simples à direita
+            return new NoPersistente<>(esquerda.valor, esquerda.esquerda,
+                    new NoPersistente<>(valor, esquerda.direita, direita));
+        }
+        return new NoPersistente<>(valor, esquerda, direita);
+    }
+
+    @Override
+    public T pesquisar(T valor) {
+        NoPersistente<T> no = raiz.get();
+        while (no != null) {
+            int comp = comparador.compare(valor, no.valor);
+            if (comp == 0) {
+                return no.valor;
+            }
+            no = comp < 0 ? no.esquerda : no.direita;
+        }
+        return null;
+    }
+
+    // O comparador não segue a ordem da árvore, então a versão atual é varrida até o primeiro igual
+    @Override
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public T pesquisar(T valor, Comparator comparador) {
+        for (T atual : this) {
+            if (comparador.compare(valor, atual) == 0) {
+                return atual;
+            }
+        }
+        return null;
+    }
+
+    // Árvore só com a raiz tem altura 0 e árvore vazia, -1
+    @Override
+    public int altura() {
+        return NoPersistente.altura(raiz.get());
+    }
+
+    @Override
+    public int quantidadeNos() {
+        return NoPersistente.tamanho(raiz.get());
+    }
+
+    // Os iteradores fixam a versão atual da árvore ao serem criados
+    @Override
+    public Iterator<T> iterator() {
+        return emOrdem(raiz.get(), false);
+    }
+
+    @Override
+    public Iterator<T> iteradorReverso() {
+        return emOrdem(raiz.get(), true);
+    }
+
+    @Override
+    public Iterator<T> iteradorEmNivel() {
+        return new IteradorEmNivel<NoPersistente<T>, T>(raiz.get(), no -> no.esquerda, no -> no.direita,
+                no -> no.valor);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        NoPersistente<T> versao = raiz.get();
+        return Spliterators.spliterator(emOrdem(versao, false), NoPersistente.tamanho(versao),
+                Spliterator.ORDERED | Spliterator.IMMUTABLE);
+    }
+
+    // Caminhamento em ordem (ou reverso) de uma versão, com pilha do tamanho da altura
+    private static <T> Iterator<T> emOrdem(NoPersistente<T> versao, boolean reverso) {
+        return new IteradorEmOrdem<NoPersistente<T>, T>(versao, reverso, no -> no.esquerda, no -> no.direita,
+                no -> no.valor);
+    }
+}
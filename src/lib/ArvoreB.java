@@ -0,0 +1,566 @@
+package lib;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/* Árvore B+ com ordem (fan-out) configurável.
+ *
+ * Cada nó guarda até `ordem` chaves em um vetor contíguo, então uma pesquisa visita
+ * log_ordem(n) nós em vez dos log2(n) de uma árvore binária, e a busca dentro do nó é uma
+ * busca binária sobre um vetor. Os valores ficam todos nas folhas; os nós internos guardam
+ * só separadores. As folhas são encadeadas nos dois sentidos, então o caminhamento em ordem
+ * e as consultas por intervalo andam de folha em folha, sequencialmente.
+ *
+ * Como nas outras árvores, valores iguais podem se repetir (vão para a direita).
+ * Invariante dos separadores: as chaves do filho i são <= chaves[i] <= as chaves do filho i+1.
+ */
+public class ArvoreB<T> implements IArvoreBinaria<T> {
+
+    public static final int ORDEM_PADRAO = 64;
+
+    private static class NoB {
+        // Uma posição a mais para o nó poder estourar antes de ser dividido
+        final Object[] chaves;
+        int n;
+
+        NoB(int ordem) {
+            chaves = new Object[ordem + 1];
+        }
+    }
+
+    private static final class Interno extends NoB {
+        final NoB[] filhos;
+
+        Interno(int ordem) {
+            super(ordem);
+            filhos = new NoB[ordem + 2];
+        }
+    }
+
+    private static final class Folha extends NoB {
+        Folha anterior;
+        Folha proxima;
+
+        Folha(int ordem) {
+            super(ordem);
+        }
+    }
+
+    private final Comparator<T> comparador;
+    private final int ordem;
+    // Mínimo de chaves em um nó que não é a raiz
+    private final int minimo;
+    private NoB raiz;
+    private int quantidade = 0;
+    private int altura = 0;
+    // Separador que sobe para o pai quando um nó é dividido
+    private T promovido;
+
+    public ArvoreB(Comparator<T> comparador) {
+        this(comparador, ORDEM_PADRAO);
+    }
+
+    public ArvoreB(Comparator<T> comparador, int ordem) {
+        if (ordem < 3) {
+            throw new IllegalArgumentException("A ordem da árvore B deve ser pelo menos 3");
+        }
+        this.comparador = comparador;
+        this.ordem = ordem;
+        this.minimo = ordem / 2;
+        this.raiz = new Folha(ordem);
+    }
+
+    public int getOrdem() {
+        return ordem;
+    }
+
+    @Override
+    public void adicionar(T novoValor) {
+        NoB novo = inserir(raiz, novoValor);
+        if (novo != null) {
+            // A raiz foi dividida: a árvore cresce um nível para cima
+            Interno novaRaiz = new Interno(ordem);
+            novaRaiz.chaves[0] = promovido;
+            novaRaiz.filhos[0] = raiz;
+            novaRaiz.filhos[1] = novo;
+            novaRaiz.n = 1;
+            raiz = novaRaiz;
+            altura++;
+        }
+        promovido = null;
+        quantidade++;
+    }
+
+    // Insere o valor na subárvore; se o nó for dividido, retorna o novo irmão da direita e deixa o separador em `promovido`
+    private NoB inserir(NoB no, T valor) {
+        int i = limiteSuperior(no, valor);
+        if (no instanceof Folha) {
+            inserirChave(no, i, valor);
+            return no.n > ordem ? dividirFolha((Folha) no) : null;
+        }
+        Interno interno = (Interno) no;
+        NoB novo = inserir(interno.filhos[i], valor);
+        if (novo == null) {
+            return null;
+        }
+        inserirChave(interno, i, promovido);
+        System.arraycopy(interno.filhos, i + 1, interno.filhos, i + 2, interno.n - i - 1);
+        interno.filhos[i + 1] = novo;
+        return interno.n > ordem ? dividirInterno(interno) : null;
+    }
+
+    private Folha dividirFolha(Folha esquerda) {
+        Folha direita = new Folha(ordem);
+        int meio = esquerda.n / 2;
+        direita.n = esquerda.n - meio;
+        System.arraycopy(esquerda.chaves, meio, direita.chaves, 0, direita.n);
+        limpar(esquerda.chaves, meio, esquerda.n);
+        esquerda.n = meio;
+        direita.proxima = esquerda.proxima;
+        if (direita.proxima != null) {
+            direita.proxima.anterior = direita;
+        }
+        direita.anterior = esquerda;
+        esquerda.proxima = direita;
+        promovido = chave(direita, 0);
+        return direita;
+    }
+
+    // A chave do meio sobe para o pai; as da direita dela vão para o novo nó
+    private Interno dividirInterno(Interno esquerda) {
+        Interno direita = new Interno(ordem);
+        int meio = esquerda.n / 2;
+        direita.n = esquerda.n - meio - 1;
+        System.arraycopy(esquerda.chaves, meio + 1, direita.chaves, 0, direita.n);
+        System.arraycopy(esquerda.filhos, meio + 1, direita.filhos, 0, direita.n + 1);
+        promovido = chave(esquerda, meio);
+        limpar(esquerda.chaves, meio, esquerda.n);
+        limpar(esquerda.filhos, meio + 1, esquerda.n + 1);
+        esquerda.n = meio;
+        return direita;
+    }
+
+    @Override
+    public T pesquisar(T valor) {
+        NoB no = raiz;
+        while (no instanceof Interno) {
+            no = ((Interno) no).filhos[limiteInferior(no, valor)];
+        }
+        // Iguais ao valor podem ter começado na folha seguinte
+        Folha folha = (Folha) no;
+        int i = limiteInferior(folha, valor);
+        if (i == folha.n && folha.proxima != null) {
+            folha = folha.proxima;
+            i = 0;
+        }
+        if (i < folha.n && comparador.compare(valor, chave(folha, i)) == 0) {
+            return chave(folha, i);
+        }
+        return null;
+    }
+
+    // O comparador não segue a ordem da árvore, então as folhas são varridas até o primeiro igual
+    @Override
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public T pesquisar(T valor, Comparator comparador) {
+        for (Folha folha = primeiraFolha(); folha != null; folha = folha.proxima) {
+            for (int i = 0; i < folha.n; i++) {
+                if (comparador.compare(valor, folha.chaves[i]) == 0) {
+                    return chave(folha, i);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public T remover(T valor) {
+        T removido = remover(raiz, valor);
+        if (removido != null) {
+            quantidade--;
+            if (raiz instanceof Interno && raiz.n == 0) {
+                // A raiz ficou com um único filho: a árvore perde um nível
+                raiz = ((Interno) raiz).filhos[0];
+                altura--;
+            }
+        }
+        return removido;
+    }
+
+    private T remover(NoB no, T valor) {
+        int i = limiteInferior(no, valor);
+        if (no instanceof Folha) {
+            if (i < no.n && comparador.compare(valor, chave(no, i)) == 0) {
+                T removido = chave(no, i);
+                removerChave(no, i);
+                return removido;
+            }
+            return null;
+        }
+        Interno interno = (Interno) no;
+        while (true) {
+            T removido = remover(interno.filhos[i], valor);
+            if (removido != null) {
+                if (interno.filhos[i].n < minimo) {
+                    corrigir(interno, i);
+                }
+                return removido;
+            }
+            // Com valores repetidos, os iguais podem continuar no próximo filho
+            if (i < interno.n && comparador.compare(valor, chave(interno, i)) == 0) {
+                i++;
+            } else {
+                return null;
+            }
+        }
+    }
+
+    // O filho i ficou abaixo do mínimo: pega uma chave de um irmão ou junta-se a ele
+    private void corrigir(Interno pai, int i) {
+        if (i > 0 && pai.filhos[i - 1].n > minimo) {
+            emprestarDaEsquerda(pai, i);
+        } else if (i < pai.n && pai.filhos[i + 1].n > minimo) {
+            emprestarDaDireita(pai, i);
+        } else if (i > 0) {
+            juntar(pai, i - 1);
+        } else {
+            juntar(pai, i);
+        }
+    }
+
+    private void emprestarDaEsquerda(Interno pai, int i) {
+        NoB esquerda = pai.filhos[i - 1];
+        NoB direita = pai.filhos[i];
+        if (direita instanceof Folha) {
+            inserirChave(direita, 0, chave(esquerda, esquerda.n - 1));
+            removerChave(esquerda, esquerda.n - 1);
+            pai.chaves[i - 1] = direita.chaves[0];
+        } else {
+            Interno e = (Interno) esquerda;
+            Interno d = (Interno) direita;
+            System.arraycopy(d.filhos, 0, d.filhos, 1, d.n + 1);
+            d.filhos[0] = e.filhos[e.n];
+            e.filhos[e.n] = null;
+            inserirChave(d, 0, chave(pai, i - 1));
+            pai.chaves[i - 1] = e.chaves[e.n - 1];
+            removerChave(e, e.n - 1);
+        }
+    }
+
+    private void emprestarDaDireita(Interno pai, int i) {
+        NoB esquerda = pai.filhos[i];
+        NoB direita = pai.filhos[i + 1];
+        if (esquerda instanceof Folha) {
+            esquerda.chaves[esquerda.n++] = direita.chaves[0];
+            removerChave(direita, 0);
+            pai.chaves[i] = direita.chaves[0];
+        } else {
+            Interno e = (Interno) esquerda;
+            Interno d = (Interno) direita;
+            e.chaves[e.n] = pai.chaves[i];
+            e.filhos[e.n + 1] = d.filhos[0];
+            e.n++;
+            pai.chaves[i] = d.chaves[0];
+            System.arraycopy(d.filhos, 1, d.filhos, 0, d.n);
+            d.filhos[d.n] = null;
+            removerChave(d, 0);
+        }
+    }
+
+    // Junta o filho i+1 ao filho i e retira do pai o separador entre eles
+    private void juntar(Interno pai, int i) {
+        NoB esquerda = pai.filhos[i];
+        NoB direita = pai.filhos[i + 1];
+        if (esquerda instanceof Folha) {
+            Folha e = (Folha) esquerda;
+            Folha d = (Folha) direita;
+            System.arraycopy(d.chaves, 0, e.chaves, e.n, d.n);
+            e.n += d.n;
+            e.proxima = d.proxima;
+            if (e.proxima != null) {
+                e.proxima.anterior = e;
+            }
+        } else {
+            Interno e = (Interno) esquerda;
+            Interno d = (Interno) direita;
+            e.chaves[e.n] = pai.chaves[i];
+            System.arraycopy(d.chaves, 0, e.chaves, e.n + 1, d.n);
+            System.arraycopy(d.filhos, 0, e.filhos, e.n + 1, d.n + 1);
+            e.n += d.n + 1;
+        }
+        System.arraycopy(pai.filhos, i + 2, pai.filhos, i + 1, pai.n - i - 1);
+        pai.filhos[pai.n] = null;
+        removerChave(pai, i);
+    }
+
+    /* Retorna um iterador, em ordem, dos valores entre min e max (inclusive).
+     * Depois de achar a primeira folha, só segue o encadeamento entre folhas
+     */
+    public Iterator<T> intervalo(T min, T max) {
+        NoB no = raiz;
+        while (no instanceof Interno) {
+            no = ((Interno) no).filhos[limiteInferior(no, min)];
+        }
+        Folha folha = (Folha) no;
+        return new IteradorFolhas(folha, limiteInferior(folha, min), false) {
+            @Override
+            public boolean hasNext() {
+                return super.hasNext() && comparador.compare(espiar(), max) <= 0;
+            }
+        };
+    }
+
+    // Árvore só com a raiz tem altura 0 e árvore vazia, -1; a altura conta níveis de nós, não de valores
+    @Override
+    public int altura() {
+        return quantidade == 0 ? -1 : altura;
+    }
+
+    // Quantidade de valores armazenados (cada nó da árvore B guarda vários)
+    @Override
+    public int quantidadeNos() {
+        return quantidade;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new IteradorFolhas(primeiraFolha(), 0, false);
+    }
+
+    @Override
+    public Iterator<T> iteradorReverso() {
+        Folha ultima = ultimaFolha();
+        return new IteradorFolhas(ultima, ultima.n - 1, true);
+    }
+
+    /* Percorre os nós nível a nível a partir da raiz, sem usar o encadeamento das folhas. Os
+     * separadores dos nós internos são cópias e podem até já ter sido removidos, então só as chaves
+     * das folhas são devolvidas, na ordem em que as folhas são alcançadas
+     */
+    @Override
+    public Iterator<T> iteradorEmNivel() {
+        return new IteradorNiveis();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), quantidade, Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    private Folha primeiraFolha() {
+        NoB no = raiz;
+        while (no instanceof Interno) {
+            no = ((Interno) no).filhos[0];
+        }
+        return (Folha) no;
+    }
+
+    private Folha ultimaFolha() {
+        NoB no = raiz;
+        while (no instanceof Interno) {
+            no = ((Interno) no).filhos[no.n];
+        }
+        return (Folha) no;
+    }
+
+    // Primeira posição cuja chave é >= valor
+    private int limiteInferior(NoB no, T valor) {
+        int inicio = 0;
+        int fim = no.n;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (comparador.compare(chave(no, meio), valor) < 0) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        return inicio;
+    }
+
+    // Primeira posição cuja chave é > valor
+    private int limiteSuperior(NoB no, T valor) {
+        int inicio = 0;
+        int fim = no.n;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (comparador.compare(chave(no, meio), valor) <= 0) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        return inicio;
+    }
+
+    private static void inserirChave(NoB no, int i, Object chave) {
+        System.arraycopy(no.chaves, i, no.chaves, i + 1, no.n - i);
+        no.chaves[i] = chave;
+        no.n++;
+    }
+
+    private static void removerChave(NoB no, int i) {
+        System.arraycopy(no.chaves, i + 1, no.chaves, i, no.n - i - 1);
+        no.chaves[--no.n] = null;
+    }
+
+    // Solta as referências das posições [inicio, fim) para o coletor
+    private static void limpar(Object[] vetor, int inicio, int fim) {
+        for (int i = inicio; i < fim; i++) {
+            vetor[i] = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T chave(NoB no, int i) {
+        return (T) no.chaves[i];
+    }
+
+    /* Confere as invariantes da árvore e lança IllegalStateException na primeira violada: ocupação
+     * dos nós (só a raiz pode ter menos que o mínimo), chaves em ordem dentro de cada nó e entre os
+     * separadores do pai, todas as folhas na mesma profundidade, encadeamento das folhas na ordem
+     * e quantidade. Usado pelos testes
+     */
+    void verificar() {
+        List<Folha> folhas = new ArrayList<>();
+        verificar(raiz, 0, null, null, folhas);
+        Folha anterior = null;
+        int total = 0;
+        for (Folha folha : folhas) {
+            if (folha.anterior != anterior || (anterior != null && anterior.proxima != folha)) {
+                throw new IllegalStateException("Encadeamento das folhas fora da ordem");
+            }
+            total += folha.n;
+            anterior = folha;
+        }
+        if (anterior.proxima != null) {
+            throw new IllegalStateException("A última folha aponta para uma próxima");
+        }
+        if (total != quantidade) {
+            throw new IllegalStateException("Quantidade " + quantidade + " com " + total + " chaves nas folhas");
+        }
+    }
+
+    // As chaves da subárvore devem ficar entre min e max (inclusive; null é sem limite)
+    private void verificar(NoB no, int profundidade, T min, T max, List<Folha> folhas) {
+        if (no != raiz && no.n < minimo || no.n > ordem) {
+            throw new IllegalStateException("Nó com " + no.n + " chaves, fora de [" + minimo + ", " + ordem + "]");
+        }
+        for (int i = 0; i < no.n; i++) {
+            T atual = chave(no, i);
+            if ((i > 0 && comparador.compare(chave(no, i - 1), atual) > 0)
+                    || (min != null && comparador.compare(atual, min) < 0)
+                    || (max != null && comparador.compare(atual, max) > 0)) {
+                throw new IllegalStateException("Chave fora de ordem: " + atual);
+            }
+        }
+        if (no instanceof Folha) {
+            if (profundidade != altura) {
+                throw new IllegalStateException("Folha na profundidade " + profundidade + " com altura " + altura);
+            }
+            folhas.add((Folha) no);
+            return;
+        }
+        Interno interno = (Interno) no;
+        for (int i = 0; i <= interno.n; i++) {
+            verificar(interno.filhos[i], profundidade + 1, i == 0 ? min : chave(interno, i - 1),
+                    i == interno.n ? max : chave(interno, i), folhas);
+        }
+    }
+
+    // Anda pelas folhas encadeadas a partir de (folha, posição), para a frente ou para trás
+    private class IteradorFolhas implements Iterator<T> {
+        private Folha folha;
+        private int posicao;
+        private final boolean reverso;
+
+        IteradorFolhas(Folha folha, int posicao, boolean reverso) {
+            this.folha = folha;
+            this.posicao = posicao;
+            this.reverso = reverso;
+            ajustar();
+        }
+
+        // Pula para a folha vizinha quando a posição sai da folha atual
+        private void ajustar() {
+            while (folha != null && (posicao < 0 || posicao >= folha.n)) {
+                if (reverso) {
+                    folha = folha.anterior;
+                    posicao = folha == null ? 0 : folha.n - 1;
+                } else {
+                    folha = folha.proxima;
+                    posicao = 0;
+                }
+            }
+        }
+
+        T espiar() {
+            return chave(folha, posicao);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return folha != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T valor = chave(folha, posicao);
+            posicao += reverso ? -1 : 1;
+            ajustar();
+            return valor;
+        }
+    }
+
+    // Fila de nós do caminhamento em nível; um nó interno é trocado pelos filhos ao sair da fila
+    private class IteradorNiveis implements Iterator<T> {
+        private final ArrayDeque<NoB> fila = new ArrayDeque<>();
+        private Folha folha;
+        private int posicao;
+
+        IteradorNiveis() {
+            fila.add(raiz);
+            avancar();
+        }
+
+        // Desce pela fila até a próxima folha com chaves ainda não devolvidas
+        private void avancar() {
+            while ((folha == null || posicao >= folha.n) && !fila.isEmpty()) {
+                NoB no = fila.poll();
+                if (no instanceof Interno) {
+                    Interno interno = (Interno) no;
+                    for (int i = 0; i <= interno.n; i++) {
+                        fila.add(interno.filhos[i]);
+                    }
+                } else {
+                    folha = (Folha) no;
+                    posicao = 0;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return folha != null && posicao < folha.n;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T valor = chave(folha, posicao++);
+            avancar();
+            return valor;
+        }
+    }
+}
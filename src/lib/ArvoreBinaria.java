@@ -1,96 +1,513 @@
 package lib;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
-import java.util.Stack;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Predicate;
 
-// A classe ArvoreBinaria implementa a interface IArvoreBinaria
-public class ArvoreBinaria<T> implements IArvoreBinaria<T> {
+// A classe ArvoreBinaria implementa a interface IArvoreOrdenada (uma IArvoreBinaria com rank e select)
+public class ArvoreBinaria<T> implements IArvoreOrdenada<T> {
 
     // A raiz da árvore binária
     protected No<T> raiz = null;
     // O comparador para comparar os elementos da árvore
     protected Comparator<T> comparador;
+    // Índices secundários, um por comparador registrado. Fica null enquanto nenhum for registrado
+    private Map<Comparator<T>, ArvoreAVL<T>> indices = null;
+    // Subárvores com mais nós que este limiar são varridas em paralelo (fork/join) nas buscas sem índice
+    private int limiarParalelo = Integer.MAX_VALUE;
+    // Diário onde adicionar/remover são registrados. Fica null enquanto a árvore não for aberta por um DiarioArvore
+    private DiarioArvore<T> diario = null;
+    // Métricas das operações. Fica null, e nada é medido, enquanto ativarMetricas() não for chamado
+    MetricasArvore metricas = null;
+    /* Conta as alterações que podem ter soltado nós da árvore (remoções e recargas), para que um
+     * cursor saiba se o nó que guarda ainda está nela
+     */
+    int remocoes = 0;
+    // Fator alfa do modo bode expiatório (0 enquanto ele estiver desligado) e o maior tamanho desde a última reconstrução total
+    private double alfa = 0;
+    private int maiorTamanho = 0;
 
     // Construtor da árvore binária
     public ArvoreBinaria(Comparator<T> comp) {
         comparador = comp;
     }
 
-    // Método para adicionar um novo valor à árvore
-    @Override
-    public void adicionar(T novoValor) {
-        No<T> novoNo = new No<>(novoValor);
+    // Constrói, em O(n), uma árvore perfeitamente balanceada a partir de valores já ordenados pelo comparador
+    public static <T> ArvoreBinaria<T> construirDeOrdenado(Comparator<T> comp, List<T> valores) {
+        ArvoreBinaria<T> arv = new ArvoreBinaria<>(comp);
+        arv.carregarOrdenado(valores);
+        return arv;
+    }
 
-        // verifica se a árvore está vazia
-        if (this.raiz == null){
-            // Se estiver vazia ele vai define o novo nó como raiz
-            this.raiz = novoNo;
-        }else {
-            this.raiz = addRecursao(this.raiz, novoNo);
+    // Versão de construirDeOrdenado para vetores
+    public static <T> ArvoreBinaria<T> construirDeOrdenado(Comparator<T> comp, T[] valores) {
+        return construirDeOrdenado(comp, Arrays.asList(valores));
+    }
+
+    /* Substitui o conteúdo da árvore pelos valores ordenados, ligando os nós diretamente.
+     * Confere a ordem com n-1 comparações e lança IllegalArgumentException se ela não for respeitada
+     */
+    protected void carregarOrdenado(List<T> valores) {
+        List<No<T>> nos = new ArrayList<>(valores.size());
+        T anterior = null;
+        for (T valor : valores){
+            if (!nos.isEmpty() && comparador.compare(anterior, valor) > 0){
+                throw new IllegalArgumentException("Os valores não estão ordenados pelo comparador da árvore");
+            }
+            nos.add(criarNo(valor));
+            anterior = valor;
+        }
+        this.raiz = montarBalanceada(nos, 0, nos.size() - 1);
+        soltarRaiz();
+        remocoes++;
+    }
+
+    /* Liga os nós de nos[inicio..fim], já em ordem, como uma subárvore perfeitamente balanceada
+     * e retorna sua raiz. Cada nó é visitado uma vez e sai com altura e tamanho corretos,
+     * então o resultado também é uma AVL válida. A recursão tem profundidade O(log n)
+     */
+    protected static <T> No<T> montarBalanceada(List<No<T>> nos, int inicio, int fim) {
+        if (inicio > fim){
+            return null;
         }
+        int meio = (inicio + fim) >>> 1;
+        No<T> no = nos.get(meio);
+        no.setFilhoEsquerda(montarBalanceada(nos, inicio, meio - 1));
+        no.setFilhoDireita(montarBalanceada(nos, meio + 1, fim));
+        no.atualizarAltura();
+        no.atualizarTamanho();
+        return no;
     }
-    protected No<T> addRecursao(No<T> atual, No<T> novo){
-        //Se o novo elemento for menor do que o atual vou para a esquerda
-        int comp = this.comparador.compare(novo.getValor(), atual.getValor());
 
-        if(comp < 0){
-            if(atual.getFilhoEsquerda() == null){
-                atual.setFilhoEsquerda(novo);
-            }else{
-                atual.setFilhoEsquerda(addRecursao(atual.getFilhoEsquerda(), novo));
+    // Nós da subárvore em ordem, com pilha explícita: a subárvore pode ser degenerada
+    protected static <T> List<No<T>> nosEmOrdem(No<T> subarvore) {
+        List<No<T>> nos = new ArrayList<>(No.tamanhoArmazenado(subarvore));
+        ArrayDeque<No<T>> pilha = new ArrayDeque<>();
+        No<T> atual = subarvore;
+        while (atual != null || !pilha.isEmpty()){
+            while (atual != null){
+                pilha.push(atual);
+                atual = atual.getFilhoEsquerda();
             }
-        }else {
-            if(atual.getFilhoDireita() == null) {
-                atual.setFilhoDireita(novo);
-            }else {
-                atual.setFilhoDireita(addRecursao(atual.getFilhoDireita(), novo));
+            atual = pilha.pop();
+            nos.add(atual);
+            atual = atual.getFilhoDireita();
+        }
+        return nos;
+    }
+
+    /* Troca a estrutura da árvore por uma já montada (por exemplo, lida de um arquivo pelo ArquivoArvore),
+     * cujos nós foram criados por criarNo e já têm altura e tamanho calculados.
+     * Subclasses com informação extra nos nós (como a cor, na rubro-negra) podem sobrescrever para ajustá-la
+     */
+    protected void carregarEstrutura(No<T> novaRaiz) {
+        this.raiz = novaRaiz;
+        soltarRaiz();
+        remocoes++;
+        // mantém os índices secundários em dia
+        if (indices != null){
+            List<T> valores = new ArrayList<>(quantidadeNos());
+            forEach(valores::add);
+            for (ArvoreAVL<T> indice : indices.values()){
+                indice.raiz = null;
+                indice.adicionarTodos(valores);
             }
         }
+    }
+
+    // Usado pelo DiarioArvore ao abrir e ao fechar
+    void setDiario(DiarioArvore<T> diario) {
+        this.diario = diario;
+    }
+
+    DiarioArvore<T> getDiario() {
+        return diario;
+    }
+
+    /* Passa a contar comparações, nós visitados, rotações e latências (veja MetricasArvore),
+     * começando do zero. Desligadas, as métricas custam só um teste de null por operação
+     */
+    public void ativarMetricas() {
+        desativarMetricas();
+        metricas = new MetricasArvore();
+        comparador = metricas.contar(comparador);
+    }
+
+    // Para de medir e descarta as métricas
+    public void desativarMetricas() {
+        if (metricas != null){
+            comparador = MetricasArvore.original(comparador);
+            metricas = null;
+        }
+    }
 
-        return atual;
+    // Retrato das métricas até aqui, com a altura e o tamanho atuais, ou null se elas não estiverem ativas
+    public MetricasArvore.Retrato getMetricas() {
+        return metricas == null ? null : metricas.retrato(altura(), quantidadeNos());
     }
 
+    /* Chamados em volta das operações em lote: o que elas fazem por dentro (como remover, elemento a
+     * elemento) não entra nas contagens por operação das métricas, só nas comparações e rotações
+     */
+    protected MetricasArvore iniciarLote() {
+        if (metricas != null){
+            metricas.iniciarLote();
+        }
+        return metricas;
+    }
+
+    protected void terminarLote(MetricasArvore lote) {
+        if (lote != null){
+            lote.terminarLote();
+        }
+    }
+
+    // Método para adicionar um novo valor à árvore
     @Override
-    public T pesquisar(T valor, Comparator comparador) {
-        // Chamando o método recursivo
-        return pesquisarRec(raiz, valor, comparador);
+    public void adicionar(T novoValor) {
+        long inicio = metricas != null ? metricas.iniciar() : 0;
+        // registra no diário antes de alterar a árvore
+        if (diario != null){
+            diario.registrarAdicao(novoValor);
+        }
+        No<T> novoNo = criarNo(novoValor);
+        this.raiz = inserir(this.raiz, novoNo);
+        soltarRaiz();
+        // mantém os índices secundários em dia
+        if (indices != null){
+            for (ArvoreAVL<T> indice : indices.values()){
+                indice.adicionar(novoValor);
+            }
+        }
+        if (metricas != null){
+            metricas.registrar(MetricasArvore.Operacao.ADICIONAR, inicio);
+        }
     }
 
-    // Método recursivo para pesquisar o valor na árvore
-        private T pesquisarRec(No<T> r, T valor, Comparator comp ) {
-            if( r == null) {
-                return null; // / Retorna o valor encontrado na árvore
+    /* Adiciona vários valores de uma vez. O lote é ordenado uma única vez; se ele for grande em relação
+     * à árvore, os nós atuais (em ordem) são intercalados com os novos e a árvore é religada
+     * balanceada em O(n + k). Lotes pequenos são inseridos um a um, já em ordem
+     */
+    public void adicionarTodos(Collection<? extends T> novos) {
+        if (novos.isEmpty()){
+            return;
+        }
+        List<T> ordenados = new ArrayList<>(novos);
+        ordenados.sort(comparador);
+        // registra no diário antes de alterar a árvore; se um registro falhar, só os anteriores entram na árvore
+        RuntimeException falha = null;
+        if (diario != null){
+            for (int j = 0; j < ordenados.size(); j++){
+                try {
+                    diario.registrarAdicao(ordenados.get(j));
+                } catch (RuntimeException e) {
+                    if (j == 0){
+                        throw e;
+                    }
+                    falha = e;
+                    ordenados = ordenados.subList(0, j);
+                    break;
+                }
+            }
+        }
+        int n = quantidadeNos();
+        int k = ordenados.size();
+        // k inserções custam cerca de k*log(n+k); a reconstrução custa n+k
+        int log = 32 - Integer.numberOfLeadingZeros(n + k);
+        if ((long) k * log < n){
+            for (T valor : ordenados){
+                this.raiz = inserir(this.raiz, criarNo(valor));
+            }
+        }else {
+            List<No<T>> nos = new ArrayList<>(n + k);
+            ArrayDeque<No<T>> pilha = new ArrayDeque<>();
+            No<T> atual = raiz;
+            int i = 0;
+            // Caminha em ordem pelos nós atuais, intercalando os novos valores antes de cada um.
+            // Em caso de empate o nó atual vem primeiro, como na inserção comum (iguais vão para a direita)
+            while (atual != null || !pilha.isEmpty()){
+                while (atual != null){
+                    pilha.push(atual);
+                    atual = atual.getFilhoEsquerda();
+                }
+                atual = pilha.pop();
+                while (i < k && comparador.compare(ordenados.get(i), atual.getValor()) < 0){
+                    nos.add(criarNo(ordenados.get(i++)));
+                }
+                nos.add(atual);
+                atual = atual.getFilhoDireita();
             }
-            if(comp.compare(valor, r.getValor()) == 0) {
-                return r.getValor(); //Retorna o valor encontrado na árvore
+            while (i < k){
+                nos.add(criarNo(ordenados.get(i++)));
             }
-            else {
-                T rd = pesquisarRec(r.getFilhoDireita(), valor, comp);
-                T re = pesquisarRec(r.getFilhoEsquerda(), valor, comp);
+            this.raiz = montarBalanceada(nos, 0, nos.size() - 1);
+            // no modo bode expiatório, a árvore religada recomeça a conta do maior tamanho
+            if (alfa > 0){
+                maiorTamanho = nos.size();
+            }
+        }
+        soltarRaiz();
+        // mantém os índices secundários em dia
+        if (indices != null){
+            for (ArvoreAVL<T> indice : indices.values()){
+                indice.adicionarTodos(ordenados);
+            }
+        }
+        if (falha != null){
+            throw falha;
+        }
+    }
 
-                // Verificando se o valor foi encontrado em alguma das sub-árvores
-                if( rd != null){
-                    return rd;
+    // A raiz não tem pai: chamado depois de toda alteração que pode ter trocado a raiz
+    private void soltarRaiz() {
+        if (raiz != null){
+            raiz.soltarDoPai();
+        }
+    }
+
+    // Cria o nó que guardará um novo valor; subclasses que precisam de campos extras no nó sobrescrevem
+    protected No<T> criarNo(T valor) {
+        return new No<>(valor);
+    }
+
+    /* Insere o novo nó na subárvore e retorna a raiz resultante.
+     * Na árvore binária a descida é feita em loop, com pilha constante mesmo em árvores
+     * degeneradas, e apenas o link onde o novo nó é pendurado é alterado.
+     * Subclasses que precisam rebalancear (ArvoreAVL) sobrescrevem este método.
+     */
+    protected No<T> inserir(No<T> raiz, No<T> novo){
+        // verifica se a árvore está vazia, nesse caso o novo nó passa a ser a raiz
+        if (raiz == null){
+            return novo;
+        }
+        No<T> atual = raiz;
+        // profundidade do novo nó: quantas arestas ele fica abaixo da raiz
+        int profundidade = 1;
+        while (true) {
+            //O novo nó ficará abaixo do atual, então a subárvore do atual ganha um nó
+            atual.somarTamanho(1);
+            //Se o novo elemento for menor do que o atual vou para a esquerda
+            int comp = this.comparador.compare(novo.getValor(), atual.getValor());
+
+            if(comp < 0){
+                if(atual.getFilhoEsquerda() == null){
+                    atual.setFilhoEsquerda(novo);
+                    break;
                 }
-                else if( re != null){
-                    return re;
+                atual = atual.getFilhoEsquerda();
+            }else {
+                if(atual.getFilhoDireita() == null) {
+                    atual.setFilhoDireita(novo);
+                    break;
                 }
-                else return null;
+                atual = atual.getFilhoDireita();
+            }
+            profundidade++;
+        }
+        // no modo bode expiatório, uma inserção mais funda que log(n)/log(1/alfa) religa a subárvore desbalanceada
+        if (alfa > 0){
+            int n = raiz.getTamanho();
+            if (n > maiorTamanho){
+                maiorTamanho = n;
+            }
+            if (profundidade > Math.log(n) / -Math.log(alfa)){
+                return reconstruirBodeExpiatorio(raiz, novo);
+            }
+        }
+        return raiz;
+    }
+
+    /* Registra um índice secundário para o comparador informado.
+     * O índice é uma ArvoreAVL ordenada pelo comparador e, em caso de empate, pelo comparador
+     * da árvore, para que cada elemento tenha uma posição única e possa ser removido dele.
+     * A partir daqui ele é mantido em adicionar/remover e pesquisar(valor, comparador) com este
+     * mesmo comparador (pelo equals, normalmente a mesma instância) passa a custar O(log n).
+     */
+    public void registrarIndice(Comparator<T> comp) {
+        if (indices == null){
+            indices = new HashMap<>();
+        }
+        if (indices.containsKey(comp)){
+            return;
+        }
+        Comparator<T> ordem = comp.thenComparing(MetricasArvore.original(comparador));
+        ArvoreAVL<T> indice = new ArvoreAVL<>(ordem);
+        // ordena os elementos que já estão na árvore pela ordem do índice e liga os nós de uma vez, em O(n)
+        List<T> valores = new ArrayList<>(quantidadeNos());
+        for (T valor : this){
+            valores.add(valor);
+        }
+        valores.sort(ordem);
+        indice.carregarOrdenado(valores);
+        indices.put(comp, indice);
+    }
+
+    // Remove o índice secundário do comparador; as pesquisas com ele voltam a varrer a árvore
+    public void removerIndice(Comparator<T> comp) {
+        if (indices != null){
+            indices.remove(comp);
+            if (indices.isEmpty()){
+                indices = null;
             }
         }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T pesquisar(T valor, Comparator comparador) {
+        // Se houver um índice para este comparador, desce por ele em O(log n)
+        if (indices != null){
+            ArvoreAVL<T> indice = indices.get(comparador);
+            if (indice != null){
+                return indice.buscar(valor, (Comparator<T>) comparador);
+            }
+        }
+        // Sem índice é preciso varrer a árvore, parando no primeiro elemento igual ao valor
+        List<T> encontrados = VarreduraParalela.filtrar(raiz, limiarParalelo,
+                v -> comparador.compare(valor, v) == 0, true);
+        return encontrados.isEmpty() ? null : encontrados.get(0);
+    }
+
+    // Conta os elementos que satisfazem o predicado, varrendo a árvore (em paralelo acima do limiar)
+    public int contar(Predicate<? super T> predicado) {
+        return VarreduraParalela.contar(raiz, limiarParalelo, predicado);
+    }
+
+    // Retorna, na ordem da árvore, os elementos que satisfazem o predicado (em paralelo acima do limiar)
+    public List<T> filtrar(Predicate<? super T> predicado) {
+        return VarreduraParalela.filtrar(raiz, limiarParalelo, predicado, false);
+    }
+
+    /* Define a partir de quantos nós uma subárvore é dividida entre tarefas fork/join nas varreduras
+     * (pesquisar com comparador sem índice, contar, filtrar e os caminhamentos em ordem e em nível) e a partir
+     * de quantos nós pesquisarLote divide a descida. Integer.MAX_VALUE, o padrão,
+     * mantém tudo na thread que chamou
+     */
+    public void setLimiarParalelo(int limiar) {
+        if (limiar < 1){
+            throw new IllegalArgumentException("O limiar deve ser positivo");
+        }
+        this.limiarParalelo = limiar;
+    }
+
+    public int getLimiarParalelo() {
+        return limiarParalelo;
+    }
+
+    /* Liga o modo bode expiatório (scapegoat tree), que mantém a altura da ArvoreBinaria em O(log n)
+     * amortizado sem guardar nada a mais nos nós. Uma inserção que fica mais funda que log(n)/log(1/alfa)
+     * sobe pelos pais até o primeiro ancestral desbalanceado (um filho com mais de alfa vezes o tamanho dele,
+     * o bode expiatório) e religa só a subárvore dele perfeitamente balanceada, em tempo linear. Quando as
+     * remoções deixam a árvore com menos de alfa vezes o maior tamanho que ela teve desde a última
+     * reconstrução total, a árvore inteira é religada.
+     *
+     * alfa fica entre 0,5 (quase perfeitamente balanceada, mais reconstruções) e 1 (exclusive); 0,7 é um
+     * bom meio termo. A árvore atual é religada balanceada ao ligar. Só vale para a ArvoreBinaria:
+     * as subclasses já se balanceiam
+     */
+    public void ativarBodeExpiatorio(double alfa) {
+        if (!(alfa >= 0.5 && alfa < 1)){
+            throw new IllegalArgumentException("alfa deve estar entre 0,5 e 1");
+        }
+        if (getClass() != ArvoreBinaria.class){
+            throw new UnsupportedOperationException("O modo bode expiatório só vale para a ArvoreBinaria");
+        }
+        this.alfa = alfa;
+        reconstruirTudo();
+    }
+
+    // Desliga o modo bode expiatório; a árvore mantém a forma atual
+    public void desativarBodeExpiatorio() {
+        this.alfa = 0;
+    }
 
+    // Religa a árvore inteira perfeitamente balanceada e recomeça a conta do maior tamanho
+    private void reconstruirTudo() {
+        this.raiz = reconstruir(raiz);
+        soltarRaiz();
+        maiorTamanho = quantidadeNos();
+    }
+
+    /* Religa a subárvore perfeitamente balanceada com os mesmos nós e retorna sua nova raiz,
+     * que ainda precisa ser pendurada no lugar da antiga. Custa O(tamanho da subárvore)
+     */
+    private No<T> reconstruir(No<T> subarvore) {
+        List<No<T>> nos = nosEmOrdem(subarvore);
+        return montarBalanceada(nos, 0, nos.size() - 1);
+    }
+
+    /* Chamado depois de uma inserção funda demais: sobe do novo nó até o bode expiatório,
+     * religa a subárvore dele e retorna a raiz da árvore (que muda se o bode for a raiz)
+     */
+    private No<T> reconstruirBodeExpiatorio(No<T> raiz, No<T> novo) {
+        No<T> filho = novo;
+        No<T> bode = novo.getPai();
+        // em uma inserção funda demais sempre há um ancestral desbalanceado; a raiz fica como garantia
+        while (bode != raiz && filho.getTamanho() <= alfa * bode.getTamanho()){
+            filho = bode;
+            bode = bode.getPai();
+        }
+        No<T> pai = bode == raiz ? null : bode.getPai();
+        boolean esquerda = pai != null && pai.getFilhoEsquerda() == bode;
+        No<T> nova = reconstruir(bode);
+        if (pai == null){
+            return nova;
+        }
+        if (esquerda){
+            pai.setFilhoEsquerda(nova);
+        }else {
+            pai.setFilhoDireita(nova);
+        }
+        return raiz;
+    }
 
     // Método para pesquisar um valor na árvore
     @Override
     public T pesquisar(T valor) {
+        if (metricas == null){
+            return buscar(valor, comparador);
+        }
+        long inicio = metricas.iniciar();
+        T encontrado = buscar(valor, comparador);
+        metricas.registrar(MetricasArvore.Operacao.PESQUISAR, inicio);
+        return encontrado;
+    }
+
+    /* Pesquisa vários valores de uma vez e retorna, na mesma ordem do lote, o elemento encontrado para
+     * cada um (null se não estiver na árvore), como se pesquisar fosse chamado para cada valor.
+     * O lote é ordenado uma vez e resolvido em uma única descida que o divide em cada nó, então
+     * o caminho comum a várias chaves é visitado uma vez só (veja PesquisaEmLote). Em árvores com
+     * mais nós que o limiar paralelo a descida é dividida entre tarefas fork/join
+     */
+    public List<T> pesquisarLote(List<? extends T> valores) {
+        if (valores.isEmpty()){
+            return new ArrayList<>();
+        }
+        // os contadores das métricas não são atômicos, então com elas ativas o lote fica em uma thread
+        int limiar = metricas == null ? limiarParalelo : Integer.MAX_VALUE;
+        return PesquisaEmLote.executar(raiz, valores, comparador, limiar);
+    }
+
+    /* Desce da raiz guiado pelo comparador informado, que deve ser compatível com a ordem da árvore
+     * (o próprio comparador da árvore, ou o primeiro critério do comparador de um índice)
+     */
+    protected T buscar(T valor, Comparator<? super T> comp) {
         No<T> atual = this.raiz;
 
         while (atual != null){
-            int comp = comparador.compare(valor, atual.getValor());
+            int c = comp.compare(valor, atual.getValor());
 
-            if(comp == 0){
+            if(c == 0){
                 return atual.getValor(); //Retorna o valor encontrado na arvore
-            } else if (comp < 0) {
+            } else if (c < 0) {
                 atual = atual.getFilhoEsquerda(); // Procura na sub-árvore esquerda
             }else {
                 atual = atual.getFilhoDireita(); // Procura na sub-árvore direita
@@ -102,6 +519,137 @@ public class ArvoreBinaria<T> implements IArvoreBinaria<T> {
     // Método para remover um valor da árvore
     @Override
     public T remover(T valor) {
+        long inicio = metricas != null ? metricas.iniciar() : 0;
+        T removido = removerValor(valor);
+        soltarRaiz();
+        if (removido != null){
+            remocoes++;
+        }
+        // mantém os índices secundários em dia, retirando deles exatamente o elemento removido
+        if (removido != null && indices != null){
+            for (ArvoreAVL<T> indice : indices.values()){
+                indice.remover(removido);
+            }
+        }
+        /* Só remoções que aconteceram vão para o diário; refazer uma remoção sem efeito também não teria efeito.
+         * O elemento só é conhecido depois de removido, então se o registro falhar a remoção é desfeita
+         */
+        if (removido != null && diario != null){
+            try {
+                diario.registrarRemocao(removido);
+            } catch (RuntimeException e) {
+                desfazerRemocao(removido);
+                throw e;
+            }
+        }
+        if (metricas != null){
+            metricas.registrar(MetricasArvore.Operacao.REMOVER, inicio);
+        }
+        return removido;
+    }
+
+    /* Remove vários valores de uma vez e retorna, na mesma ordem do lote, o elemento removido para
+     * cada um (null se não estava na árvore), como se remover fosse chamado para cada valor.
+     * O lote é ordenado uma vez; se ele for grande em relação à árvore, os nós que ficam são
+     * religados balanceados em O(n + k), como em adicionarTodos. Lotes pequenos são removidos um a um, em ordem
+     */
+    public List<T> removerLote(List<? extends T> valores) {
+        int k = valores.size();
+        if (k == 0){
+            return new ArrayList<>();
+        }
+        int[] ordem = PesquisaEmLote.ordenar(valores, comparador);
+        List<T> removidos = new ArrayList<>(valores.size());
+        for (int i = 0; i < k; i++){
+            removidos.add(null);
+        }
+        int n = quantidadeNos();
+        int log = 32 - Integer.numberOfLeadingZeros(n);
+        if ((long) k * log < n){
+            MetricasArvore lote = iniciarLote();
+            try {
+                for (int posicao : ordem){
+                    removidos.set(posicao, remover(valores.get(posicao)));
+                }
+            } finally {
+                terminarLote(lote);
+            }
+            return removidos;
+        }
+        // Caminha em ordem pelos nós, deixando de fora um nó igual a cada valor do lote
+        List<No<T>> nos = new ArrayList<>(n);
+        ArrayDeque<No<T>> pilha = new ArrayDeque<>();
+        No<T> atual = raiz;
+        int i = 0;
+        while (atual != null || !pilha.isEmpty()){
+            while (atual != null){
+                pilha.push(atual);
+                atual = atual.getFilhoEsquerda();
+            }
+            atual = pilha.pop();
+            // valores do lote menores que o nó atual não estão na árvore
+            while (i < k && comparador.compare(valores.get(ordem[i]), atual.getValor()) < 0){
+                i++;
+            }
+            if (i < k && comparador.compare(valores.get(ordem[i]), atual.getValor()) == 0){
+                removidos.set(ordem[i++], atual.getValor());
+            }else {
+                nos.add(atual);
+            }
+            atual = atual.getFilhoDireita();
+        }
+        this.raiz = montarBalanceada(nos, 0, nos.size() - 1);
+        soltarRaiz();
+        remocoes++;
+        if (alfa > 0){
+            maiorTamanho = nos.size();
+        }
+        // índices e diário recebem exatamente os elementos removidos, nessa ordem, como em remover
+        if (indices != null){
+            for (T removido : removidos){
+                if (removido != null){
+                    for (ArvoreAVL<T> indice : indices.values()){
+                        indice.remover(removido);
+                    }
+                }
+            }
+        }
+        if (diario != null){
+            for (int j = 0; j < k; j++){
+                if (removidos.get(j) == null){
+                    continue;
+                }
+                try {
+                    diario.registrarRemocao(removidos.get(j));
+                } catch (RuntimeException e) {
+                    // as remoções que não chegaram ao diário são desfeitas
+                    for (int resto = j; resto < k; resto++){
+                        if (removidos.get(resto) != null){
+                            desfazerRemocao(removidos.get(resto));
+                        }
+                    }
+                    throw e;
+                }
+            }
+        }
+        return removidos;
+    }
+
+    // Devolve à árvore e aos índices um elemento removido cujo registro no diário falhou
+    private void desfazerRemocao(T removido) {
+        this.raiz = inserir(this.raiz, criarNo(removido));
+        soltarRaiz();
+        if (indices != null){
+            for (ArvoreAVL<T> indice : indices.values()){
+                indice.adicionar(removido);
+            }
+        }
+    }
+
+    /* Remove o valor da estrutura da árvore e o retorna, ou null se não for encontrado.
+     * Subclasses que precisam rebalancear (ArvoreAVL) sobrescrevem este método.
+     */
+    protected T removerValor(T valor) {
         No<T> atual = raiz;
         No<T> pai = null;
         //Entra em loop enquanto o nó atual for nulo
@@ -111,6 +659,8 @@ public class ArvoreBinaria<T> implements IArvoreBinaria<T> {
             //compara se os valores são iguais
             if (comp == 0){
                 T valorRemovido = atual.getValor();
+                //o nó foi encontrado, então todas as subárvores do caminho perdem um nó
+                decrementarAteRaiz(atual);
                 //verifica os casos de remoção
                 if(atual.getFilhoEsquerda() == null && atual.getFilhoDireita() == null){
                     // 1: O nó não tem filhos
@@ -142,12 +692,28 @@ public class ArvoreBinaria<T> implements IArvoreBinaria<T> {
                     }
                 }else{
                     //4: O nó tem dois filhos
-                    //encontra um sucessor do nó atual na subarvore direita
-                    No<T> sucessor = encontrarSucessor(atual.getFilhoDireita());
-                    //define o valor do sucessor do no atual
+                    //encontra o sucessor do nó atual (o menor da subarvore direita) e o seu pai
+                    No<T> paiSucessor = atual;
+                    No<T> sucessor = atual.getFilhoDireita();
+                    while (sucessor.getFilhoEsquerda() != null){
+                        //o sucessor sai de baixo de cada nó deste caminho
+                        sucessor.somarTamanho(-1);
+                        paiSucessor = sucessor;
+                        sucessor = sucessor.getFilhoEsquerda();
+                    }
+                    //define o valor do sucessor no no atual
                     atual.setValor(sucessor.getValor());
-                    //remove o sucessor
-                    remover(sucessor.getValor());
+                    //desliga o sucessor direto pelo seu pai, sem descer de novo a partir da raiz.
+                    //O sucessor não tem filho à esquerda, então é substituído pelo seu filho à direita
+                    if (paiSucessor == atual){
+                        paiSucessor.setFilhoDireita(sucessor.getFilhoDireita());
+                    }else{
+                        paiSucessor.setFilhoEsquerda(sucessor.getFilhoDireita());
+                    }
+                }
+                //no modo bode expiatório, depois de remoções demais a árvore inteira é religada
+                if (alfa > 0 && quantidadeNos() < alfa * maiorTamanho){
+                    reconstruirTudo();
                 }
                 //retorna o valor removido
                 return valorRemovido;
@@ -164,104 +730,209 @@ public class ArvoreBinaria<T> implements IArvoreBinaria<T> {
         return null;
     }
 
-    // Método auxiliar para encontrar o sucessor de um nó
-    private No<T> encontrarSucessor(No<T> atual){
-        //Entra em um loop enquanto houver um filho à esquerda do no atual
-        while (atual.getFilhoEsquerda() != null){
-            //move para o filho à esquerda
-            atual = atual.getFilhoEsquerda();
+    /* Encontra o sucessor de um nó: o menor nó da subárvore informada, que deve ser a subárvore direita
+     * do nó. Passando a raiz, retorna o menor nó da árvore
+     */
+    protected No<T> encontrarSucessor(No<T> no) {
+        //Enquanto o nó atual possuir um filho à esquerda, desce por ele
+        while (no.getFilhoEsquerda() != null) {
+            no = no.getFilhoEsquerda();
+        }
+        //Ao sair do loop, o nó atual é o mais à esquerda da subárvore
+        return no;
+    }
+
+    // Simétrico de encontrarSucessor: o maior nó da subárvore informada
+    protected No<T> encontrarAntecessor(No<T> no) {
+        while (no.getFilhoDireita() != null) {
+            no = no.getFilhoDireita();
         }
-        //quando não exixtir mais filhos a esquerda ele retorna o valor do no atual
-        return atual;
+        return no;
+    }
+
+    // Retorna o menor elemento da árvore, ou null se ela estiver vazia
+    @Override
+    public T menor() {
+        return raiz == null ? null : encontrarSucessor(raiz).getValor();
     }
 
-    // Método para calcular a altura da árvore
+    // Retorna o maior elemento da árvore, ou null se ela estiver vazia
+    @Override
+    public T maior() {
+        return raiz == null ? null : encontrarAntecessor(raiz).getValor();
+    }
+
+    // Maior elemento menor ou igual ao valor
+    @Override
+    public T piso(T valor) {
+        return descerAteLimite(valor, true, true);
+    }
+
+    // Menor elemento maior ou igual ao valor
+    @Override
+    public T teto(T valor) {
+        return descerAteLimite(valor, false, true);
+    }
+
+    // Maior elemento estritamente menor que o valor
+    @Override
+    public T antecessor(T valor) {
+        return descerAteLimite(valor, true, false);
+    }
+
+    // Menor elemento estritamente maior que o valor
+    @Override
+    public T sucessor(T valor) {
+        return descerAteLimite(valor, false, false);
+    }
+
+    /* Mesma descida de pesquisar(T), guardando o último nó em que o caminho passou pelo lado procurado:
+     * abaixo = true procura o maior elemento abaixo do valor, abaixo = false o menor acima dele.
+     * Com inclusivo = true um elemento igual ao valor é aceito
+     */
+    private T descerAteLimite(T valor, boolean abaixo, boolean inclusivo) {
+        No<T> atual = raiz;
+        No<T> candidato = null;
+        while (atual != null){
+            int comp = comparador.compare(valor, atual.getValor());
+            if (comp == 0 && inclusivo){
+                return atual.getValor();
+            }
+            if (abaixo){
+                if (comp > 0){
+                    // o atual está abaixo do valor; procura um mais próximo à direita
+                    candidato = atual;
+                    atual = atual.getFilhoDireita();
+                }else {
+                    atual = atual.getFilhoEsquerda();
+                }
+            }else {
+                if (comp < 0){
+                    // o atual está acima do valor; procura um mais próximo à esquerda
+                    candidato = atual;
+                    atual = atual.getFilhoEsquerda();
+                }else {
+                    atual = atual.getFilhoDireita();
+                }
+            }
+        }
+        return candidato == null ? null : candidato.getValor();
+    }
+
+    // Iterador em ordem dos elementos entre min e max (inclusive), que ignora as subárvores fora do intervalo
+    @Override
+    public Iterator<T> intervalo(T min, T max) {
+        return new IteradorIntervalo<>(raiz, comparador, min, max);
+    }
+
+    // Método para calcular a altura da árvore. Árvore vazia tem altura -1
+    @Override
     public int altura(){
+        if (this.raiz == null){
+            return -1;
+        }
         return this.raiz.altura();
     }
 
-    // Método para contar a quantidade de nós na árvore
+    // Método para contar a quantidade de nós na árvore, em O(1) pelo tamanho armazenado na raiz
     @Override
     public int quantidadeNos() {
-        return contarNos(raiz);
+        return No.tamanhoArmazenado(raiz);
     }
 
-    // Método auxiliar para contar os nós da árvore
-    private int contarNos(No<T> no){
-        // se o nó for nulo a altura é 0
-        if (no == null){
-            return 0;
+    /* Sobe do nó alvo até a raiz pelos pais subtraindo um do tamanho de cada nó, sem voltar a descer
+     * nem comparar. Vale no início de uma remoção, quando o pai da raiz ainda é nulo
+     */
+    private void decrementarAteRaiz(No<T> alvo){
+        for (No<T> atual = alvo; atual != null; atual = atual.getPai()){
+            atual.somarTamanho(-1);
         }
-        //recursivamente conta os nós da subarvore esquerda
-        int nosD = contarNos(no.getFilhoDireita());
-        //recursivamente conta os nós da subarvore direita
-        int nosE = contarNos(no.getFilhoEsquerda());
-        //retorna 1 mais a quantidade de nós nas subarvore esquerda e direita
-        return 1 + nosE + nosD;
     }
 
-    // Método para percorrer a árvore em nível
+    // Método para contar quantos elementos são menores que o valor, descendo uma única vez
     @Override
-    public String caminharEmNivel() {
-        if (raiz == null){
-            return "[]";
-        }
-        //cria um StringBuilder para construir uma representação de travessia
-        StringBuilder result = new StringBuilder("[");
-        ArrayList<No<T>> pilhaNavegacao = new ArrayList<>();
-        pilhaNavegacao.add(raiz);
-        //inicia um loop até que a fila esteja vazia
-        while (!pilhaNavegacao.isEmpty()){
-            //remove o primeiro nó da fila
-            No<T> no = pilhaNavegacao.remove(0);
-            //adiciona o valor do nó a repressentação da travesssia
-            result.append(no.getValor());
-            //Se houver um filho a esquerda e adicione à fila
-            if(no.getFilhoEsquerda() != null){
-                pilhaNavegacao.add(no.getFilhoEsquerda());
-            }
-            //Se houver um filho à direita e adicione à fila
-            if (no.getFilhoDireita() != null){
-                pilhaNavegacao.add(no.getFilhoDireita());
-            }
-            //Se a fila não estiver vazia, adicione um espaçopara separar os valores dos nos
-            if (!pilhaNavegacao.isEmpty()){
-                result.append(" ");
+    public int posicao(T valor) {
+        int menores = 0;
+        No<T> atual = raiz;
+        while (atual != null){
+            if (comparador.compare(valor, atual.getValor()) <= 0){
+                // O valor e tudo à direita não são menores, continua pela esquerda
+                atual = atual.getFilhoEsquerda();
+            }else {
+                // O atual e toda a sua subárvore esquerda são menores que o valor
+                menores += No.tamanhoArmazenado(atual.getFilhoEsquerda()) + 1;
+                atual = atual.getFilhoDireita();
             }
         }
-        //finaliza a respresentação
-        result.append("]");
-        //retorna a respresentação com uma string
-        return result.toString();
+        return menores;
     }
 
-    // Método para percorrer a árvore em ordem
+    // Método para obter o k-ésimo menor elemento (k a partir de 0) usando os tamanhos das subárvores
     @Override
-    public String caminharEmOrdem() {
-        if (raiz == null){
-            return "[]";
+    public T selecionar(int k) {
+        if (k < 0 || k >= quantidadeNos()){
+            return null;
         }
-
-        StringBuilder result = new StringBuilder("[");
-        Stack<No<T>> pilha = new Stack<>();
         No<T> atual = raiz;
         while (true){
-            //move para a esquerda enquanto houver nós à esquerda
-            while (atual != null){
-                pilha.push(atual);
-                atual=atual.getFilhoEsquerda();
-            }
-            //se a pilha estiver vazia, todos os nós foram visitados
-            if (pilha.isEmpty()){
-                break;
+            int tamEsquerda = No.tamanhoArmazenado(atual.getFilhoEsquerda());
+            if (k < tamEsquerda){
+                atual = atual.getFilhoEsquerda();
+            }else if (k == tamEsquerda){
+                return atual.getValor();
+            }else {
+                // Pula a subárvore esquerda e o próprio nó
+                k -= tamEsquerda + 1;
+                atual = atual.getFilhoDireita();
             }
-            //romove o nó do topo da pilha e adicione seu valor
-            atual= pilha.pop();
-            result.append(atual.getValor()).append("\n");
-            atual = atual.getFilhoDireita();
         }
-        //finaliza a reprensentação
-        result.append("]");
-        return result.toString();
+    }
+
+    /* Escreve o caminhamento em nível. Acima do limiar paralelo cada nível é escrito em pedaços
+     * paralelos (veja CaminhamentoParalelo), com a mesma saída do caminhamento sequencial
+     */
+    @Override
+    public void caminharEmNivel(Appendable saida) throws IOException {
+        if (quantidadeNos() <= limiarParalelo){
+            IArvoreOrdenada.super.caminharEmNivel(saida);
+        }else {
+            CaminhamentoParalelo.emNivel(raiz, limiarParalelo, saida);
+        }
+    }
+
+    /* Escreve o caminhamento em ordem. Acima do limiar paralelo as subárvores são escritas em
+     * paralelo, cada uma no seu buffer, e copiadas em ordem para a saída
+     */
+    @Override
+    public void caminharEmOrdem(Appendable saida) throws IOException {
+        if (quantidadeNos() <= limiarParalelo){
+            IArvoreOrdenada.super.caminharEmOrdem(saida);
+        }else {
+            CaminhamentoParalelo.emOrdem(raiz, limiarParalelo, saida);
+        }
+    }
+
+    // Iterador preguiçoso em ordem, com pilha do tamanho da altura
+    @Override
+    public Iterator<T> iterator() {
+        return IteradorEmOrdem.de(raiz, false);
+    }
+
+    // Iterador preguiçoso em ordem reversa
+    @Override
+    public Iterator<T> iteradorReverso() {
+        return IteradorEmOrdem.de(raiz, true);
+    }
+
+    // Iterador preguiçoso em nível
+    @Override
+    public Iterator<T> iteradorEmNivel() {
+        return IteradorEmNivel.de(raiz);
+    }
+
+    // Spliterator em ordem que se divide por posição usando os tamanhos das subárvores
+    @Override
+    public Spliterator<T> spliterator() {
+        return new EspliteradorEmOrdem<>(raiz, MetricasArvore.original(comparador), 0, quantidadeNos());
     }
 }
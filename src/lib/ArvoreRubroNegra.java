@@ -0,0 +1,350 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/* Esta classe implementa uma árvore rubro-negra: cada nó é vermelho ou preto, a raiz é preta,
+   um nó vermelho não tem filho vermelho e todo caminho da raiz até uma folha nula passa pelo
+   mesmo número de nós pretos. Isso limita a altura a 2*log2(n+1).
+
+   Comparada à ArvoreAVL, o balanceamento é mais frouxo, mas cada inserção faz no máximo
+   2 rotações e cada remoção no máximo 3; o resto do ajuste é só troca de cores.
+   Inserção e remoção são iterativas e guardam o caminho percorrido em uma pilha.
+  */
+public class ArvoreRubroNegra<T> extends ArvoreBinaria<T> {
+
+    // Nó com a cor; nós nulos são considerados pretos
+    private static final class NoRubroNegro<T> extends No<T> {
+        boolean vermelho = true;
+
+        NoRubroNegro(T valor) {
+            super(valor);
+        }
+    }
+
+    // 2*log2(2^31) = 62 níveis bastam; a remoção pode acrescentar um nível ao caminho ao rotacionar
+    private static final int ALTURA_MAXIMA = 128;
+
+    // Caminho da raiz até o nó em que a operação atual está trabalhando (caminho[topo] é o mais fundo)
+    private final No<T>[] caminho;
+
+    @SuppressWarnings("unchecked")
+    public ArvoreRubroNegra(Comparator<T> comparator) {
+        super(comparator);
+        caminho = (No<T>[]) new No<?>[ALTURA_MAXIMA];
+    }
+
+    @Override
+    protected No<T> criarNo(T valor) {
+        return new NoRubroNegro<>(valor);
+    }
+
+    /* Insere um a um, já em ordem: a reconstrução balanceada da classe pai
+     * não saberia colorir os nós
+     */
+    @Override
+    public void adicionarTodos(Collection<? extends T> novos) {
+        List<T> ordenados = new ArrayList<>(novos);
+        ordenados.sort(comparador);
+        MetricasArvore lote = iniciarLote();
+        try {
+            for (T valor : ordenados) {
+                adicionar(valor);
+            }
+        } finally {
+            terminarLote(lote);
+        }
+    }
+
+    // Pelo mesmo motivo, o lote é removido um a um, em ordem
+    @Override
+    public List<T> removerLote(List<? extends T> valores) {
+        int[] ordem = PesquisaEmLote.ordenar(valores, comparador);
+        List<T> removidos = new ArrayList<>(valores.size());
+        for (int i = 0; i < valores.size(); i++) {
+            removidos.add(null);
+        }
+        MetricasArvore lote = iniciarLote();
+        try {
+            for (int posicao : ordem) {
+                removidos.set(posicao, remover(valores.get(posicao)));
+            }
+        } finally {
+            terminarLote(lote);
+        }
+        return removidos;
+    }
+
+    /* A estrutura recebida não traz cores. Os nós são religados balanceados, em ordem, e colore-se
+     * de vermelho só o nível mais fundo: como montarBalanceada deixa todos os filhos nulos nos
+     * dois últimos níveis, todo caminho passa pelo mesmo número de pretos. Não compara valores
+     */
+    @Override
+    protected void carregarEstrutura(No<T> novaRaiz) {
+        List<No<T>> nos = nosEmOrdem(novaRaiz);
+        No<T> balanceada = montarBalanceada(nos, 0, nos.size() - 1);
+        colorirPorNivel(balanceada, 0, No.alturaArmazenada(balanceada));
+        super.carregarEstrutura(balanceada);
+    }
+
+    private static void colorirPorNivel(No<?> no, int nivel, int ultimoNivel) {
+        if (no == null) {
+            return;
+        }
+        vermelho(no, nivel == ultimoNivel && nivel > 0);
+        colorirPorNivel(no.getFilhoEsquerda(), nivel + 1, ultimoNivel);
+        colorirPorNivel(no.getFilhoDireita(), nivel + 1, ultimoNivel);
+    }
+
+    // Inserção iterativa: só é chamada pela árvore com a sua própria raiz
+    @Override
+    protected No<T> inserir(No<T> raiz, No<T> novo) {
+        if (raiz == null) {
+            preto(novo);
+            return novo;
+        }
+        // Desce como na árvore binária, guardando o caminho e somando o novo nó aos tamanhos
+        int topo = -1;
+        No<T> atual = raiz;
+        // resultado da última comparação, que decide de que lado do pai o novo nó fica
+        int comp = 0;
+        while (atual != null) {
+            caminho[++topo] = atual;
+            atual.somarTamanho(1);
+            comp = comparador.compare(novo.getValor(), atual.getValor());
+            if (comp < 0) {
+                atual = atual.getFilhoEsquerda();
+            } else {
+                atual = atual.getFilhoDireita();
+            }
+        }
+        No<T> pai = caminho[topo];
+        if (comp < 0) {
+            pai.setFilhoEsquerda(novo);
+        } else {
+            pai.setFilhoDireita(novo);
+        }
+
+        // O novo nó é vermelho; enquanto o pai também for, corrige subindo pelo caminho
+        No<T> filho = novo;
+        while (topo >= 1 && vermelho(caminho[topo])) {
+            pai = caminho[topo];
+            No<T> avo = caminho[topo - 1];
+            if (pai == avo.getFilhoEsquerda()) {
+                No<T> tio = avo.getFilhoDireita();
+                if (vermelho(tio)) {
+                    // Caso 1: tio vermelho, só troca cores e continua do avô
+                    preto(pai);
+                    preto(tio);
+                    vermelho(avo, true);
+                    filho = avo;
+                    topo -= 2;
+                    continue;
+                }
+                if (filho == pai.getFilhoDireita()) {
+                    // Caso 2: filho "de dentro", uma rotação o leva para fora
+                    avo.setFilhoEsquerda(rotacaoEsquerda(pai));
+                    pai = avo.getFilhoEsquerda();
+                }
+                // Caso 3: rotação no avô, o pai sobe preto
+                preto(pai);
+                vermelho(avo, true);
+                substituirFilho(topo >= 2 ? caminho[topo - 2] : null, avo, rotacaoDireita(avo));
+            } else {
+                No<T> tio = avo.getFilhoEsquerda();
+                if (vermelho(tio)) {
+                    preto(pai);
+                    preto(tio);
+                    vermelho(avo, true);
+                    filho = avo;
+                    topo -= 2;
+                    continue;
+                }
+                if (filho == pai.getFilhoEsquerda()) {
+                    avo.setFilhoDireita(rotacaoDireita(pai));
+                    pai = avo.getFilhoDireita();
+                }
+                preto(pai);
+                vermelho(avo, true);
+                substituirFilho(topo >= 2 ? caminho[topo - 2] : null, avo, rotacaoEsquerda(avo));
+            }
+            break;
+        }
+        preto(this.raiz);
+        limparCaminho();
+        return this.raiz;
+    }
+
+    // Remoção iterativa: no máximo 3 rotações, o resto são trocas de cor
+    @Override
+    protected T removerValor(T valor) {
+        int topo = -1;
+        No<T> alvo = raiz;
+        while (alvo != null) {
+            int comp = comparador.compare(valor, alvo.getValor());
+            if (comp == 0) {
+                break;
+            }
+            caminho[++topo] = alvo;
+            alvo = comp < 0 ? alvo.getFilhoEsquerda() : alvo.getFilhoDireita();
+        }
+        if (alvo == null) {
+            limparCaminho();
+            return null;
+        }
+        T removido = alvo.getValor();
+
+        // Com dois filhos, o valor do sucessor vem para o alvo e é o sucessor que sai da árvore
+        No<T> sai = alvo;
+        if (alvo.getFilhoEsquerda() != null && alvo.getFilhoDireita() != null) {
+            caminho[++topo] = alvo;
+            sai = alvo.getFilhoDireita();
+            while (sai.getFilhoEsquerda() != null) {
+                caminho[++topo] = sai;
+                sai = sai.getFilhoEsquerda();
+            }
+            alvo.setValor(sai.getValor());
+        }
+        // Todo o caminho até o nó que sai perde um nó
+        for (int i = 0; i <= topo; i++) {
+            caminho[i].somarTamanho(-1);
+        }
+
+        // O nó que sai tem no máximo um filho, que ocupa o seu lugar
+        No<T> filho = sai.getFilhoEsquerda() != null ? sai.getFilhoEsquerda() : sai.getFilhoDireita();
+        No<T> pai = topo >= 0 ? caminho[topo] : null;
+        boolean filhoEsquerda = pai != null && pai.getFilhoEsquerda() == sai;
+        substituirFilho(pai, sai, filho);
+
+        if (!vermelho(sai)) {
+            corrigirRemocao(filho, filhoEsquerda, topo);
+        }
+        limparCaminho();
+        return removido;
+    }
+
+    /* Um nó preto saiu do lado `esquerda` de caminho[topo], deixando x (talvez nulo) com um preto a menos.
+     * Sobe pelo caminho até compensar, como no algoritmo clássico que usa o ponteiro para o pai
+     */
+    private void corrigirRemocao(No<T> x, boolean esquerda, int topo) {
+        while (topo >= 0 && !vermelho(x)) {
+            No<T> pai = caminho[topo];
+            No<T> avo = topo >= 1 ? caminho[topo - 1] : null;
+            if (esquerda) {
+                No<T> irmao = pai.getFilhoDireita();
+                if (vermelho(irmao)) {
+                    // Irmão vermelho: rotação no pai deixa um irmão preto; o irmão antigo entra no caminho
+                    preto(irmao);
+                    vermelho(pai, true);
+                    substituirFilho(avo, pai, rotacaoEsquerda(pai));
+                    caminho[topo] = irmao;
+                    caminho[++topo] = pai;
+                    irmao = pai.getFilhoDireita();
+                }
+                if (!vermelho(irmao.getFilhoEsquerda()) && !vermelho(irmao.getFilhoDireita())) {
+                    // Irmão preto com filhos pretos: pinta o irmão e o problema sobe para o pai
+                    vermelho(irmao, true);
+                    x = pai;
+                    topo--;
+                    esquerda = topo >= 0 && caminho[topo].getFilhoEsquerda() == pai;
+                    continue;
+                }
+                if (!vermelho(irmao.getFilhoDireita())) {
+                    preto(irmao.getFilhoEsquerda());
+                    vermelho(irmao, true);
+                    pai.setFilhoDireita(rotacaoDireita(irmao));
+                    irmao = pai.getFilhoDireita();
+                }
+                vermelho(irmao, vermelho(pai));
+                preto(pai);
+                preto(irmao.getFilhoDireita());
+                substituirFilho(topo >= 1 ? caminho[topo - 1] : null, pai, rotacaoEsquerda(pai));
+            } else {
+                No<T> irmao = pai.getFilhoEsquerda();
+                if (vermelho(irmao)) {
+                    preto(irmao);
+                    vermelho(pai, true);
+                    substituirFilho(avo, pai, rotacaoDireita(pai));
+                    caminho[topo] = irmao;
+                    caminho[++topo] = pai;
+                    irmao = pai.getFilhoEsquerda();
+                }
+                if (!vermelho(irmao.getFilhoEsquerda()) && !vermelho(irmao.getFilhoDireita())) {
+                    vermelho(irmao, true);
+                    x = pai;
+                    topo--;
+                    esquerda = topo >= 0 && caminho[topo].getFilhoEsquerda() == pai;
+                    continue;
+                }
+                if (!vermelho(irmao.getFilhoEsquerda())) {
+                    preto(irmao.getFilhoDireita());
+                    vermelho(irmao, true);
+                    pai.setFilhoEsquerda(rotacaoEsquerda(irmao));
+                    irmao = pai.getFilhoEsquerda();
+                }
+                vermelho(irmao, vermelho(pai));
+                preto(pai);
+                preto(irmao.getFilhoEsquerda());
+                substituirFilho(topo >= 1 ? caminho[topo - 1] : null, pai, rotacaoDireita(pai));
+            }
+            // Depois da rotação final a altura negra está compensada
+            return;
+        }
+        preto(x);
+    }
+
+    // Coloca `novo` no lugar de `antigo` como filho de `pai` (ou como raiz, se pai for nulo)
+    private void substituirFilho(No<T> pai, No<T> antigo, No<T> novo) {
+        if (pai == null) {
+            raiz = novo;
+        } else if (pai.getFilhoEsquerda() == antigo) {
+            pai.setFilhoEsquerda(novo);
+        } else {
+            pai.setFilhoDireita(novo);
+        }
+    }
+
+    // Rotação à esquerda que preserva os tamanhos das subárvores
+    private No<T> rotacaoEsquerda(No<T> r) {
+        No<T> f = r.getFilhoDireita();
+        r.setFilhoDireita(f.getFilhoEsquerda());
+        f.setFilhoEsquerda(r);
+        r.atualizarTamanho();
+        f.atualizarTamanho();
+        return f;
+    }
+
+    // Rotação à direita que preserva os tamanhos das subárvores
+    private No<T> rotacaoDireita(No<T> r) {
+        No<T> f = r.getFilhoEsquerda();
+        r.setFilhoEsquerda(f.getFilhoDireita());
+        f.setFilhoDireita(r);
+        r.atualizarTamanho();
+        f.atualizarTamanho();
+        return f;
+    }
+
+    // Solta as referências do caminho para não segurar nós removidos
+    private void limparCaminho() {
+        for (int i = 0; i < caminho.length && caminho[i] != null; i++) {
+            caminho[i] = null;
+        }
+    }
+
+    // Nós nulos são pretos. Também usado pelos testes, para conferir as cores
+    static boolean vermelho(No<?> no) {
+        return no != null && ((NoRubroNegro<?>) no).vermelho;
+    }
+
+    private static void vermelho(No<?> no, boolean vermelho) {
+        ((NoRubroNegro<?>) no).vermelho = vermelho;
+    }
+
+    private static void preto(No<?> no) {
+        if (no != null) {
+            ((NoRubroNegro<?>) no).vermelho = false;
+        }
+    }
+}
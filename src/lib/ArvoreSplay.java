@@ -0,0 +1,195 @@
+package lib;
+
+import java.util.Comparator;
+
+/* Esta classe implementa uma árvore splay: a cada acesso o nó acessado sobe até a raiz por
+   rotações (splay), então os valores usados com frequência ficam perto da raiz e uma sequência
+   de operações custa O(log n) amortizado por operação, sem guardar nada a mais nos nós.
+
+   Em cargas concentradas em poucas chaves (como as mesmas matrículas pesquisadas de novo e de novo)
+   a profundidade média dos acessos cai bem abaixo da de uma ArvoreAVL. Em cargas uniformes as
+   rotações de cada pesquisa custam mais do que elas economizam.
+
+   No modo semi-splay, as pesquisas só aproximam o nó da raiz: no caso zig-zig é feita uma rotação
+   em vez de duas e a subida continua do pai, o que corta pela metade a profundidade do caminho com
+   cerca de metade das escritas. Inserções e remoções sempre fazem o splay completo.
+
+   Como pesquisar altera a árvore, nem leituras podem ser feitas em paralelo com outras operações.
+   pesquisarLote, os iteradores e as varreduras não fazem splay.
+  */
+public class ArvoreSplay<T> extends ArvoreBinaria<T> {
+
+    private final boolean semiSplay;
+
+    public ArvoreSplay(Comparator<T> comparator) {
+        this(comparator, false);
+    }
+
+    // Com semiSplay true, as pesquisas fazem semi-splay em vez do splay completo
+    public ArvoreSplay(Comparator<T> comparator, boolean semiSplay) {
+        super(comparator);
+        this.semiSplay = semiSplay;
+    }
+
+    public boolean isSemiSplay() {
+        return semiSplay;
+    }
+
+    /* Busca pelo comparador da árvore e faz o splay do nó encontrado ou, se o valor não estiver
+     * na árvore, do último nó visitado. Com outro comparador (de um índice) apenas desce
+     */
+    @Override
+    protected T buscar(T valor, Comparator<? super T> comp) {
+        if (comp != comparador) {
+            return super.buscar(valor, comp);
+        }
+        No<T> atual = raiz;
+        No<T> ultimo = null;
+        T encontrado = null;
+        while (atual != null) {
+            ultimo = atual;
+            int c = comparador.compare(valor, atual.getValor());
+            if (c == 0) {
+                encontrado = atual.getValor();
+                break;
+            }
+            atual = c < 0 ? atual.getFilhoEsquerda() : atual.getFilhoDireita();
+        }
+        if (ultimo != null) {
+            if (semiSplay) {
+                semiSplay(ultimo);
+            } else {
+                raiz = splay(ultimo);
+            }
+        }
+        return encontrado;
+    }
+
+    // Insere como na árvore binária e faz o splay do novo nó
+    @Override
+    protected No<T> inserir(No<T> raiz, No<T> novo) {
+        super.inserir(raiz, novo);
+        return splay(novo);
+    }
+
+    /* Faz o splay do nó com o valor (ou do último visitado, se não estiver na árvore). Encontrado,
+     * ele está na raiz: sai e as duas subárvores são juntadas pelo maior valor da esquerda, que
+     * sobe por splay até o topo dela e fica sem filho direito
+     */
+    @Override
+    protected T removerValor(T valor) {
+        No<T> atual = raiz;
+        No<T> ultimo = null;
+        while (atual != null) {
+            ultimo = atual;
+            int c = comparador.compare(valor, atual.getValor());
+            if (c == 0) {
+                break;
+            }
+            atual = c < 0 ? atual.getFilhoEsquerda() : atual.getFilhoDireita();
+        }
+        if (ultimo != null) {
+            raiz = splay(ultimo);
+        }
+        if (atual == null) {
+            return null;
+        }
+        T removido = atual.getValor();
+        No<T> esquerda = atual.getFilhoEsquerda();
+        No<T> direita = atual.getFilhoDireita();
+        if (esquerda == null) {
+            raiz = direita;
+        } else {
+            esquerda.soltarDoPai();
+            No<T> maior = esquerda;
+            while (maior.getFilhoDireita() != null) {
+                maior = maior.getFilhoDireita();
+            }
+            maior = splay(maior);
+            maior.setFilhoDireita(direita);
+            maior.atualizarTamanho();
+            raiz = maior;
+        }
+        if (raiz != null) {
+            raiz.soltarDoPai();
+        }
+        return removido;
+    }
+
+    /* Sobe o nó até o topo da sua árvore (o nó sem pai) e o retorna.
+     * zig-zig (nó e pai do mesmo lado): roda o pai e depois o nó; zig-zag: roda o nó duas vezes;
+     * zig (o pai é o topo): uma rotação
+     */
+    private No<T> splay(No<T> x) {
+        while (x.getPai() != null) {
+            No<T> pai = x.getPai();
+            No<T> avo = pai.getPai();
+            if (avo == null) {
+                subir(x);
+                contarRotacao(false);
+            } else if ((avo.getFilhoEsquerda() == pai) == (pai.getFilhoEsquerda() == x)) {
+                subir(pai);
+                subir(x);
+                contarRotacao(true);
+            } else {
+                subir(x);
+                subir(x);
+                contarRotacao(true);
+            }
+        }
+        return x;
+    }
+
+    /* Semi-splay: no zig-zig só o pai é rodado e a subida continua dele; no zig-zag o nó sobe duas
+     * vezes e a subida continua dele. Cada passo sobe dois níveis, como no splay
+     */
+    private void semiSplay(No<T> x) {
+        while (x.getPai() != null) {
+            No<T> pai = x.getPai();
+            No<T> avo = pai.getPai();
+            if (avo == null) {
+                subir(x);
+                contarRotacao(false);
+            } else if ((avo.getFilhoEsquerda() == pai) == (pai.getFilhoEsquerda() == x)) {
+                subir(pai);
+                contarRotacao(false);
+                x = pai;
+            } else {
+                subir(x);
+                subir(x);
+                contarRotacao(true);
+            }
+        }
+        raiz = x;
+    }
+
+    // Rotação que troca o nó com o seu pai, mantendo os tamanhos e os ponteiros para o pai
+    private void subir(No<T> x) {
+        No<T> pai = x.getPai();
+        No<T> avo = pai.getPai();
+        boolean paiEsquerda = avo != null && avo.getFilhoEsquerda() == pai;
+        if (pai.getFilhoEsquerda() == x) {
+            pai.setFilhoEsquerda(x.getFilhoDireita());
+            x.setFilhoDireita(pai);
+        } else {
+            pai.setFilhoDireita(x.getFilhoEsquerda());
+            x.setFilhoEsquerda(pai);
+        }
+        pai.atualizarTamanho();
+        x.atualizarTamanho();
+        if (avo == null) {
+            x.soltarDoPai();
+        } else if (paiEsquerda) {
+            avo.setFilhoEsquerda(x);
+        } else {
+            avo.setFilhoDireita(x);
+        }
+    }
+
+    // Conta a rotação nas métricas, se estiverem ativas
+    private void contarRotacao(boolean dupla) {
+        if (metricas != null) {
+            metricas.contarRotacao(dupla);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package lib;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Caminhamentos em ordem e em nível escritos em paralelo, no mesmo formato (byte a byte) dos
+ * caminharEmOrdem/caminharEmNivel de IArvoreBinaria. Usados pela ArvoreBinaria quando a árvore
+ * tem mais nós que o limiar paralelo.
+ *
+ * Em ordem: a árvore é dividida como na VarreduraParalela e cada subárvore é escrita no seu próprio
+ * StringBuilder. Os pedaços são juntados em uma lista, na ordem do caminhamento, e só no fim são
+ * copiados para a saída, então o texto não é recopiado a cada junção.
+ *
+ * Em nível: um nível de cada vez. Um nível com mais de `limiar` nós é cortado em pedaços de
+ * `limiar` nós, escritos em paralelo, e cada pedaço junta os filhos dos seus nós. O próximo nível
+ * é a concatenação desses filhos, na ordem dos pedaços.
+ */
+final class CaminhamentoParalelo {
+
+    private CaminhamentoParalelo() {
+    }
+
+    static <T> void emOrdem(No<T> raiz, int limiar, Appendable saida) throws IOException {
+        List<StringBuilder> pedacos = VarreduraParalela.executar(raiz, limiar,
+                new VarreduraParalela.Acumulador<T, List<StringBuilder>>() {
+                    @Override
+                    public List<StringBuilder> novo() {
+                        List<StringBuilder> pedacos = new ArrayList<>(1);
+                        pedacos.add(new StringBuilder());
+                        return pedacos;
+                    }
+
+                    @Override
+                    public boolean acumular(List<StringBuilder> pedacos, T valor) {
+                        pedacos.get(pedacos.size() - 1).append(String.valueOf(valor)).append('\n');
+                        return false;
+                    }
+
+                    @Override
+                    public List<StringBuilder> juntar(List<StringBuilder> antes, List<StringBuilder> depois) {
+                        antes.addAll(depois);
+                        return antes;
+                    }
+                });
+        saida.append('[');
+        for (StringBuilder pedaco : pedacos) {
+            saida.append(pedaco);
+        }
+        saida.append(']');
+    }
+
+    static <T> void emNivel(No<T> raiz, int limiar, Appendable saida) throws IOException {
+        saida.append('[');
+        List<No<T>> nivel = new ArrayList<>(1);
+        if (raiz != null) {
+            nivel.add(raiz);
+        }
+        boolean primeiro = true;
+        while (!nivel.isEmpty()) {
+            List<PedacoNivel<T>> pedacos = new ArrayList<>();
+            for (int inicio = 0; inicio < nivel.size(); inicio += limiar) {
+                pedacos.add(new PedacoNivel<>(nivel, inicio, (int) Math.min(nivel.size(), (long) inicio + limiar)));
+            }
+            if (pedacos.size() == 1) {
+                pedacos.get(0).compute();
+            } else {
+                ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        ForkJoinTask.invokeAll(pedacos);
+                    }
+                });
+            }
+            int largura = 0;
+            for (PedacoNivel<T> pedaco : pedacos) {
+                largura += pedaco.filhos.size();
+            }
+            List<No<T>> proximo = new ArrayList<>(largura);
+            for (PedacoNivel<T> pedaco : pedacos) {
+                // cada valor vem precedido de um espaço; o primeiro da árvore não
+                saida.append(pedaco.texto, primeiro ? 1 : 0, pedaco.texto.length());
+                primeiro = false;
+                proximo.addAll(pedaco.filhos);
+            }
+            nivel = proximo;
+        }
+        saida.append(']');
+    }
+
+    // Escreve os nós nivel[inicio..fim) e junta seus filhos, da esquerda para a direita
+    private static final class PedacoNivel<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<No<T>> nivel;
+        private final int inicio;
+        private final int fim;
+        final StringBuilder texto = new StringBuilder();
+        final List<No<T>> filhos = new ArrayList<>();
+
+        PedacoNivel(List<No<T>> nivel, int inicio, int fim) {
+            this.nivel = nivel;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            for (int i = inicio; i < fim; i++) {
+                No<T> no = nivel.get(i);
+                texto.append(' ').append(String.valueOf(no.getValor()));
+                if (no.getFilhoEsquerda() != null) {
+                    filhos.add(no.getFilhoEsquerda());
+                }
+                if (no.getFilhoDireita() != null) {
+                    filhos.add(no.getFilhoDireita());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package lib;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Converte valores do tipo T para bytes e de volta, para que o ArquivoArvore possa gravar e
+ * carregar árvores de qualquer tipo.
+ *
+ * Os inteiros devem ser gravados em big-endian (o padrão de DataOutput e de ByteBuffer), e ler
+ * deve consumir exatamente os bytes que escrever produziu para o mesmo valor.
+ *
+ * @param <T>
+ */
+public interface CodecValor<T> {
+
+    /**
+     * Método que grava um valor na saída.
+     * @param valor - valor a ser gravado.
+     * @param saida - destino dos bytes.
+     * @throws IOException se a escrita na saída falhar.
+     */
+    public void escrever(T valor, DataOutput saida) throws IOException;
+
+    /**
+     * Método que lê um valor a partir da posição atual do buffer, avançando-a.
+     * @param entrada - buffer posicionado no início do valor (normalmente um arquivo mapeado em memória).
+     * @return o valor lido.
+     */
+    public T ler(ByteBuffer entrada);
+
+    /**
+     * Método que informa quantos bytes, no mínimo, um valor codificado ocupa. O ArquivoArvore usa
+     * para rejeitar, antes de alocar, um cabeçalho com mais nós do que o arquivo comporta.
+     * @return o tamanho mínimo de um valor codificado; 0 se não houver mínimo.
+     */
+    public default int tamanhoMinimo() {
+        return 0;
+    }
+}
@@ -0,0 +1,375 @@
+package lib;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/* Diário (write-ahead log) de uma ArvoreBinaria ou subclasse, guardado em um diretório.
+ *
+ * Depois de aberto, cada adicionar e cada remover da árvore é registrado em um arquivo só de
+ * acréscimos. Os registros são acumulados em memória e gravados com um único fsync a cada
+ * `registrosPorLote` registros (ou em sincronizar() e close()): um lote maior dá mais vazão,
+ * e em uma queda se perdem no máximo os registros do lote ainda não sincronizado.
+ *
+ * O diretório guarda gerações: retrato-N.arv é o estado da árvore no início de diario-N.log.
+ * abrir() carrega o retrato mais recente (pelo ArquivoArvore) e refaz os diários a partir dele.
+ * compactar() começa um diário novo, copia a árvore em memória e grava o retrato dessa geração
+ * em segundo plano, em retrato-N.tmp, renomeado para retrato-N.arv quando completo; só depois da
+ * renomeação estar no disco os arquivos das gerações anteriores são apagados. Um retrato-N.tmp
+ * deixado por uma compactação que falhou é apagado na hora, ou no próximo abrir() se houve queda.
+ *
+ * Se gravar um lote falhar, o arquivo volta ao tamanho do último fsync e o lote continua em
+ * memória para a próxima tentativa, sem o registro da operação que falhou (que não altera a
+ * árvore). Se nem isso for possível, o diário passa a recusar registros e a árvore, alterações.
+ *
+ * Formato de cada registro: tipo (byte), tamanho do valor (int), valor no formato do
+ * CodecValor e CRC32 do tipo e do valor (int). Um registro final incompleto ou com CRC errado
+ * (queda no meio de uma gravação) é descartado na recuperação.
+ *
+ * Como a própria árvore, o diário deve ser usado por uma thread por vez.
+ */
+public class DiarioArvore<T> implements Closeable {
+
+    private static final byte ADICIONAR = 1;
+    private static final byte REMOVER = 2;
+    private static final String PREFIXO_RETRATO = "retrato-";
+    private static final String SUFIXO_RETRATO = ".arv";
+    private static final String SUFIXO_TEMPORARIO = ".tmp";
+    private static final String PREFIXO_DIARIO = "diario-";
+    private static final String SUFIXO_DIARIO = ".log";
+
+    private final Path diretorio;
+    private final CodecValor<T> codec;
+    private final ArvoreBinaria<T> arvore;
+    private final int registrosPorLote;
+
+    private long geracao;
+    private FileChannel canal;
+    private OutputStream saidaArquivo;
+    // Tamanho do diário atual no último fsync
+    private long sincronizado;
+    // Erro que deixou o diário inconsistente com o arquivo; depois dele nenhum registro é aceito
+    private IOException falha = null;
+
+    // Registros do lote atual, ainda não gravados no arquivo
+    private final Buffer lote = new Buffer(1 << 16);
+    private final DataOutputStream saidaLote = new DataOutputStream(lote);
+    private int registrosNoLote = 0;
+    // Valor de um registro, codificado antes de se saber o seu tamanho
+    private final Buffer valor = new Buffer(256);
+    private final DataOutputStream saidaValor = new DataOutputStream(valor);
+    private final CRC32 crc = new CRC32();
+
+    private final ExecutorService compactador = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "compactacao-diario");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private CompletableFuture<Void> compactacao = CompletableFuture.completedFuture(null);
+
+    private DiarioArvore(Path diretorio, CodecValor<T> codec, ArvoreBinaria<T> arvore, int registrosPorLote) {
+        this.diretorio = diretorio;
+        this.codec = codec;
+        this.arvore = arvore;
+        this.registrosPorLote = registrosPorLote;
+    }
+
+    /* Recupera a árvore a partir do diretório (retrato mais recente + diários seguintes) e passa a
+     * registrar nele as alterações. A árvore deve estar vazia e não ter outro diário.
+     * Se o diretório não existir, ele é criado e a árvore começa vazia
+     */
+    public static <T> DiarioArvore<T> abrir(Path diretorio, CodecValor<T> codec, ArvoreBinaria<T> arvore,
+            int registrosPorLote) throws IOException {
+        if (registrosPorLote < 1) {
+            throw new IllegalArgumentException("O lote deve ter pelo menos um registro");
+        }
+        if (arvore.raiz != null || arvore.getDiario() != null) {
+            throw new IllegalArgumentException("A árvore deve estar vazia e sem diário");
+        }
+        Files.createDirectories(diretorio);
+        DiarioArvore<T> diario = new DiarioArvore<>(diretorio, codec, arvore, registrosPorLote);
+        diario.recuperar();
+        arvore.setDiario(diario);
+        return diario;
+    }
+
+    private void recuperar() throws IOException {
+        // Retratos temporários são de compactações interrompidas; o retrato anterior e os diários cobrem tudo
+        for (long numero : geracoes(PREFIXO_RETRATO, SUFIXO_TEMPORARIO)) {
+            Files.deleteIfExists(arquivo(PREFIXO_RETRATO, numero, SUFIXO_TEMPORARIO));
+        }
+        List<Long> retratos = geracoes(PREFIXO_RETRATO, SUFIXO_RETRATO);
+        List<Long> diarios = geracoes(PREFIXO_DIARIO, SUFIXO_DIARIO);
+        long inicio = 0;
+        if (!retratos.isEmpty()) {
+            inicio = retratos.get(retratos.size() - 1);
+            ArquivoArvore.carregar(arquivo(PREFIXO_RETRATO, inicio, SUFIXO_RETRATO), codec, arvore);
+        }
+        long ultima = inicio;
+        for (int i = 0; i < diarios.size(); i++) {
+            long numero = diarios.get(i);
+            if (numero < inicio) {
+                continue;
+            }
+            ultima = numero;
+            long validos = refazer(arquivo(PREFIXO_DIARIO, numero, SUFIXO_DIARIO));
+            if (validos >= 0) {
+                // Registro final danificado: só é aceitável no último diário, que é então truncado nele
+                if (i != diarios.size() - 1) {
+                    throw new IOException("Diário danificado antes do fim: " + arquivo(PREFIXO_DIARIO, numero, SUFIXO_DIARIO));
+                }
+                try (FileChannel danificado = FileChannel.open(arquivo(PREFIXO_DIARIO, numero, SUFIXO_DIARIO),
+                        StandardOpenOption.WRITE)) {
+                    danificado.truncate(validos);
+                    danificado.force(true);
+                }
+            }
+        }
+        // Cada abertura começa uma geração de diário nova, depois de tudo que já existe
+        abrirDiario(ultima + 1);
+    }
+
+    /* Aplica os registros do diário na árvore (que ainda não tem diário, então nada é registrado de novo).
+     * Retorna -1 se o arquivo terminou em um registro completo, ou a posição do primeiro registro danificado
+     */
+    private long refazer(Path arquivo) throws IOException {
+        long posicao = 0;
+        long tamanhoArquivo = Files.size(arquivo);
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivo), 1 << 16))) {
+            while (true) {
+                int tipo = entrada.read();
+                if (tipo < 0) {
+                    return -1;
+                }
+                byte[] bytes;
+                int crcGravado;
+                try {
+                    int tamanho = entrada.readInt();
+                    // Um tamanho maior que o resto do arquivo só pode vir de um registro danificado
+                    if (tamanho < 0 || posicao + 1 + 4 + tamanho + 4 > tamanhoArquivo) {
+                        return posicao;
+                    }
+                    bytes = new byte[tamanho];
+                    entrada.readFully(bytes);
+                    crcGravado = entrada.readInt();
+                } catch (EOFException e) {
+                    return posicao;
+                }
+                crc.reset();
+                crc.update(tipo);
+                crc.update(bytes, 0, bytes.length);
+                if ((int) crc.getValue() != crcGravado || (tipo != ADICIONAR && tipo != REMOVER)) {
+                    return posicao;
+                }
+                T lido = codec.ler(ByteBuffer.wrap(bytes));
+                if (tipo == ADICIONAR) {
+                    arvore.adicionar(lido);
+                } else {
+                    arvore.remover(lido);
+                }
+                posicao += 1 + 4 + bytes.length + 4;
+            }
+        }
+    }
+
+    void registrarAdicao(T valor) {
+        registrar(ADICIONAR, valor);
+    }
+
+    void registrarRemocao(T valor) {
+        registrar(REMOVER, valor);
+    }
+
+    /* Acrescenta o registro ao lote, gravando o lote se ele estiver completo. Se algo falhar o registro
+     * sai do lote e a exceção chega à árvore antes que ela se altere (ou, na remoção, ela desfaz a alteração)
+     */
+    private void registrar(byte tipo, T registro) {
+        if (falha != null) {
+            throw new UncheckedIOException(new IOException("O diário falhou e não aceita mais registros", falha));
+        }
+        int inicioRegistro = lote.size();
+        int registrosAntes = registrosNoLote;
+        try {
+            valor.reset();
+            codec.escrever(registro, saidaValor);
+            crc.reset();
+            crc.update(tipo);
+            crc.update(valor.bytes(), 0, valor.size());
+            saidaLote.writeByte(tipo);
+            saidaLote.writeInt(valor.size());
+            valor.writeTo(saidaLote);
+            saidaLote.writeInt((int) crc.getValue());
+            if (++registrosNoLote >= registrosPorLote) {
+                sincronizar();
+            }
+        } catch (IOException e) {
+            lote.voltarPara(inicioRegistro);
+            registrosNoLote = registrosAntes;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Grava o lote pendente e espera o fsync: ao retornar, todas as alterações feitas até aqui sobrevivem a uma queda
+    public void sincronizar() throws IOException {
+        if (falha != null) {
+            throw new IOException("O diário falhou e não aceita mais registros", falha);
+        }
+        if (registrosNoLote == 0) {
+            return;
+        }
+        try {
+            lote.writeTo(saidaArquivo);
+            canal.force(false);
+        } catch (IOException e) {
+            /* Parte do lote pode ter chegado ao arquivo. Sem cortá-la, a próxima tentativa gravaria o
+             * lote depois de bytes soltos e a recuperação pararia neles, perdendo o que viesse depois
+             */
+            try {
+                canal.truncate(sincronizado);
+            } catch (IOException erroAoCortar) {
+                e.addSuppressed(erroAoCortar);
+                falha = e;
+            }
+            throw e;
+        }
+        sincronizado += lote.size();
+        lote.reset();
+        registrosNoLote = 0;
+    }
+
+    /* Começa uma geração nova de diário e grava, em segundo plano, o retrato da árvore que corresponde
+     * ao início dela. Na thread que chama só ficam o fsync do diário atual e uma cópia da árvore em memória.
+     * O futuro termina quando o retrato estiver no disco e as gerações antigas tiverem sido apagadas
+     */
+    public CompletableFuture<Void> compactar() throws IOException {
+        // Uma compactação por vez. Se a anterior falhou, as gerações antigas continuam lá e nada se perde
+        compactacao.handle((r, e) -> null).join();
+        sincronizar();
+        canal.close();
+        long novaGeracao = geracao + 1;
+        abrirDiario(novaGeracao);
+        ArquivoArvore.Retrato retrato = ArquivoArvore.capturar(arvore);
+        compactacao = CompletableFuture.runAsync(() -> {
+            Path temporario = arquivo(PREFIXO_RETRATO, novaGeracao, SUFIXO_TEMPORARIO);
+            try {
+                ArquivoArvore.gravarRetrato(retrato, codec, temporario);
+                Files.move(temporario, arquivo(PREFIXO_RETRATO, novaGeracao, SUFIXO_RETRATO),
+                        StandardCopyOption.ATOMIC_MOVE);
+                // A renomeação só sobrevive a uma queda depois do fsync do diretório
+                sincronizarDiretorio();
+                apagarAnteriores(novaGeracao);
+            } catch (IOException e) {
+                try {
+                    Files.deleteIfExists(temporario);
+                } catch (IOException erroAoApagar) {
+                    e.addSuppressed(erroAoApagar);
+                }
+                throw new UncheckedIOException(e);
+            }
+        }, compactador);
+        return compactacao;
+    }
+
+    // Sincroniza o lote pendente, espera a compactação em andamento e desliga o diário da árvore
+    @Override
+    public void close() throws IOException {
+        try {
+            sincronizar();
+            compactacao.handle((r, e) -> null).join();
+        } finally {
+            canal.close();
+            compactador.shutdown();
+            arvore.setDiario(null);
+        }
+    }
+
+    private void abrirDiario(long numero) throws IOException {
+        geracao = numero;
+        canal = FileChannel.open(arquivo(PREFIXO_DIARIO, numero, SUFIXO_DIARIO),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        saidaArquivo = Channels.newOutputStream(canal);
+        sincronizado = canal.size();
+    }
+
+    /* Força para o disco as entradas do diretório (como a renomeação do retrato). No Windows um
+     * diretório não pode ser aberto assim; lá a renomeação já é durável e a falha é ignorada
+     */
+    private void sincronizarDiretorio() throws IOException {
+        try (FileChannel canalDiretorio = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            canalDiretorio.force(true);
+        } catch (IOException e) {
+            if (!System.getProperty("os.name").startsWith("Windows")) {
+                throw e;
+            }
+        }
+    }
+
+    private void apagarAnteriores(long geracaoAtual) throws IOException {
+        for (long numero : geracoes(PREFIXO_DIARIO, SUFIXO_DIARIO)) {
+            if (numero < geracaoAtual) {
+                Files.deleteIfExists(arquivo(PREFIXO_DIARIO, numero, SUFIXO_DIARIO));
+            }
+        }
+        for (long numero : geracoes(PREFIXO_RETRATO, SUFIXO_RETRATO)) {
+            if (numero < geracaoAtual) {
+                Files.deleteIfExists(arquivo(PREFIXO_RETRATO, numero, SUFIXO_RETRATO));
+            }
+        }
+    }
+
+    // ByteArrayOutputStream que deixa ler o vetor interno sem copiá-lo e descartar o fim do conteúdo
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer(int capacidade) {
+            super(capacidade);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+
+        void voltarPara(int tamanho) {
+            count = tamanho;
+        }
+    }
+
+    private Path arquivo(String prefixo, long numero, String sufixo) {
+        return diretorio.resolve(prefixo + numero + sufixo);
+    }
+
+    // Números das gerações que têm arquivo com o prefixo e sufixo dados, em ordem crescente
+    private List<Long> geracoes(String prefixo, String sufixo) throws IOException {
+        List<Long> numeros = new ArrayList<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, prefixo + "*" + sufixo)) {
+            for (Path arquivo : arquivos) {
+                String nome = arquivo.getFileName().toString();
+                try {
+                    numeros.add(Long.parseLong(nome.substring(prefixo.length(), nome.length() - sufixo.length())));
+                } catch (NumberFormatException e) {
+                    // não é um arquivo do diário
+                }
+            }
+        }
+        numeros.sort(null);
+        return numeros;
+    }
+}
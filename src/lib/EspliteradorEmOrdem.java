@@ -0,0 +1,103 @@
+package lib;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/*
+ * Spliterator do caminhamento em ordem que se divide por faixas de posição (rank).
+ * Cada parte cobre as posições [origem, fim) e só se posiciona na árvore quando começa
+ * a andar, descendo pela raiz com os tamanhos armazenados em O(altura).
+ * Assim trySplit custa O(1), divide sempre ao meio e os tamanhos são exatos (SIZED/SUBSIZED),
+ * o que permite stream() e parallelStream() sobre a árvore.
+ * A árvore não deve ser modificada enquanto o spliterator estiver em uso.
+ */
+class EspliteradorEmOrdem<T> implements Spliterator<T> {
+
+    private final No<T> raiz;
+    private final Comparator<? super T> comparador;
+    private int origem;
+    private final int fim;
+    // Caminho até o próximo nó a visitar; null enquanto a parte ainda não começou a andar
+    private ArrayDeque<No<T>> pilha;
+
+    EspliteradorEmOrdem(No<T> raiz, Comparator<? super T> comparador, int origem, int fim) {
+        this.raiz = raiz;
+        this.comparador = comparador;
+        this.origem = origem;
+        this.fim = fim;
+    }
+
+    // Monta a pilha do caminhamento em ordem já posicionada no nó de posição `origem`
+    private void posicionar() {
+        pilha = new ArrayDeque<>();
+        No<T> no = raiz;
+        int k = origem;
+        while (no != null) {
+            int tamEsquerda = No.tamanhoArmazenado(no.getFilhoEsquerda());
+            if (k < tamEsquerda) {
+                // O nó vem depois da posição procurada, fica pendente na pilha
+                pilha.push(no);
+                no = no.getFilhoEsquerda();
+            } else if (k == tamEsquerda) {
+                pilha.push(no);
+                return;
+            } else {
+                // O nó e sua esquerda já ficaram para trás
+                k -= tamEsquerda + 1;
+                no = no.getFilhoDireita();
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> acao) {
+        if (origem >= fim) {
+            return false;
+        }
+        if (pilha == null) {
+            posicionar();
+        }
+        No<T> no = pilha.pop();
+        No<T> proximo = no.getFilhoDireita();
+        while (proximo != null) {
+            pilha.push(proximo);
+            proximo = proximo.getFilhoEsquerda();
+        }
+        origem++;
+        acao.accept(no.getValor());
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        // Depois de começar a andar a parte não é mais dividida
+        if (pilha != null) {
+            return null;
+        }
+        int meio = (origem + fim) >>> 1;
+        if (meio <= origem) {
+            return null;
+        }
+        // A primeira metade vai para a nova parte, esta fica com a segunda
+        EspliteradorEmOrdem<T> prefixo = new EspliteradorEmOrdem<>(raiz, comparador, origem, meio);
+        origem = meio;
+        return prefixo;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fim - origem;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SORTED | SIZED | SUBSIZED;
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        return comparador;
+    }
+}
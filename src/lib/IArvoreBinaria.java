@@ -5,7 +5,12 @@
  */
 package lib;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *
@@ -18,7 +23,7 @@ import java.util.Comparator;
  * 
  * @param <T>
  */
-public interface IArvoreBinaria<T> {
+public interface IArvoreBinaria<T> extends Iterable<T> {
     
     
     
@@ -71,12 +76,97 @@ public interface IArvoreBinaria<T> {
      * Metódo que retona o resultado do caminhamento em nível na árvore.
      * @return String contendo os toString dos valores armazenados nos nós, separados por " \n ". Os nós devem ser percorridos em nível. A String deve iniciar com "[" e finalizar com "]"
      */
-    public String caminharEmNivel();
+    public default String caminharEmNivel() {
+        StringBuilder result = new StringBuilder();
+        try {
+            caminharEmNivel(result);
+        } catch (IOException e) {
+            // StringBuilder não lança IOException
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
     
     /**
      * Metódo que retona o resultado do caminhamento em ordem na árvore.
      * @return String contendo os toString dos valores armazenados nos nós, separados por " \n ". Os nós devem ser percorridos em ordem. A String deve iniciar com "[" e finalizar com "]"
      */
-    public String caminharEmOrdem();
+    public default String caminharEmOrdem() {
+        StringBuilder result = new StringBuilder();
+        try {
+            caminharEmOrdem(result);
+        } catch (IOException e) {
+            // StringBuilder não lança IOException
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Método que retorna um iterador preguiçoso do caminhamento em ordem. Os valores são produzidos sob demanda,
+     * então é possível parar antes do fim sem percorrer a árvore inteira.
+     * A árvore não deve ser modificada enquanto o iterador estiver em uso.
+     * @return Iterador sobre os valores da árvore em ordem crescente do comparador.
+     */
+    @Override
+    public Iterator<T> iterator();
+
+    /**
+     * Método que retorna um iterador preguiçoso do caminhamento em ordem reversa.
+     * @return Iterador sobre os valores da árvore em ordem decrescente do comparador.
+     */
+    public Iterator<T> iteradorReverso();
+
+    /**
+     * Método que retorna um iterador preguiçoso do caminhamento em nível.
+     * @return Iterador sobre os valores da árvore nível a nível, da esquerda para a direita.
+     */
+    public Iterator<T> iteradorEmNivel();
+
+    /**
+     * Método que retorna um Stream sequencial dos valores em ordem, construído sobre spliterator().
+     * @return Stream dos valores da árvore em ordem.
+     */
+    public default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Método que retorna um Stream paralelo dos valores em ordem. Só é eficiente se spliterator() souber se dividir.
+     * @return Stream paralelo dos valores da árvore em ordem.
+     */
+    public default Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Metódo que escreve o caminhamento em nível diretamente em um Appendable (StringBuilder, Writer...), sem montar uma String intermediária.
+     * @param saida - destino do caminhamento, no mesmo formato de caminharEmNivel().
+     * @throws IOException se a escrita na saída falhar.
+     */
+    public default void caminharEmNivel(Appendable saida) throws IOException {
+        saida.append('[');
+        Iterator<T> it = iteradorEmNivel();
+        while (it.hasNext()) {
+            saida.append(String.valueOf(it.next()));
+            if (it.hasNext()) {
+                saida.append(' ');
+            }
+        }
+        saida.append(']');
+    }
+
+    /**
+     * Metódo que escreve o caminhamento em ordem diretamente em um Appendable (StringBuilder, Writer...), sem montar uma String intermediária.
+     * @param saida - destino do caminhamento, no mesmo formato de caminharEmOrdem().
+     * @throws IOException se a escrita na saída falhar.
+     */
+    public default void caminharEmOrdem(Appendable saida) throws IOException {
+        saida.append('[');
+        for (T valor : this) {
+            saida.append(String.valueOf(valor)).append('\n');
+        }
+        saida.append(']');
+    }
 }
     
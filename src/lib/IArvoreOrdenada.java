@@ -0,0 +1,77 @@
+package lib;
+
+import java.util.Iterator;
+
+/**
+ * Árvore binária ordenada: além das operações de IArvoreBinaria, permite consultar a posição
+ * de um elemento na ordem do comparador e o elemento que ocupa uma posição (estatística de ordem),
+ * os vizinhos de um valor e os elementos de um intervalo, todos descendo a árvore uma única vez.
+ *
+ * @param <T>
+ */
+public interface IArvoreOrdenada<T> extends IArvoreBinaria<T> {
+
+    /**
+     * Método que conta quantos elementos da árvore são menores que o valor informado (rank).
+     * @param valor - valor da chave de busca, de acordo com o comparador que indexou a árvore. Não precisa estar na árvore.
+     * @return a quantidade de elementos estritamente menores que valor. Se o valor estiver na árvore, é a sua posição (a partir de 0) no caminhamento em ordem.
+     */
+    public int posicao(T valor);
+
+    /**
+     * Método que retorna o k-ésimo menor elemento da árvore (select).
+     * @param k - posição do elemento no caminhamento em ordem, a partir de 0.
+     * @return o elemento na posição k, ou null se k for negativo ou maior ou igual à quantidade de nós.
+     */
+    public T selecionar(int k);
+
+    /**
+     * Método que retorna o menor elemento da árvore.
+     * @return o menor elemento segundo o comparador, ou null se a árvore estiver vazia.
+     */
+    public T menor();
+
+    /**
+     * Método que retorna o maior elemento da árvore.
+     * @return o maior elemento segundo o comparador, ou null se a árvore estiver vazia.
+     */
+    public T maior();
+
+    /**
+     * Método que retorna o maior elemento menor ou igual ao valor (floor).
+     * @param valor - valor da chave de busca. Não precisa estar na árvore.
+     * @return o elemento encontrado, ou null se todos forem maiores que valor.
+     */
+    public T piso(T valor);
+
+    /**
+     * Método que retorna o menor elemento maior ou igual ao valor (ceiling).
+     * @param valor - valor da chave de busca. Não precisa estar na árvore.
+     * @return o elemento encontrado, ou null se todos forem menores que valor.
+     */
+    public T teto(T valor);
+
+    /**
+     * Método que retorna o maior elemento estritamente menor que o valor.
+     * @param valor - valor da chave de busca. Não precisa estar na árvore.
+     * @return o elemento encontrado, ou null se nenhum for menor que valor.
+     */
+    public T antecessor(T valor);
+
+    /**
+     * Método que retorna o menor elemento estritamente maior que o valor.
+     * @param valor - valor da chave de busca. Não precisa estar na árvore.
+     * @return o elemento encontrado, ou null se nenhum for maior que valor.
+     */
+    public T sucessor(T valor);
+
+    /**
+     * Método que retorna um iterador preguiçoso, em ordem, dos elementos entre min e max, inclusive.
+     * As subárvores fora do intervalo não são visitadas, então percorrer k elementos custa O(altura + k).
+     * A árvore não deve ser modificada enquanto o iterador estiver em uso.
+     * @param min - limite inferior do intervalo, de acordo com o comparador da árvore.
+     * @param max - limite superior do intervalo, de acordo com o comparador da árvore.
+     * @return Iterador sobre os elementos do intervalo; vazio se min for maior que max.
+     */
+    public Iterator<T> intervalo(T min, T max);
+}
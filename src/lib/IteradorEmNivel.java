@@ -0,0 +1,58 @@
+package lib;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/*
+ * Iterador preguiçoso do caminhamento em nível de uma subárvore, da raiz para as folhas
+ * e da esquerda para a direita em cada nível. A fila só guarda a fronteira ainda não visitada.
+ * A árvore não deve ser modificada enquanto o iterador estiver em uso.
+ *
+ * Como o IteradorEmOrdem, serve a qualquer tipo de nó N.
+ */
+class IteradorEmNivel<N, T> implements Iterator<T> {
+
+    private final ArrayDeque<N> fila = new ArrayDeque<>();
+    private final UnaryOperator<N> esquerda;
+    private final UnaryOperator<N> direita;
+    private final Function<N, T> valor;
+
+    IteradorEmNivel(N raiz, UnaryOperator<N> esquerda, UnaryOperator<N> direita, Function<N, T> valor) {
+        this.esquerda = esquerda;
+        this.direita = direita;
+        this.valor = valor;
+        if (raiz != null) {
+            fila.add(raiz);
+        }
+    }
+
+    // Iterador sobre uma subárvore de No
+    static <T> IteradorEmNivel<No<T>, T> de(No<T> raiz) {
+        return new IteradorEmNivel<>(raiz, No::getFilhoEsquerda, No::getFilhoDireita, No::getValor);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !fila.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        N no = fila.poll();
+        if (no == null) {
+            throw new NoSuchElementException();
+        }
+        N filho = esquerda.apply(no);
+        if (filho != null) {
+            fila.add(filho);
+        }
+        filho = direita.apply(no);
+        if (filho != null) {
+            fila.add(filho);
+        }
+        return valor.apply(no);
+    }
+}
@@ -0,0 +1,62 @@
+package lib;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/*
+ * Iterador preguiçoso do caminhamento em ordem (ou em ordem reversa) de uma subárvore.
+ * Guarda apenas o caminho até o próximo nó, então usa memória O(altura) e o chamador
+ * pode parar a qualquer momento sem ter percorrido a árvore inteira.
+ * A árvore não deve ser modificada enquanto o iterador estiver em uso.
+ *
+ * Serve a qualquer tipo de nó N: quem cria o iterador diz como chegar aos filhos e ao valor
+ * (a ArvoreBinaria usa No, a ArvoreAVLPersistente os seus nós imutáveis).
+ */
+class IteradorEmOrdem<N, T> implements Iterator<T> {
+
+    private final ArrayDeque<N> pilha = new ArrayDeque<>();
+    private final boolean reverso;
+    private final UnaryOperator<N> esquerda;
+    private final UnaryOperator<N> direita;
+    private final Function<N, T> valor;
+
+    IteradorEmOrdem(N raiz, boolean reverso, UnaryOperator<N> esquerda, UnaryOperator<N> direita,
+                    Function<N, T> valor) {
+        this.reverso = reverso;
+        this.esquerda = esquerda;
+        this.direita = direita;
+        this.valor = valor;
+        empilharBorda(raiz);
+    }
+
+    // Iterador sobre uma subárvore de No
+    static <T> IteradorEmOrdem<No<T>, T> de(No<T> raiz, boolean reverso) {
+        return new IteradorEmOrdem<>(raiz, reverso, No::getFilhoEsquerda, No::getFilhoDireita, No::getValor);
+    }
+
+    // Empilha o caminho até o primeiro nó da subárvore: o mais à esquerda, ou o mais à direita no reverso
+    private void empilharBorda(N no) {
+        while (no != null) {
+            pilha.push(no);
+            no = reverso ? direita.apply(no) : esquerda.apply(no);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !pilha.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (pilha.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        N no = pilha.pop();
+        empilharBorda(reverso ? esquerda.apply(no) : direita.apply(no));
+        return valor.apply(no);
+    }
+}
@@ -0,0 +1,54 @@
+package lib;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ * Iterador em ordem restrito aos valores entre min e max, inclusive.
+ * A pilha começa posicionada no primeiro valor maior ou igual a min, sem empilhar as
+ * subárvores que ficam inteiras abaixo dele, e o iterador termina no primeiro valor maior que max.
+ * A árvore não deve ser modificada enquanto o iterador estiver em uso.
+ */
+class IteradorIntervalo<T> implements Iterator<T> {
+
+    private final ArrayDeque<No<T>> pilha = new ArrayDeque<>();
+    private final Comparator<? super T> comparador;
+    private final T max;
+
+    IteradorIntervalo(No<T> raiz, Comparator<? super T> comparador, T min, T max) {
+        this.comparador = comparador;
+        this.max = max;
+        No<T> no = raiz;
+        while (no != null) {
+            if (comparador.compare(min, no.getValor()) <= 0) {
+                // O nó está no intervalo ou acima dele; fica pendente e a busca continua à esquerda
+                pilha.push(no);
+                no = no.getFilhoEsquerda();
+            } else {
+                // O nó e sua subárvore esquerda estão abaixo de min
+                no = no.getFilhoDireita();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !pilha.isEmpty() && comparador.compare(pilha.peek().getValor(), max) <= 0;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        No<T> no = pilha.pop();
+        No<T> proximo = no.getFilhoDireita();
+        while (proximo != null) {
+            pilha.push(proximo);
+            proximo = proximo.getFilhoEsquerda();
+        }
+        return no.getValor();
+    }
+}
@@ -0,0 +1,244 @@
+package lib;
+
+import java.util.Comparator;
+
+/* Contadores de uma ArvoreBinaria (ou subclasse) ligados por ativarMetricas(), para saber se uma
+ * operação lenta vem da forma da árvore, do custo do comparador ou do rebalanceamento.
+ *
+ * São contados:
+ *  - todas as chamadas ao comparador da árvore, inclusive as de adicionarTodos e dos iteradores de intervalo;
+ *  - por operação (pesquisar, adicionar e remover): quantas foram feitas, quantos nós foram visitados
+ *    e um histograma das latências. As operações em lote (adicionarTodos, pesquisarLote e removerLote)
+ *    não entram aqui, nem quando a árvore as faz elemento a elemento: entram só as suas comparações
+ *    e rotações;
+ *  - rotações simples e duplas, nas árvores que se ajustam por rotações (ArvoreAVL e ArvoreSplay,
+ *    onde os passos zig-zig e zig-zag contam como duplos).
+ *
+ * Em todas as descidas da árvore cada nó visitado custa exatamente uma comparação, então os nós
+ * visitados por uma operação são as comparações feitas durante ela. A descida até o sucessor na
+ * remoção de um nó com dois filhos não compara e não entra na conta.
+ *
+ * O histograma tem uma faixa por potência de 2 de nanossegundos, então os percentis são
+ * aproximados para cima (no máximo o dobro do valor real). A maior latência de cada operação é
+ * guardada à parte, exata.
+ *
+ * Como a árvore, não é thread-safe. Os valores são lidos por getMetricas() da árvore, que
+ * devolve um Retrato imutável.
+ */
+public final class MetricasArvore {
+
+    // Operações medidas
+    public enum Operacao { PESQUISAR, ADICIONAR, REMOVER }
+
+    // Faixa i do histograma: latências em [2^i, 2^(i+1)) ns; a faixa 0 também recebe o 0
+    private static final int FAIXAS = 64;
+    private static final int OPERACOES = Operacao.values().length;
+
+    private long comparacoes = 0;
+    private long rotacoesSimples = 0;
+    private long rotacoesDuplas = 0;
+    private final long[] quantidade = new long[OPERACOES];
+    private final long[] nosVisitados = new long[OPERACOES];
+    private final long[][] latencias = new long[OPERACOES][FAIXAS];
+    // Maior latência exata de cada operação, fora do histograma
+    private final long[] maximo = new long[OPERACOES];
+
+    // Comparações e instante no início da operação em andamento (as operações da árvore não se aninham)
+    private long comparacoesNoInicio;
+    // Lotes em andamento; enquanto houver algum, registrar() não conta nada
+    private int lotes = 0;
+
+    MetricasArvore() {
+    }
+
+    // Chamado no início de uma operação medida; retorna o instante para registrar()
+    long iniciar() {
+        comparacoesNoInicio = comparacoes;
+        return System.nanoTime();
+    }
+
+    // Chamado no fim da operação iniciada em `inicio`
+    void registrar(Operacao operacao, long inicio) {
+        if (lotes > 0) {
+            return;
+        }
+        long nanos = System.nanoTime() - inicio;
+        int i = operacao.ordinal();
+        quantidade[i]++;
+        nosVisitados[i] += comparacoes - comparacoesNoInicio;
+        latencias[i][faixa(nanos)]++;
+        if (nanos > maximo[i]) {
+            maximo[i] = nanos;
+        }
+    }
+
+    // Marcam o começo e o fim de uma operação em lote, cujas operações internas não são registradas
+    void iniciarLote() {
+        lotes++;
+    }
+
+    void terminarLote() {
+        lotes--;
+    }
+
+    void contarRotacao(boolean dupla) {
+        if (dupla) {
+            rotacoesDuplas++;
+        } else {
+            rotacoesSimples++;
+        }
+    }
+
+    private static int faixa(long nanos) {
+        return nanos <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    // Envolve o comparador da árvore para contar as chamadas
+    <T> Comparator<T> contar(Comparator<T> comparador) {
+        return new ComparadorContado<>(comparador, this);
+    }
+
+    // Retorna o comparador original, se o informado for um comparador contado
+    @SuppressWarnings("unchecked")
+    static <T> Comparator<T> original(Comparator<T> comparador) {
+        if (comparador instanceof ComparadorContado) {
+            return ((ComparadorContado<T>) comparador).original;
+        }
+        return comparador;
+    }
+
+    Retrato retrato(int altura, int tamanho) {
+        long[][] copia = new long[OPERACOES][];
+        for (int i = 0; i < OPERACOES; i++) {
+            copia[i] = latencias[i].clone();
+        }
+        return new Retrato(comparacoes, rotacoesSimples, rotacoesDuplas, altura, tamanho,
+                quantidade.clone(), nosVisitados.clone(), copia, maximo.clone());
+    }
+
+    private static final class ComparadorContado<T> implements Comparator<T> {
+        private final Comparator<T> original;
+        private final MetricasArvore metricas;
+
+        ComparadorContado(Comparator<T> original, MetricasArvore metricas) {
+            this.original = original;
+            this.metricas = metricas;
+        }
+
+        @Override
+        public int compare(T a, T b) {
+            metricas.comparacoes++;
+            return original.compare(a, b);
+        }
+    }
+
+    // Cópia imutável das métricas em um instante, junto com a altura e o tamanho da árvore
+    public static final class Retrato {
+        private final long comparacoes;
+        private final long rotacoesSimples;
+        private final long rotacoesDuplas;
+        private final int altura;
+        private final int tamanho;
+        private final long[] quantidade;
+        private final long[] nosVisitados;
+        private final long[][] latencias;
+        private final long[] maximo;
+
+        private Retrato(long comparacoes, long rotacoesSimples, long rotacoesDuplas, int altura, int tamanho,
+                        long[] quantidade, long[] nosVisitados, long[][] latencias, long[] maximo) {
+            this.comparacoes = comparacoes;
+            this.rotacoesSimples = rotacoesSimples;
+            this.rotacoesDuplas = rotacoesDuplas;
+            this.altura = altura;
+            this.tamanho = tamanho;
+            this.quantidade = quantidade;
+            this.nosVisitados = nosVisitados;
+            this.latencias = latencias;
+            this.maximo = maximo;
+        }
+
+        public long getComparacoes() {
+            return comparacoes;
+        }
+
+        public long getRotacoesSimples() {
+            return rotacoesSimples;
+        }
+
+        public long getRotacoesDuplas() {
+            return rotacoesDuplas;
+        }
+
+        // Altura da árvore, como retornada pelo seu altura()
+        public int getAltura() {
+            return altura;
+        }
+
+        public int getTamanho() {
+            return tamanho;
+        }
+
+        public long getQuantidade(Operacao operacao) {
+            return quantidade[operacao.ordinal()];
+        }
+
+        public long getNosVisitados(Operacao operacao) {
+            return nosVisitados[operacao.ordinal()];
+        }
+
+        public double getMediaNosVisitados(Operacao operacao) {
+            long q = getQuantidade(operacao);
+            return q == 0 ? 0 : (double) getNosVisitados(operacao) / q;
+        }
+
+        /* Limite superior, em nanossegundos, da latência abaixo da qual ficam `percentil` (0 a 100)
+         * das operações: o fim da faixa do histograma onde o percentil cai. Retorna 0 sem operações
+         */
+        public long percentilLatencia(Operacao operacao, double percentil) {
+            if (percentil < 0 || percentil > 100) {
+                throw new IllegalArgumentException("O percentil deve estar entre 0 e 100");
+            }
+            long q = getQuantidade(operacao);
+            if (q == 0) {
+                return 0;
+            }
+            long posicao = Math.max(1, (long) Math.ceil(q * percentil / 100));
+            long acumulado = 0;
+            long[] faixas = latencias[operacao.ordinal()];
+            for (int i = 0; i < FAIXAS; i++) {
+                acumulado += faixas[i];
+                if (acumulado >= posicao) {
+                    return i == FAIXAS - 1 ? Long.MAX_VALUE : (2L << i) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        // Maior latência medida da operação, em nanossegundos (0 sem operações)
+        public long getLatenciaMaxima(Operacao operacao) {
+            return maximo[operacao.ordinal()];
+        }
+
+        // Quantas operações caíram em cada faixa do histograma (faixa i: [2^i, 2^(i+1)) ns)
+        public long[] getHistograma(Operacao operacao) {
+            return latencias[operacao.ordinal()].clone();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder s = new StringBuilder();
+            s.append(String.format("Quantidade de Nós: %d Altura: %d%n", tamanho, altura));
+            s.append(String.format("Comparações: %d Rotações simples: %d Rotações duplas: %d%n",
+                    comparacoes, rotacoesSimples, rotacoesDuplas));
+            s.append(String.format("%-10s %12s %12s %10s %10s %10s%n",
+                    "Operação", "quantidade", "nós/op", "p50 (ns)", "p99 (ns)", "máx (ns)"));
+            for (Operacao operacao : Operacao.values()) {
+                s.append(String.format("%-10s %12d %12.2f %10d %10d %10d%n", operacao.name().toLowerCase(),
+                        getQuantidade(operacao), getMediaNosVisitados(operacao),
+                        percentilLatencia(operacao, 50), percentilLatencia(operacao, 99),
+                        getLatenciaMaxima(operacao)));
+            }
+            return s.toString();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package lib;
 
+import java.util.ArrayDeque;
+
 /**
  *
  * @author victoriocarvalho
@@ -13,12 +15,17 @@ public class No<T> {
     private T valor; // Valor que esta armazenado no No
     private No<T> filhoDireita; // Referencia para o filho direito
     private No<T> filhoEsquerda; // Referencia para o filho esquerdo
+    private No<T> pai; // Referencia para o pai, mantida pelos setters dos filhos (null na raiz)
+    private int altura; // Altura armazenada da subarvore deste No (folha = 0), mantida pela ArvoreAVL
+    private int tamanho; // Quantidade de nos da subarvore deste No, incluindo ele mesmo
 
     // Construtor da classe No
     public No(T valor){
         this.valor = valor;
         this.filhoDireita = null;
         this.filhoEsquerda = null;
+        this.altura = 0;
+        this.tamanho = 1;
     }
 
     // Getter para obter o valor do No
@@ -39,6 +46,9 @@ public class No<T> {
     // Setter para definir o filho direito do no
     public void setFilhoDireita(No<T> filhoDireita) {
         this.filhoDireita = filhoDireita;
+        if (filhoDireita != null){
+            filhoDireita.pai = this;
+        }
     }
 
    // Getter para obter o filho esquerdo do no
@@ -49,38 +59,92 @@ public class No<T> {
     // Setter para definir o filho esquerdo do no
     public void setFilhoEsquerda(No<T> filhoEsquerda) {
         this.filhoEsquerda = filhoEsquerda;
+        if (filhoEsquerda != null){
+            filhoEsquerda.pai = this;
+        }
     }
 
-    // Metodo para calcular a altura do no
-    public int altura() {
-        return obterAltura(this);
+    /* Getter para obter o pai do no. Vale para nos que estao na arvore: o no solto por uma
+     * remocao continua apontando para o pai antigo
+     */
+    public No<T> getPai() {
+        return pai;
+    }
+
+    // Usado pela arvore quando o no passa a ser a raiz
+    void soltarDoPai() {
+        this.pai = null;
     }
 
-    // Método privado auxiliar para calcular a altura de um no
-    private int obterAltura(No<T> no){
-        // Se o no for nulo a altura eh 0
-        if (no == null){
-            return -1;
+    /* Metodo para calcular a altura do no percorrendo a subarvore nivel a nivel.
+     * Usa uma fila no heap em vez de recursao, entao nao estoura a pilha em arvores degeneradas
+     */
+    public int altura() {
+        ArrayDeque<No<T>> fila = new ArrayDeque<>();
+        fila.add(this);
+        int altura = -1;
+        while (!fila.isEmpty()){
+            // Cada volta do laco consome exatamente um nivel da subarvore
+            altura++;
+            for (int i = fila.size(); i > 0; i--){
+                No<T> no = fila.poll();
+                if (no.getFilhoEsquerda() != null){
+                    fila.add(no.getFilhoEsquerda());
+                }
+                if (no.getFilhoDireita() != null){
+                    fila.add(no.getFilhoDireita());
+                }
+            }
         }
+        return altura;
+    }
 
-        // Recursivamente calcula a altura da subarvore esquerda
-        int altE = obterAltura(no.getFilhoEsquerda());
+    // Getter para obter a altura armazenada no no
+    public int getAltura() {
+        return altura;
+    }
 
-        // Recursivamente calcula a altura da subarvore direita
-        int altD = obterAltura(no.getFilhoDireita());
+    /* Recalcula a altura armazenada a partir das alturas armazenadas dos filhos.
+     * Deve ser chamado de baixo para cima sempre que um filho do no mudar,
+     * por isso custa O(1) em vez de percorrer toda a subarvore
+     */
+    public void atualizarAltura() {
+        int altE = alturaArmazenada(filhoEsquerda);
+        int altD = alturaArmazenada(filhoDireita);
+        altura = (altE > altD ? altE : altD) + 1;
+    }
 
-        // Retorna a altura maxima entre as subarvores + 1
-        if (altE > altD){
-            return altE + 1;
-        }else {
-            return altD + 1;
-        }
+    // Retorna a altura armazenada de um no, ou -1 se o no for nulo
+    public static int alturaArmazenada(No<?> no) {
+        return no == null ? -1 : no.altura;
+    }
+
+    // Getter para obter a quantidade de nos da subarvore deste no
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    // Soma delta ao tamanho armazenado, usado ao descer por um caminho de insercao ou remocao
+    public void somarTamanho(int delta) {
+        tamanho += delta;
+    }
+
+    // Recalcula o tamanho armazenado a partir dos tamanhos armazenados dos filhos, em O(1)
+    public void atualizarTamanho() {
+        tamanho = tamanhoArmazenado(filhoEsquerda) + tamanhoArmazenado(filhoDireita) + 1;
+    }
+
+    // Retorna o tamanho armazenado de um no, ou 0 se o no for nulo
+    public static int tamanhoArmazenado(No<?> no) {
+        return no == null ? 0 : no.tamanho;
     }
 
-    // Metodo para calcular o fator de balanceamento do no
+    /* Metodo para calcular o fator de balanceamento do no.
+     * Usa as alturas armazenadas, entao so eh valido em arvores que as mantem (ArvoreAVL)
+     */
     public int fatorBalanceamento(){
         //Retorna a diferenca entre as alturas das subarvores direita e esquerda
-        return obterAltura(this.getFilhoDireita()) - obterAltura(this.getFilhoEsquerda());
+        return alturaArmazenada(filhoDireita) - alturaArmazenada(filhoEsquerda);
     }
 
-}
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package lib;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Resolve um lote de pesquisas em uma única descida coordenada, usada por ArvoreBinaria.pesquisarLote.
+ *
+ * As chaves são ordenadas uma vez. Em cada nó a faixa de chaves que chegou até ele é dividida por
+ * busca binária em três partes: as menores descem pela esquerda, as maiores pela direita e as
+ * iguais são resolvidas ali, como em pesquisar (o primeiro nó igual no caminho). Assim o prefixo
+ * de caminho comum a várias chaves é visitado uma vez só.
+ *
+ * Quando o lote se divide em um nó cuja subárvore tem mais de `limiar` nós, o lado direito vai
+ * para outra tarefa fork/join se tiver pelo menos MINIMO_PARALELO chaves. Cada tarefa escreve só
+ * nas posições das suas chaves, então o vetor de resultados é compartilhado sem sincronização.
+ */
+class PesquisaEmLote<T> extends RecursiveAction {
+
+    // Menos chaves que isso não compensam uma nova tarefa
+    private static final int MINIMO_PARALELO = 64;
+    private static final long serialVersionUID = 1L;
+
+    private final No<T> raiz;
+    private final int inicio;
+    private final int fim;
+    private final Lote<T> lote;
+
+    // O que é comum a todas as tarefas de um lote
+    private static final class Lote<T> {
+        final Object[] chaves;
+        final int[] posicoes;
+        final Object[] resultados;
+        final Comparator<? super T> comparador;
+        final int limiar;
+
+        Lote(Object[] chaves, int[] posicoes, Object[] resultados, Comparator<? super T> comparador, int limiar) {
+            this.chaves = chaves;
+            this.posicoes = posicoes;
+            this.resultados = resultados;
+            this.comparador = comparador;
+            this.limiar = limiar;
+        }
+    }
+
+    // Um nó ainda a descer com a faixa [inicio, fim) das chaves ordenadas
+    private static final class Pendente<T> {
+        final No<T> no;
+        final int inicio;
+        final int fim;
+
+        Pendente(No<T> no, int inicio, int fim) {
+            this.no = no;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+    }
+
+    private PesquisaEmLote(No<T> raiz, int inicio, int fim, Lote<T> lote) {
+        this.raiz = raiz;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.lote = lote;
+    }
+
+    /* Retorna, na mesma ordem das chaves, o valor encontrado para cada uma (null se não estiver na árvore).
+     * A descida é paralela no pool comum se a árvore tiver mais de `limiar` nós
+     */
+    @SuppressWarnings("unchecked")
+    static <T> List<T> executar(No<T> raiz, List<? extends T> chaves, Comparator<? super T> comparador, int limiar) {
+        int k = chaves.size();
+        int[] posicoes = ordenar(chaves, comparador);
+        Object[] ordenadas = new Object[k];
+        for (int i = 0; i < k; i++) {
+            ordenadas[i] = chaves.get(posicoes[i]);
+        }
+        Object[] resultados = new Object[k];
+        PesquisaEmLote<T> tarefa = new PesquisaEmLote<>(raiz, 0, k,
+                new Lote<>(ordenadas, posicoes, resultados, comparador, limiar));
+        if (No.tamanhoArmazenado(raiz) > limiar) {
+            ForkJoinPool.commonPool().invoke(tarefa);
+        } else {
+            tarefa.compute();
+        }
+        return (List<T>) Arrays.asList(resultados);
+    }
+
+    // Posições das chaves na ordem do comparador; empates mantêm a ordem do lote
+    static <T> int[] ordenar(List<? extends T> chaves, Comparator<? super T> comparador) {
+        Integer[] ordem = new Integer[chaves.size()];
+        for (int i = 0; i < ordem.length; i++) {
+            ordem[i] = i;
+        }
+        Arrays.sort(ordem, (a, b) -> comparador.compare(chaves.get(a), chaves.get(b)));
+        int[] posicoes = new int[ordem.length];
+        for (int i = 0; i < ordem.length; i++) {
+            posicoes[i] = ordem[i];
+        }
+        return posicoes;
+    }
+
+    @Override
+    protected void compute() {
+        List<PesquisaEmLote<T>> bifurcadas = new ArrayList<>();
+        ArrayDeque<Pendente<T>> pilha = new ArrayDeque<>();
+        pilha.push(new Pendente<>(raiz, inicio, fim));
+        while (!pilha.isEmpty()) {
+            Pendente<T> pendente = pilha.pop();
+            No<T> no = pendente.no;
+            int de = pendente.inicio;
+            int ate = pendente.fim;
+            while (no != null && de < ate) {
+                T valor = no.getValor();
+                int iguais = limite(valor, de, ate, false);
+                int maiores = limite(valor, iguais, ate, true);
+                for (int i = iguais; i < maiores; i++) {
+                    lote.resultados[lote.posicoes[i]] = valor;
+                }
+                if (de < iguais && maiores < ate) {
+                    // O lote se divide: a direita fica para depois (ou para outra tarefa) e segue pela esquerda
+                    if (no.getTamanho() > lote.limiar && ate - maiores >= MINIMO_PARALELO) {
+                        PesquisaEmLote<T> direita = new PesquisaEmLote<>(no.getFilhoDireita(), maiores, ate, lote);
+                        direita.fork();
+                        bifurcadas.add(direita);
+                    } else {
+                        pilha.push(new Pendente<>(no.getFilhoDireita(), maiores, ate));
+                    }
+                    no = no.getFilhoEsquerda();
+                    ate = iguais;
+                } else if (de < iguais) {
+                    no = no.getFilhoEsquerda();
+                    ate = iguais;
+                } else {
+                    no = no.getFilhoDireita();
+                    de = maiores;
+                }
+            }
+        }
+        for (PesquisaEmLote<T> tarefa : bifurcadas) {
+            tarefa.join();
+        }
+    }
+
+    /* Primeira posição de [de, ate) cuja chave é maior ou igual ao valor (ou estritamente maior,
+     * se `estrito`); as chaves estão ordenadas
+     */
+    @SuppressWarnings("unchecked")
+    private int limite(T valor, int de, int ate, boolean estrito) {
+        while (de < ate) {
+            int meio = (de + ate) >>> 1;
+            int c = lote.comparador.compare((T) lote.chaves[meio], valor);
+            if (c < 0 || (estrito && c == 0)) {
+                de = meio + 1;
+            } else {
+                ate = meio;
+            }
+        }
+        return de;
+    }
+}
@@ -0,0 +1,333 @@
+package lib;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ * Armazenamento de nós de árvore em vetores paralelos indexados por int.
+ *
+ * Cada nó é uma posição: filho à esquerda, filho à direita, altura, tamanho da subárvore e valor ficam em vetores
+ * separados, e os filhos são índices. Um pool criado com chaves guarda também uma chave int
+ * por nó, para árvores que comparam chaves primitivas (ArvoreAVLInt). Os vetores são divididos em blocos de tamanho fixo,
+ * então crescer só aloca um bloco novo e nunca copia os nós já existentes.
+ * Posições liberadas entram em uma lista livre (encadeada pelo vetor esquerda) e são
+ * reaproveitadas antes de se usar uma posição nova. compactar() renumera os nós vivos
+ * na ordem do caminhamento em ordem, eliminando os buracos e deixando vizinhos próximos na memória.
+ *
+ * As regras de balanceamento da AVL e os iteradores sobre índices ficam aqui, compartilhados
+ * pelas árvores que guardam os nós em um pool (ArvoreAVLCompacta e ArvoreAVLInt).
+ */
+class PoolDeNos {
+
+    // Índice que representa a ausência de nó
+    static final int NULO = -1;
+    // Altura máxima de uma AVL com até 2^31 nós é 45, então a pilha de caminhamento é fixa
+    static final int ALTURA_MAXIMA = 64;
+
+    private static final int BITS_BLOCO = 14;
+    private static final int TAMANHO_BLOCO = 1 << BITS_BLOCO;
+    private static final int MASCARA = TAMANHO_BLOCO - 1;
+
+    private int[][] esquerda = new int[0][];
+    private int[][] direita = new int[0][];
+    private byte[][] alturas = new byte[0][];
+    private int[][] tamanhos = new int[0][];
+    private Object[][] valores = new Object[0][];
+    // null no pool sem chaves
+    private int[][] chaves;
+
+    // Posições já usadas alguma vez; as que ficam acima disso nunca foram ocupadas
+    private int usados = 0;
+    // Início da lista de posições liberadas
+    private int livre = NULO;
+    private int quantidade = 0;
+
+    PoolDeNos() {
+        this(false);
+    }
+
+    PoolDeNos(boolean comChaves) {
+        chaves = comChaves ? new int[0][] : null;
+    }
+
+    // Aloca de uma vez os blocos necessários para `capacidade` nós
+    void reservar(int capacidade) {
+        while ((long) esquerda.length * TAMANHO_BLOCO < capacidade) {
+            novoBloco();
+        }
+    }
+
+    // Ocupa uma posição (reaproveitando uma liberada, se houver) como folha com o valor
+    int alocar(Object valor) {
+        int no;
+        if (livre != NULO) {
+            no = livre;
+            livre = getEsquerda(no);
+        } else {
+            if (usados == esquerda.length * TAMANHO_BLOCO) {
+                novoBloco();
+            }
+            no = usados++;
+        }
+        setEsquerda(no, NULO);
+        setDireita(no, NULO);
+        alturas[no >>> BITS_BLOCO][no & MASCARA] = 0;
+        tamanhos[no >>> BITS_BLOCO][no & MASCARA] = 1;
+        setValor(no, valor);
+        quantidade++;
+        return no;
+    }
+
+    // Devolve a posição para a lista livre e solta a referência ao valor
+    void liberar(int no) {
+        setValor(no, null);
+        setEsquerda(no, livre);
+        livre = no;
+        quantidade--;
+    }
+
+    int quantidade() {
+        return quantidade;
+    }
+
+    int getEsquerda(int no) {
+        return esquerda[no >>> BITS_BLOCO][no & MASCARA];
+    }
+
+    void setEsquerda(int no, int filho) {
+        esquerda[no >>> BITS_BLOCO][no & MASCARA] = filho;
+    }
+
+    int getDireita(int no) {
+        return direita[no >>> BITS_BLOCO][no & MASCARA];
+    }
+
+    void setDireita(int no, int filho) {
+        direita[no >>> BITS_BLOCO][no & MASCARA] = filho;
+    }
+
+    int getChave(int no) {
+        return chaves[no >>> BITS_BLOCO][no & MASCARA];
+    }
+
+    void setChave(int no, int chave) {
+        chaves[no >>> BITS_BLOCO][no & MASCARA] = chave;
+    }
+
+    Object getValor(int no) {
+        return valores[no >>> BITS_BLOCO][no & MASCARA];
+    }
+
+    void setValor(int no, Object valor) {
+        valores[no >>> BITS_BLOCO][no & MASCARA] = valor;
+    }
+
+    // Altura armazenada (folha = 0), ou -1 para NULO
+    int altura(int no) {
+        return no == NULO ? -1 : alturas[no >>> BITS_BLOCO][no & MASCARA];
+    }
+
+    // Quantidade de nós da subárvore, ou 0 para NULO
+    int tamanho(int no) {
+        return no == NULO ? 0 : tamanhos[no >>> BITS_BLOCO][no & MASCARA];
+    }
+
+    // Recalcula altura e tamanho a partir dos filhos; chamado de baixo para cima quando um filho muda
+    void atualizar(int no) {
+        int e = getEsquerda(no);
+        int d = getDireita(no);
+        alturas[no >>> BITS_BLOCO][no & MASCARA] = (byte) (Math.max(altura(e), altura(d)) + 1);
+        tamanhos[no >>> BITS_BLOCO][no & MASCARA] = tamanho(e) + tamanho(d) + 1;
+    }
+
+    int fatorBalanceamento(int no) {
+        return altura(getDireita(no)) - altura(getEsquerda(no));
+    }
+
+    // Mesmas regras de ArvoreAVL.balancear, sobre índices
+    int balancear(int no) {
+        int balanceamento = fatorBalanceamento(no);
+        if (balanceamento > 1) {
+            if (fatorBalanceamento(getDireita(no)) < 0) {
+                setDireita(no, rotacaoDireita(getDireita(no)));
+            }
+            return rotacaoEsquerda(no);
+        } else if (balanceamento < -1) {
+            if (fatorBalanceamento(getEsquerda(no)) > 0) {
+                setEsquerda(no, rotacaoEsquerda(getEsquerda(no)));
+            }
+            return rotacaoDireita(no);
+        }
+        return no;
+    }
+
+    private int rotacaoEsquerda(int r) {
+        int f = getDireita(r);
+        setDireita(r, getEsquerda(f));
+        setEsquerda(f, r);
+        atualizar(r);
+        atualizar(f);
+        return f;
+    }
+
+    private int rotacaoDireita(int r) {
+        int f = getEsquerda(r);
+        setEsquerda(r, getDireita(f));
+        setDireita(f, r);
+        atualizar(r);
+        atualizar(f);
+        return f;
+    }
+
+    /* Renumera os nós da árvore enraizada em raiz na ordem do caminhamento em ordem e
+     * descarta os blocos que sobrarem. Retorna o novo índice da raiz.
+     * Índices guardados fora do pool deixam de valer depois desta chamada
+     */
+    int compactar(int raiz) {
+        int n = quantidade;
+        int[] novoIndice = new int[usados];
+        int[] ordem = new int[n];
+        int[] pilha = new int[ALTURA_MAXIMA];
+        int topo = 0;
+        int i = 0;
+        int no = raiz;
+        while (no != NULO || topo > 0) {
+            while (no != NULO) {
+                pilha[topo++] = no;
+                no = getEsquerda(no);
+            }
+            no = pilha[--topo];
+            novoIndice[no] = i;
+            ordem[i++] = no;
+            no = getDireita(no);
+        }
+
+        int blocos = (n + TAMANHO_BLOCO - 1) >>> BITS_BLOCO;
+        int[][] novaEsquerda = new int[blocos][TAMANHO_BLOCO];
+        int[][] novaDireita = new int[blocos][TAMANHO_BLOCO];
+        byte[][] novasAlturas = new byte[blocos][TAMANHO_BLOCO];
+        int[][] novosTamanhos = new int[blocos][TAMANHO_BLOCO];
+        Object[][] novosValores = new Object[blocos][TAMANHO_BLOCO];
+        int[][] novasChaves = chaves == null ? null : new int[blocos][TAMANHO_BLOCO];
+        for (i = 0; i < n; i++) {
+            int antigo = ordem[i];
+            int e = getEsquerda(antigo);
+            int d = getDireita(antigo);
+            novaEsquerda[i >>> BITS_BLOCO][i & MASCARA] = e == NULO ? NULO : novoIndice[e];
+            novaDireita[i >>> BITS_BLOCO][i & MASCARA] = d == NULO ? NULO : novoIndice[d];
+            novasAlturas[i >>> BITS_BLOCO][i & MASCARA] = (byte) altura(antigo);
+            novosTamanhos[i >>> BITS_BLOCO][i & MASCARA] = tamanho(antigo);
+            novosValores[i >>> BITS_BLOCO][i & MASCARA] = getValor(antigo);
+            if (chaves != null) {
+                novasChaves[i >>> BITS_BLOCO][i & MASCARA] = getChave(antigo);
+            }
+        }
+        esquerda = novaEsquerda;
+        direita = novaDireita;
+        alturas = novasAlturas;
+        tamanhos = novosTamanhos;
+        valores = novosValores;
+        chaves = novasChaves;
+        usados = n;
+        livre = NULO;
+        return raiz == NULO ? NULO : novoIndice[raiz];
+    }
+
+    private void novoBloco() {
+        int blocos = esquerda.length + 1;
+        esquerda = Arrays.copyOf(esquerda, blocos);
+        direita = Arrays.copyOf(direita, blocos);
+        alturas = Arrays.copyOf(alturas, blocos);
+        tamanhos = Arrays.copyOf(tamanhos, blocos);
+        valores = Arrays.copyOf(valores, blocos);
+        esquerda[blocos - 1] = new int[TAMANHO_BLOCO];
+        direita[blocos - 1] = new int[TAMANHO_BLOCO];
+        alturas[blocos - 1] = new byte[TAMANHO_BLOCO];
+        tamanhos[blocos - 1] = new int[TAMANHO_BLOCO];
+        valores[blocos - 1] = new Object[TAMANHO_BLOCO];
+        if (chaves != null) {
+            chaves = Arrays.copyOf(chaves, blocos);
+            chaves[blocos - 1] = new int[TAMANHO_BLOCO];
+        }
+    }
+
+    // Iterador dos valores da subárvore em ordem (ou em ordem reversa)
+    <V> Iterator<V> emOrdem(int raiz, boolean reverso) {
+        return new IteradorEmOrdem<>(raiz, reverso);
+    }
+
+    // Iterador dos valores da subárvore em nível, da raiz para as folhas
+    <V> Iterator<V> emNivel(int raiz) {
+        return new IteradorEmNivel<>(raiz);
+    }
+
+    // Caminhamento em ordem com uma pilha de índices de tamanho fixo
+    private final class IteradorEmOrdem<V> implements Iterator<V> {
+        private final int[] pilha = new int[ALTURA_MAXIMA];
+        private int topo = 0;
+        private final boolean reverso;
+
+        IteradorEmOrdem(int raiz, boolean reverso) {
+            this.reverso = reverso;
+            empilharBorda(raiz);
+        }
+
+        private void empilharBorda(int no) {
+            while (no != NULO) {
+                pilha[topo++] = no;
+                no = reverso ? getDireita(no) : getEsquerda(no);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return topo > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (topo == 0) {
+                throw new NoSuchElementException();
+            }
+            int no = pilha[--topo];
+            empilharBorda(reverso ? getEsquerda(no) : getDireita(no));
+            return (V) getValor(no);
+        }
+    }
+
+    // Caminhamento em nível com uma fila de índices; cada nó entra nela uma única vez
+    private final class IteradorEmNivel<V> implements Iterator<V> {
+        private final int[] fila = new int[Math.max(quantidade, 1)];
+        private int inicio = 0;
+        private int fim = 0;
+
+        IteradorEmNivel(int raiz) {
+            if (raiz != NULO) {
+                fila[fim++] = raiz;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return inicio < fim;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (inicio == fim) {
+                throw new NoSuchElementException();
+            }
+            int no = fila[inicio++];
+            if (getEsquerda(no) != NULO) {
+                fila[fim++] = getEsquerda(no);
+            }
+            if (getDireita(no) != NULO) {
+                fila[fim++] = getDireita(no);
+            }
+            return (V) getValor(no);
+        }
+    }
+}
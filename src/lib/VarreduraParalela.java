@@ -0,0 +1,188 @@
+package lib;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/*
+ * Varredura de uma subárvore com fork/join, usada pelas buscas e filtros que não podem
+ * seguir a ordem do comparador da árvore.
+ *
+ * Subárvores com até `limiar` nós são varridas sequencialmente. Acima disso a tarefa desce
+ * pelo lado maior e entrega o lado menor a outra tarefa (ou o varre, se for pequeno), então
+ * mesmo uma árvore degenerada não cria uma cadeia de tarefas tão longa quanto ela.
+ * Os resultados parciais são juntados na ordem do caminhamento em ordem.
+ * Quando o acumulador pede para encerrar, todas as tarefas param na próxima visita.
+ */
+class VarreduraParalela<T, R> extends RecursiveTask<R> {
+
+    // Define como os valores visitados são acumulados em um resultado R
+    interface Acumulador<T, R> {
+        // Cria um resultado vazio
+        R novo();
+
+        // Acumula um valor visitado; retorna true se a varredura inteira pode parar
+        boolean acumular(R resultado, T valor);
+
+        // Junta dois resultados, o primeiro vindo antes do segundo no caminhamento em ordem
+        R juntar(R antes, R depois);
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private final No<T> raiz;
+    private final int limiar;
+    private final Acumulador<T, R> acumulador;
+    private final AtomicBoolean parar;
+
+    private VarreduraParalela(No<T> raiz, int limiar, Acumulador<T, R> acumulador, AtomicBoolean parar) {
+        this.raiz = raiz;
+        this.limiar = limiar;
+        this.acumulador = acumulador;
+        this.parar = parar;
+    }
+
+    // Varre a subárvore, em paralelo no pool comum se ela tiver mais de `limiar` nós
+    static <T, R> R executar(No<T> raiz, int limiar, Acumulador<T, R> acumulador) {
+        AtomicBoolean parar = new AtomicBoolean(false);
+        if (No.tamanhoArmazenado(raiz) <= limiar) {
+            return varrerSequencial(raiz, acumulador, parar);
+        }
+        return ForkJoinPool.commonPool().invoke(new VarreduraParalela<>(raiz, limiar, acumulador, parar));
+    }
+
+    // Retorna, em ordem, os valores que satisfazem o predicado (ou só o primeiro encontrado)
+    static <T> List<T> filtrar(No<T> raiz, int limiar, Predicate<? super T> predicado, boolean soOPrimeiro) {
+        return executar(raiz, limiar, new Acumulador<T, List<T>>() {
+            @Override
+            public List<T> novo() {
+                return new ArrayList<>();
+            }
+
+            @Override
+            public boolean acumular(List<T> resultado, T valor) {
+                if (predicado.test(valor)) {
+                    resultado.add(valor);
+                    return soOPrimeiro;
+                }
+                return false;
+            }
+
+            @Override
+            public List<T> juntar(List<T> antes, List<T> depois) {
+                antes.addAll(depois);
+                return antes;
+            }
+        });
+    }
+
+    // Conta os valores que satisfazem o predicado
+    static <T> int contar(No<T> raiz, int limiar, Predicate<? super T> predicado) {
+        return executar(raiz, limiar, new Acumulador<T, int[]>() {
+            @Override
+            public int[] novo() {
+                return new int[1];
+            }
+
+            @Override
+            public boolean acumular(int[] resultado, T valor) {
+                if (predicado.test(valor)) {
+                    resultado[0]++;
+                }
+                return false;
+            }
+
+            @Override
+            public int[] juntar(int[] antes, int[] depois) {
+                antes[0] += depois[0];
+                return antes;
+            }
+        })[0];
+    }
+
+    @Override
+    protected R compute() {
+        // Pedaços do resultado que vêm antes e depois da subárvore que ainda está sendo descida.
+        // Cada pedaço é um R pronto ou uma tarefa bifurcada que será juntada no final
+        List<Object> antes = new ArrayList<>();
+        ArrayDeque<Object> depois = new ArrayDeque<>();
+        R meio = null;
+
+        No<T> no = raiz;
+        while (no != null && !parar.get()) {
+            if (no.getTamanho() <= limiar) {
+                meio = varrerSequencial(no, acumulador, parar);
+                break;
+            }
+            R proprio = acumulador.novo();
+            if (acumulador.acumular(proprio, no.getValor())) {
+                parar.set(true);
+            }
+            No<T> esquerda = no.getFilhoEsquerda();
+            No<T> direita = no.getFilhoDireita();
+            if (No.tamanhoArmazenado(esquerda) >= No.tamanhoArmazenado(direita)) {
+                // Continua pela esquerda; o nó e a direita ficam depois dela
+                depois.addFirst(pedaco(direita));
+                depois.addFirst(proprio);
+                no = esquerda;
+            } else {
+                // Continua pela direita; a esquerda e o nó ficam antes dela
+                antes.add(pedaco(esquerda));
+                antes.add(proprio);
+                no = direita;
+            }
+        }
+
+        R resultado = acumulador.novo();
+        for (Object pedaco : antes) {
+            resultado = acumulador.juntar(resultado, juntarPedaco(pedaco));
+        }
+        if (meio != null) {
+            resultado = acumulador.juntar(resultado, meio);
+        }
+        for (Object pedaco : depois) {
+            resultado = acumulador.juntar(resultado, juntarPedaco(pedaco));
+        }
+        return resultado;
+    }
+
+    // Subárvores grandes viram uma nova tarefa; as pequenas são varridas aqui mesmo
+    private Object pedaco(No<T> no) {
+        if (No.tamanhoArmazenado(no) > limiar) {
+            return new VarreduraParalela<>(no, limiar, acumulador, parar).fork();
+        }
+        return varrerSequencial(no, acumulador, parar);
+    }
+
+    @SuppressWarnings("unchecked")
+    private R juntarPedaco(Object pedaco) {
+        if (pedaco instanceof ForkJoinTask) {
+            return ((ForkJoinTask<R>) pedaco).join();
+        }
+        return (R) pedaco;
+    }
+
+    // Caminhamento em ordem com pilha explícita, interrompido assim que alguém pedir para parar
+    private static <T, R> R varrerSequencial(No<T> raiz, Acumulador<T, R> acumulador, AtomicBoolean parar) {
+        R resultado = acumulador.novo();
+        ArrayDeque<No<T>> pilha = new ArrayDeque<>();
+        No<T> atual = raiz;
+        while ((atual != null || !pilha.isEmpty()) && !parar.get()) {
+            while (atual != null) {
+                pilha.push(atual);
+                atual = atual.getFilhoEsquerda();
+            }
+            atual = pilha.pop();
+            if (acumulador.acumular(resultado, atual.getValor())) {
+                parar.set(true);
+            }
+            atual = atual.getFilhoDireita();
+        }
+        return resultado;
+    }
+}